@@ -2,12 +2,51 @@ package com.ldzspace.log;
 
 import android.util.Log;
 
+import java.util.List;
+
 /**
  * @作者 liudazhi
  * @创建日期 2017/1/2
+ * 一条日志的多行在不超过logcat单条长度限制的情况下合并成一次输出
  */
 
-public class AndroidLogAdapter implements LogAdapter {
+public class AndroidLogAdapter implements BatchLogAdapter {
+    /**
+     * 安卓单条日志小于4076 bytes,和Layout的CHUNK_SIZE保持一致
+     */
+    private static final int MAX_BYTES = 4000;
+
+    @Override
+    public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+        StringBuilder builder = new StringBuilder(512);
+        int bytes = 0;
+        for (int i = 0, size = lines.size(); i < size; i++) {
+            CharSequence line = lines.get(i);
+            int lineBytes = Utf8.length(line, 0, line.length());
+            if (builder.length() > 0 && bytes + 1 + lineBytes > MAX_BYTES) {
+                println(priority, tag, builder.toString());
+                builder.setLength(0);
+                bytes = 0;
+            }
+            if (builder.length() > 0) {
+                builder.append('\n');
+                bytes++;
+            }
+            builder.append(line);
+            bytes += lineBytes;
+        }
+        if (builder.length() > 0) {
+            println(priority, tag, builder.toString());
+        }
+    }
+
+    private void println(int priority, String tag, String message) {
+        if (priority == Log.ASSERT) {
+            Log.wtf(tag, message);
+        } else {
+            Log.println(priority, tag, message);
+        }
+    }
 
     @Override
     public void d(String tag, String message) {
@@ -0,0 +1,186 @@
+package com.ldzspace.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步分发器:调用线程把日志放进环形缓冲区后立即返回,
+ * 唯一的后台线程负责处理(LoggerPrinter中是格式化和调用LogAdapter输出)
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class AsyncDispatcher<T> implements Runnable {
+    /**
+     * 在后台线程中处理缓冲区中的日志
+     */
+    interface Handler<T> {
+        void handle(T item);
+    }
+
+    /**
+     * 后台线程空闲时最长的休眠时间,防止丢失唤醒
+     */
+    private static final long IDLE_PARK_NANOS = 50 * 1000 * 1000L;
+    /**
+     * BLOCK策略下生产者每次等待的时间
+     */
+    private static final long BLOCK_PARK_NANOS = 100 * 1000L;
+
+    private final Handler<T> handler;
+    private final RingBuffer<T> buffer;
+    private final int bufferSize;
+    private final OverflowPolicy policy;
+    private final Thread consumer;
+
+    private final AtomicLong dropped = new AtomicLong();     // 丢弃的日志数
+    private final AtomicLong published = new AtomicLong();   // 放入缓冲区的日志数
+    private final AtomicLong completed = new AtomicLong();   // 已输出或被挤掉的日志数
+
+    private volatile boolean running = true;
+    private volatile boolean waiting;
+
+    AsyncDispatcher(String threadName, Handler<T> handler, int bufferSize, OverflowPolicy policy) {
+        this.handler = handler;
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        consumer = new Thread(this, threadName);
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * 把日志放入缓冲区
+     * @param event
+     * @return 分发器已关闭或者在后台线程中调用时返回false,调用方应同步输出
+     */
+    boolean dispatch(T event) {
+        // 后台线程里的adapter又打了日志,直接同步输出,避免自己等自己
+        if (!running || Thread.currentThread() == consumer) {
+            return false;
+        }
+        switch (policy) {
+            case DROP_NEWEST:
+                if (!buffer.offer(event)) {
+                    dropped.incrementAndGet();
+                    return true;
+                }
+                break;
+            case DROP_OLDEST:
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped.incrementAndGet();
+                        completed.incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+            default:
+                while (!buffer.offer(event)) {
+                    if (!running) {
+                        return false;
+                    }
+                    LockSupport.unpark(consumer);
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+                break;
+        }
+        published.incrementAndGet();
+        if (!running) {
+            // 检查running之后shutdown才开始,这条日志可能错过shutdown的补输出,等后台线程结束后自己输出
+            while (consumer.isAlive()) {
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+            drain();
+        } else if (waiting) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        for (;;) {
+            T event = buffer.poll();
+            if (event != null) {
+                handle(event);
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            waiting = true;
+            // 设置waiting之后再检查一次,和生产者的写入形成配对
+            if (buffer.isEmpty() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+    /**
+     * 等待调用前已放入缓冲区的日志全部输出
+     */
+    void flush() {
+        if (Thread.currentThread() == consumer) {
+            return;
+        }
+        long target = published.get();
+        while (completed.get() < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+    }
+
+    /**
+     * 停止接收新日志,输出缓冲区中剩余的日志后结束后台线程
+     */
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+        if (Thread.currentThread() == consumer) {
+            return;
+        }
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // 关闭瞬间仍可能有生产者写入,由调用shutdown的线程补输出
+        drain();
+    }
+
+    /**
+     * 后台线程结束后输出缓冲区中剩余的日志,shutdown和晚到的生产者可能同时调用,加锁保证依次输出
+     */
+    private synchronized void drain() {
+        T event;
+        while ((event = buffer.poll()) != null) {
+            handle(event);
+        }
+    }
+
+    private void handle(T event) {
+        try {
+            handler.handle(event);
+        } catch (RuntimeException e) {
+            // adapter抛出的异常不能让后台线程退出,也不能中断补输出
+            e.printStackTrace();
+        }
+        completed.incrementAndGet();
+    }
+
+    /**
+     * 是否是按这个缓冲区大小和策略创建的
+     */
+    boolean matches(int bufferSize, OverflowPolicy policy) {
+        return this.bufferSize == bufferSize && this.policy == policy;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
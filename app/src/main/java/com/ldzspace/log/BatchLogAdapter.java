@@ -0,0 +1,21 @@
+package com.ldzspace.log;
+
+import java.util.List;
+
+/**
+ * 支持批量输出的adapter,一条日志(包括边框,线程信息,方法信息和内容)只调用一次
+ * 普通的LogAdapter会被LogAdapterBridge包装成逐行输出
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public interface BatchLogAdapter extends LogAdapter {
+    /**
+     * 输出一条日志的所有行
+     * lines在调用返回后会被复用,需要保留时请自行拷贝
+     * @param priority log级别
+     * @param tag      格式化后的tag,每条日志只计算一次
+     * @param lines    日志的所有行,不包含换行符
+     */
+    void writeEvent(int priority, String tag, List<CharSequence> lines);
+}
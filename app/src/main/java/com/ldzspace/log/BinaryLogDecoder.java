@@ -0,0 +1,414 @@
+package com.ldzspace.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 把BinaryLogWriter写入的二进制日志还原成LoggerPrinter的边框格式
+ * 每行的格式和MappedFileLogAdapter相同: 10-18 12:00:00.000 D/DZLOG: 内容
+ * 命令行: java com.ldzspace.log.BinaryLogDecoder <日志目录或分段文件>...
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class BinaryLogDecoder {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String DEFAULT_TAG = "DZLOG";
+
+    private final TextAdapter adapter;
+    private final LoggerPrinter printer;
+    private final LoggerPrinter hiddenThreadPrinter;
+
+    /**
+     * 当前分段中的定义,每个分段独立
+     */
+    private final HashMap<Integer, String> strings = new HashMap<>();
+    private final HashMap<Integer, StackTraceElement> callSites = new HashMap<>();
+    private long lastTimestamp;
+
+    private byte[] data;
+    private int position;
+
+    /**
+     * @param out 还原后的文本输出到这里
+     */
+    public BinaryLogDecoder(Appendable out) {
+        adapter = new TextAdapter(out);
+        printer = new LoggerPrinter();
+        printer.getSettings().setLogAdapter(adapter);
+        hiddenThreadPrinter = new LoggerPrinter();
+        hiddenThreadPrinter.getSettings().hideThreadInfo().setLogAdapter(adapter);
+    }
+
+    /**
+     * 还原目录中的所有归档和分段,或者单个分段/归档文件
+     * @param file
+     * @return 还原的日志条数
+     * @throws IOException
+     */
+    public int decode(File file) throws IOException {
+        if (file.isDirectory()) {
+            int count = 0;
+            // 归档都是已经关闭的分段,比目录中的分段旧
+            for (File archive : LogArchiver.list(file)) {
+                if (archive.getName().endsWith(BinaryLogWriter.SUFFIX + LogArchiver.SUFFIX)) {
+                    count += decodeSegment(archive);
+                }
+            }
+            for (File segment : MappedSegments.list(file, BinaryLogWriter.SUFFIX)) {
+                count += decodeSegment(segment);
+            }
+            return count;
+        }
+        return decodeSegment(file);
+    }
+
+    private int decodeSegment(File segment) throws IOException {
+        if (segment.getName().endsWith(LogArchiver.SUFFIX)) {
+            LogArchive archive = new LogArchive(segment);
+            try {
+                byte[] bytes = archive.readAll();
+                return decode(bytes, bytes.length);
+            } finally {
+                archive.close();
+            }
+        }
+        RandomAccessFile file = new RandomAccessFile(segment, "r");
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            file.readFully(bytes);
+            return decode(bytes, bytes.length);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * 还原一个分段的内容
+     * @param bytes
+     * @param length
+     * @return 还原的日志条数
+     * @throws IOException 不是二进制日志分段
+     */
+    public int decode(byte[] bytes, int length) throws IOException {
+        byte[] magic = BinaryLogWriter.MAGIC;
+        if (length < magic.length + 1 || !Arrays.equals(Arrays.copyOf(bytes, magic.length), magic)) {
+            throw new IOException("not a binary log segment");
+        }
+        if (bytes[magic.length] != BinaryLogWriter.VERSION) {
+            throw new IOException("unsupported version " + bytes[magic.length]);
+        }
+        data = bytes;
+        position = magic.length + 1;
+        strings.clear();
+        callSites.clear();
+        lastTimestamp = 0;
+        int count = 0;
+        try {
+            // 长度为0的帧是分段中未写入的部分,或者写到一半的日志
+            while (position < length) {
+                int frameLength = readVarInt();
+                int end = position + frameLength;
+                if (frameLength == 0 || end > length) {
+                    break;
+                }
+                while (position < end) {
+                    if (readRecord()) {
+                        count++;
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // 分段末尾的数据不完整
+        }
+        return count;
+    }
+
+    /**
+     * 读取一条记录
+     * @return 是日志记录时返回true
+     * @throws IOException
+     */
+    private boolean readRecord() throws IOException {
+        int type = data[position++];
+        switch (type) {
+            case BinaryLogWriter.RECORD_STRING:
+                int stringId = readVarInt();
+                strings.put(stringId, readString());
+                return false;
+            case BinaryLogWriter.RECORD_CALL_SITE:
+                int callSiteId = readVarInt();
+                String className = readStringRef();
+                String methodName = readStringRef();
+                String fileName = readStringRef();
+                int lineNumber = (int) readSignedVarLong();
+                callSites.put(callSiteId, new StackTraceElement(className, methodName, fileName, lineNumber));
+                return false;
+            case BinaryLogWriter.RECORD_EVENT:
+                readEvent();
+                return true;
+            default:
+                throw new IOException("unknown record type " + type);
+        }
+    }
+
+    private void readEvent() {
+        LogEvent event = new LogEvent();
+        event.priority = data[position++];
+        int flags = data[position++];
+        lastTimestamp += readSignedVarLong();
+        event.timestamp = lastTimestamp;
+        String tag = readStringRef();
+        event.threadName = readStringRef();
+        event.methodCount = readVarInt();
+        int callSiteCount = readVarInt();
+        if (callSiteCount > 0) {
+            StackTraceElement[] stackTrace = new StackTraceElement[callSiteCount];
+            for (int i = 0; i < callSiteCount; i++) {
+                stackTrace[i] = callSites.get(readVarInt());
+            }
+            event.stackTrace = stackTrace;
+        }
+        event.message = readStringRef();
+        readArgs(event);
+        if ((flags & BinaryLogWriter.FLAG_FIELDS) != 0) {
+            event.fields = readFields();
+        }
+        String throwable = (flags & BinaryLogWriter.FLAG_THROWABLE) != 0 ? readString() : null;
+
+        // 消息在这里格式化好,异常已经是文本,交给LoggerPrinter绘制边框
+        String message = format(event);
+        if (throwable != null) {
+            message = message == null ? throwable : message + ": " + throwable;
+        }
+        event.message = message;
+        event.args = null;
+        LoggerPrinter printer = (flags & BinaryLogWriter.FLAG_THREAD_INFO) != 0 ? this.printer : hiddenThreadPrinter;
+        printer.init(Helper.isEmpty(tag) ? DEFAULT_TAG : tag);
+        adapter.timestamp = event.timestamp;
+        printer.print(event);
+    }
+
+    private static String format(LogEvent event) {
+        try {
+            return MessageFormatter.format(event, false);
+        } catch (IllegalFormatException e) {
+            // 写入时转换成字符串的参数可能和模板不匹配,原样输出模板和参数
+            return event.message + " " + Arrays.toString(event.args);
+        }
+    }
+
+    private void readArgs(LogEvent event) {
+        int count = readVarInt();
+        if (count == 0) {
+            event.args = null;
+            return;
+        }
+        Object[] args = new Object[count];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readArg();
+        }
+        event.args = args;
+    }
+
+    private LogFields readFields() {
+        int size = readVarInt();
+        String[] keys = new String[size];
+        byte[] types = new byte[size];
+        long[] values = new long[size];
+        Object[] objects = null;
+        for (int i = 0; i < size; i++) {
+            keys[i] = readStringRef();
+            types[i] = data[position++];
+            switch (types[i]) {
+                case LogFields.TYPE_LONG:
+                    values[i] = readSignedVarLong();
+                    break;
+                case LogFields.TYPE_DOUBLE:
+                    values[i] = readLong();
+                    break;
+                case LogFields.TYPE_BOOLEAN:
+                    values[i] = data[position++];
+                    break;
+                default:
+                    if (objects == null) {
+                        objects = new Object[size];
+                    }
+                    objects[i] = readArg();
+                    break;
+            }
+        }
+        return new LogFields(keys, types, values, objects);
+    }
+
+    private Object readArg() {
+        int type = data[position++];
+        switch (type) {
+            case BinaryLogWriter.ARG_INT:
+                return (int) readSignedVarLong();
+            case BinaryLogWriter.ARG_LONG:
+                return readSignedVarLong();
+            case BinaryLogWriter.ARG_SHORT:
+                return (short) readSignedVarLong();
+            case BinaryLogWriter.ARG_BYTE:
+                return (byte) readSignedVarLong();
+            case BinaryLogWriter.ARG_FLOAT:
+                return Float.intBitsToFloat((int) readLong());
+            case BinaryLogWriter.ARG_DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case BinaryLogWriter.ARG_BOOLEAN:
+                return data[position++] != 0;
+            case BinaryLogWriter.ARG_CHAR:
+                return (char) readVarInt();
+            case BinaryLogWriter.ARG_STRING:
+                return readString();
+            default:
+                return null;
+        }
+    }
+
+    private String readStringRef() {
+        int ref = readVarInt();
+        if (ref == BinaryLogWriter.REF_NULL) {
+            return null;
+        }
+        if (ref == BinaryLogWriter.REF_INLINE) {
+            return readString();
+        }
+        return strings.get(ref);
+    }
+
+    private String readString() {
+        int length = readVarInt();
+        if (position + length > data.length) {
+            throw new ArrayIndexOutOfBoundsException(position + length);
+        }
+        String value = new String(data, position, length, UTF_8);
+        position += length;
+        return value;
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data[position++];
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private long readSignedVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data[position++];
+            zigzag |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[position++] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * 把LoggerPrinter输出的行加上时间和级别写入Appendable
+     */
+    private static final class TextAdapter implements BatchLogAdapter {
+        private static final char[] PRIORITIES = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+
+        private final Appendable out;
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+        private final Date date = new Date();
+        long timestamp;
+
+        TextAdapter(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+            date.setTime(timestamp);
+            char level = priority >= 0 && priority < PRIORITIES.length ? PRIORITIES[priority] : '?';
+            String prefix = dateFormat.format(date) + ' ' + level + '/' + tag + ": ";
+            try {
+                for (int i = 0, size = lines.size(); i < size; i++) {
+                    out.append(prefix).append(lines.get(i)).append('\n');
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void writeMessage(int priority, String tag, String message) {
+            writeEvent(priority, tag, Collections.<CharSequence>singletonList(message));
+        }
+
+        @Override
+        public void d(String tag, String message) {
+            writeMessage(Logger.DEBUG, tag, message);
+        }
+
+        @Override
+        public void e(String tag, String message) {
+            writeMessage(Logger.ERROR, tag, message);
+        }
+
+        @Override
+        public void v(String tag, String message) {
+            writeMessage(Logger.VERBOSE, tag, message);
+        }
+
+        @Override
+        public void i(String tag, String message) {
+            writeMessage(Logger.INFO, tag, message);
+        }
+
+        @Override
+        public void w(String tag, String message) {
+            writeMessage(Logger.WARN, tag, message);
+        }
+
+        @Override
+        public void wtf(String tag, String message) {
+            writeMessage(Logger.ASSERT, tag, message);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: BinaryLogDecoder <log directory or segment file>...");
+            System.exit(1);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8));
+        BinaryLogDecoder decoder = new BinaryLogDecoder(out);
+        try {
+            for (String path : args) {
+                decoder.decode(new File(path));
+            }
+        } finally {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.ldzspace.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 二进制日志格式的写入器,持久化日志时代替边框文本
+ * 不格式化消息也不绘制边框,只记录模板、原始参数、时间、线程和调用位置,需要查看时用BinaryLogDecoder还原成文本;
+ * 字符串(模板,tag,线程名,类名,方法名)和调用位置在每个分段中只写一次定义,之后的日志只写编号
+ * 分段文件: dzlog-00000001.dzb ...,由MappedSegments管理,每次打开都从新的分段开始
+ *
+ * 分段格式: "DZLB" 版本号(1字节) 帧 帧 ... 0
+ * 帧:       长度(varint) 记录 记录 ...        一条日志一帧,先写内容最后写长度,写到一半的帧长度为0,读取时当作结尾
+ * 记录:     RECORD_STRING    编号 字符串
+ *           RECORD_CALL_SITE 编号 类名引用 方法名引用 文件名引用 行号
+ *           RECORD_EVENT     级别 标志 时间差 tag引用 线程名引用 方法数 调用位置数 调用位置编号... 模板引用 参数数 参数... [字段] [异常]
+ * 字段:     字段数 (键引用 类型 值)...            结构化日志的字段,基本类型的值不转换成字符串
+ * 字符串引用: 0表示null,1表示后面紧跟字符串,其他值是字符串编号
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class BinaryLogWriter {
+    static final String SUFFIX = ".dzb";
+    static final byte[] MAGIC = {'D', 'Z', 'L', 'B'};
+    static final int VERSION = 2;
+
+    static final int RECORD_STRING = 1;
+    static final int RECORD_CALL_SITE = 2;
+    static final int RECORD_EVENT = 3;
+
+    static final int REF_NULL = 0;
+    static final int REF_INLINE = 1;
+    static final int FIRST_ID = 2;
+
+    static final int FLAG_THREAD_INFO = 1;
+    static final int FLAG_THROWABLE = 2;
+    static final int FLAG_FIELDS = 4;
+
+    /**
+     * Object参数的类型,其他类型的对象写入时转换成字符串
+     */
+    static final int ARG_NULL = 0;
+    static final int ARG_INT = 1;
+    static final int ARG_LONG = 2;
+    static final int ARG_SHORT = 3;
+    static final int ARG_BYTE = 4;
+    static final int ARG_FLOAT = 5;
+    static final int ARG_DOUBLE = 6;
+    static final int ARG_BOOLEAN = 7;
+    static final int ARG_CHAR = 8;
+    static final int ARG_STRING = 9;
+
+    /**
+     * 每个分段最多定义的字符串数,超过后新的字符串直接写在日志中,防止拼接出来的消息撑大字典
+     */
+    private static final int MAX_STRINGS = 4096;
+    private static final int MAX_CALL_SITES = 4096;
+
+    private final MappedSegments segments;
+    private final HashMap<String, Integer> strings = new HashMap<>();
+    private final HashMap<StackTraceElement, Integer> callSites = new HashMap<>();
+    private final Encoder definitions = new Encoder();   // 本条日志新增的定义
+    private final Encoder body = new Encoder();          // 本条日志的内容
+    private final int maxStringBytes;
+    private long lastTimestamp;                          // 分段中上一条日志的时间,时间按差值写入
+    private long pendingTimestamp;
+    private boolean closed;
+
+    public BinaryLogWriter(File directory) throws IOException {
+        this(directory, MappedFileLogAdapter.DEFAULT_SEGMENT_SIZE, 0, MappedFileLogAdapter.DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * @param directory          日志目录
+     * @param segmentSize        每个分段的大小(字节)
+     * @param rollIntervalMillis 分段的最长时间,超过后滚动到新的分段,0表示只按大小滚动
+     * @param maxSegments        最多保留的分段数
+     * @throws IOException
+     */
+    public BinaryLogWriter(File directory, int segmentSize, long rollIntervalMillis, int maxSegments) throws IOException {
+        segments = new MappedSegments(directory, SUFFIX, segmentSize, rollIntervalMillis, maxSegments);
+        // 单个字符串最多占分段的1/8,保证一条日志总能写进一个新的分段
+        maxStringBytes = segmentSize / 8;
+        segments.openNext();
+        writeHeader();
+    }
+
+    /**
+     * 当前分段和之前保留的分段,从旧到新排列
+     * @return
+     */
+    public File[] getSegments() {
+        return segments.list();
+    }
+
+    /**
+     * 滚动后把关闭的分段压缩成归档,节省存储空间和上传流量,用LogArchive读取
+     * @param archiver 为null时不再压缩
+     */
+    public synchronized void archiveTo(LogArchiver archiver) {
+        if (!closed) {
+            segments.archiveTo(archiver);
+        }
+    }
+
+    /**
+     * 写入一条日志
+     * @param event
+     * @param tag            格式化后的tag
+     * @param showThreadInfo 还原时是否显示线程信息
+     * @param methodOffset   省略的方法数
+     * @param renderer       异常的格式化方式
+     */
+    synchronized void write(LogEvent event, String tag, boolean showThreadInfo, int methodOffset, ThrowableRenderer renderer) {
+        if (closed) {
+            return;
+        }
+        try {
+            if (segments.isExpired(event.timestamp)) {
+                roll();
+            }
+            encode(event, tag, showThreadInfo, methodOffset, renderer);
+            if (frameSize() > segments.remaining()) {
+                // 新的分段需要重新写字符串定义
+                roll();
+                encode(event, tag, showThreadInfo, methodOffset, renderer);
+                if (frameSize() > segments.remaining()) {
+                    // 放不下的日志直接丢弃,编码时分配的编号没有写入定义,需要重新开始编号
+                    resetDictionary();
+                    return;
+                }
+            }
+            writeFrame();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeHeader() {
+        segments.put(MAGIC, 0, MAGIC.length);
+        segments.put(new byte[]{VERSION}, 0, 1);
+    }
+
+    private void roll() throws IOException {
+        segments.roll();
+        resetDictionary();
+        lastTimestamp = 0;
+        writeHeader();
+    }
+
+    /**
+     * 清空字符串和调用位置的编号,之后出现的字符串重新写入定义,读取时新的定义覆盖旧的定义
+     */
+    private void resetDictionary() {
+        strings.clear();
+        callSites.clear();
+    }
+
+    private void encode(LogEvent event, String tag, boolean showThreadInfo, int methodOffset, ThrowableRenderer renderer) {
+        Encoder definitions = this.definitions;
+        Encoder body = this.body;
+        definitions.reset();
+        body.reset();
+        body.writeByte(RECORD_EVENT);
+        body.writeByte(event.priority);
+        int flags = showThreadInfo ? FLAG_THREAD_INFO : 0;
+        if (event.throwable != null) {
+            flags |= FLAG_THROWABLE;
+        }
+        LogFields fields = LogFields.merge(event.context, event.fields);
+        if (fields != null && fields.size() > 0) {
+            flags |= FLAG_FIELDS;
+        }
+        body.writeByte(flags);
+        body.writeSignedVarLong(event.timestamp - lastTimestamp);
+        pendingTimestamp = event.timestamp;
+        writeStringRef(tag);
+        writeStringRef(showThreadInfo ? event.threadName : null);
+        body.writeVarInt(event.methodCount);
+        writeCallSites(event.stackTrace, event.methodCount, methodOffset);
+        writeStringRef(event.message);
+        writeArgs(event);
+        if ((flags & FLAG_FIELDS) != 0) {
+            writeFields(fields);
+        }
+        if (event.throwable != null) {
+            body.writeString(renderer.render(event.throwable), maxStringBytes);
+        }
+    }
+
+    /**
+     * 只写入会被打印的调用位置,和LoggerPrinter中的选取方式相同,从内到外排列
+     */
+    private void writeCallSites(StackTraceElement[] stackTrace, int methodCount, int methodOffset) {
+        int caller = stackTrace == null ? -1 : CallerLocator.callerIndex(stackTrace);
+        if (caller < 0) {
+            body.writeVarInt(0);
+            return;
+        }
+        int offset = caller + methodOffset;
+        int count = Math.max(0, Math.min(methodCount, stackTrace.length - offset));
+        body.writeVarInt(count);
+        for (int i = 0; i < count; i++) {
+            body.writeVarInt(callSiteId(stackTrace[offset + i]));
+        }
+    }
+
+    private int callSiteId(StackTraceElement element) {
+        Integer id = callSites.get(element);
+        if (id != null) {
+            return id;
+        }
+        if (callSites.size() >= MAX_CALL_SITES) {
+            // 编号从0重新开始,新的定义覆盖旧的定义
+            callSites.clear();
+        }
+        // 调用位置的字符串定义要写在调用位置定义之前
+        int classRef = stringRef(element.getClassName());
+        int methodRef = stringRef(element.getMethodName());
+        int fileRef = stringRef(element.getFileName());
+        int result = callSites.size();
+        callSites.put(element, result);
+        Encoder definitions = this.definitions;
+        definitions.writeByte(RECORD_CALL_SITE);
+        definitions.writeVarInt(result);
+        writeDefinitionRef(classRef, element.getClassName());
+        writeDefinitionRef(methodRef, element.getMethodName());
+        writeDefinitionRef(fileRef, element.getFileName());
+        definitions.writeSignedVarLong(element.getLineNumber());
+        return result;
+    }
+
+    private void writeDefinitionRef(int ref, String value) {
+        definitions.writeVarInt(ref);
+        if (ref == REF_INLINE) {
+            definitions.writeString(value, maxStringBytes);
+        }
+    }
+
+    private void writeStringRef(String value) {
+        int ref = stringRef(value);
+        body.writeVarInt(ref);
+        if (ref == REF_INLINE) {
+            body.writeString(value, maxStringBytes);
+        }
+    }
+
+    /**
+     * 获取字符串的编号,第一次出现时在definitions中写入定义
+     * @return REF_NULL, REF_INLINE 或者字符串编号
+     */
+    private int stringRef(String value) {
+        if (value == null) {
+            return REF_NULL;
+        }
+        Integer id = strings.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (strings.size() >= MAX_STRINGS) {
+            return REF_INLINE;
+        }
+        int result = FIRST_ID + strings.size();
+        strings.put(value, result);
+        definitions.writeByte(RECORD_STRING);
+        definitions.writeVarInt(result);
+        definitions.writeString(value, maxStringBytes);
+        return result;
+    }
+
+    private void writeArgs(LogEvent event) {
+        Object[] args = event.args;
+        if (args == null) {
+            body.writeVarInt(0);
+            return;
+        }
+        body.writeVarInt(args.length);
+        for (Object arg : args) {
+            writeArg(arg);
+        }
+    }
+
+    private void writeFields(LogFields fields) {
+        Encoder body = this.body;
+        int size = fields.size();
+        body.writeVarInt(size);
+        for (int i = 0; i < size; i++) {
+            writeStringRef(fields.getKey(i));
+            int type = fields.getType(i);
+            body.writeByte(type);
+            switch (type) {
+                case LogFields.TYPE_LONG:
+                    body.writeSignedVarLong(fields.getLong(i));
+                    break;
+                case LogFields.TYPE_DOUBLE:
+                    body.writeLong(fields.getLong(i));
+                    break;
+                case LogFields.TYPE_BOOLEAN:
+                    body.writeByte((int) fields.getLong(i));
+                    break;
+                default:
+                    writeArg(fields.getValue(i));
+                    break;
+            }
+        }
+    }
+
+    private void writeArg(Object value) {
+        Encoder body = this.body;
+        if (value == null) {
+            body.writeByte(ARG_NULL);
+        } else if (value instanceof Integer) {
+            body.writeByte(ARG_INT);
+            body.writeSignedVarLong((Integer) value);
+        } else if (value instanceof Long) {
+            body.writeByte(ARG_LONG);
+            body.writeSignedVarLong((Long) value);
+        } else if (value instanceof Short) {
+            body.writeByte(ARG_SHORT);
+            body.writeSignedVarLong((Short) value);
+        } else if (value instanceof Byte) {
+            body.writeByte(ARG_BYTE);
+            body.writeSignedVarLong((Byte) value);
+        } else if (value instanceof Float) {
+            body.writeByte(ARG_FLOAT);
+            body.writeLong(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Double) {
+            body.writeByte(ARG_DOUBLE);
+            body.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Boolean) {
+            body.writeByte(ARG_BOOLEAN);
+            body.writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof Character) {
+            body.writeByte(ARG_CHAR);
+            body.writeVarInt((Character) value);
+        } else {
+            // 对象的内容之后可能改变,只能在写入时转换成字符串
+            body.writeByte(ARG_STRING);
+            body.writeString(value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value.toString(), maxStringBytes);
+        }
+    }
+
+    private int frameSize() {
+        int length = definitions.length + body.length;
+        return Encoder.varIntSize(length) + length;
+    }
+
+    /**
+     * 先跳过长度写入内容,最后从后往前写长度,长度的第一个字节不为0,写入完成前读取时这一帧被当作分段的结尾
+     */
+    private void writeFrame() {
+        int length = definitions.length + body.length;
+        int position = segments.position();
+        int size = Encoder.varIntSize(length);
+        segments.skip(size);
+        segments.put(definitions.bytes, 0, definitions.length);
+        segments.put(body.bytes, 0, body.length);
+        for (int i = size - 1; i >= 0; i--) {
+            int b = (length >>> (7 * i)) & 0x7f;
+            segments.put(position + i, (byte) (i < size - 1 ? b | 0x80 : b));
+        }
+        lastTimestamp = pendingTimestamp;
+    }
+
+    /**
+     * 把映射内存中的数据写回磁盘,防止断电丢失;进程被杀死不需要调用
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            segments.force();
+        }
+    }
+
+    /**
+     * 关闭写入器,截断当前分段未使用的部分
+     * @throws IOException
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.close();
+    }
+
+    /**
+     * 可增长的字节数组,整数使用varint编码
+     */
+    static final class Encoder {
+        byte[] bytes = new byte[256];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        private void ensure(int size) {
+            if (length + size > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + size, bytes.length * 2));
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         * zigzag编码,绝对值小的负数也只占很少的字节
+         */
+        void writeSignedVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((zigzag & ~0x7fL) != 0) {
+                bytes[length++] = (byte) ((zigzag & 0x7f) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[length++] = (byte) zigzag;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        /**
+         * 长度(varint) + UTF-8内容,超过maxBytes时在码点边界处截断
+         */
+        void writeString(CharSequence value, int maxBytes) {
+            int bytes = Math.min(Utf8.length(value, 0, value.length()), maxBytes);
+            int size = varIntSize(bytes);
+            ensure(size + bytes);
+            int start = length + size;
+            int end = Utf8.encode(value, 0, value.length(), this.bytes, start, bytes);
+            // 截断时可能比预计的少几个字节,长度按预留的字节数写入(高位补0的varint)
+            int actual = end - start;
+            for (int i = 0; i < size; i++) {
+                int b = (actual >>> (7 * i)) & 0x7f;
+                this.bytes[length + i] = (byte) (i < size - 1 ? b | 0x80 : b);
+            }
+            length = end;
+        }
+
+        static int varIntSize(int value) {
+            int size = 1;
+            while ((value & ~0x7f) != 0) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ldzspace.log;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 默认的边框样式:
+ *     ╔════════════
+ *     ║ Thread: main
+ *     ╟────────────
+ *     ║ MainActivity.onCreate  (MainActivity.java:20)
+ *     ║    Helper.run  (Helper.java:10)
+ *     ╟────────────
+ *     消息
+ *     ╚════════════
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class BoxLayout extends Layout {
+    static final BoxLayout INSTANCE = new BoxLayout();
+
+    private static final char TOP_LEFT_CORNER = '╔';
+    private static final char BOTTOM_LEFT_CORNER = '╚';
+    private static final char MIDDLE_CORNER = '╟';
+    private static final char HORIZONTAL_DOUBLE_LINE = '║';
+    private static final String DOUBLE_DIVIDER = "════════════════════════════════════════════";
+    private static final String SINGLE_DIVIDER = "────────────────────────────────────────────";
+    static final String TOP_BORDER = TOP_LEFT_CORNER + DOUBLE_DIVIDER + DOUBLE_DIVIDER;
+    static final String BOTTOM_BORDER = BOTTOM_LEFT_CORNER + DOUBLE_DIVIDER + DOUBLE_DIVIDER;
+    static final String MIDDLE_BORDER = MIDDLE_CORNER + SINGLE_DIVIDER + SINGLE_DIVIDER;
+
+    /**
+     * 缓存的线程信息行上限
+     */
+    private static final int MAX_THREAD_LINES = 256;
+
+    /**
+     * 线程名 -> 线程信息行,线程名通常很少变化
+     */
+    private final ConcurrentHashMap<String, String> threadLines = new ConcurrentHashMap<>();
+
+    @Override
+    void layout(LogEvent event, String tag, CharSequence content, LogConfig config, LineBuffer out, LogMetrics metrics) {
+        List<CharSequence> lines = out.lines;
+        lines.add(TOP_BORDER);
+        int methodCount = event.methodCount;
+        // 查看控制器/设置器 是否允许展示线程栈信息
+        if(config.isShowThreadInfo()){
+            // 样式 : ║ Thread: 线程名
+            lines.add(getThreadLine(event.threadName));
+            lines.add(MIDDLE_BORDER);
+        }
+        appendCallers(lines, config, methodCount, event.stackTrace);
+        if(methodCount > 0){
+            lines.add(MIDDLE_BORDER);
+        }
+        appendContent(out, content, CHUNK_SIZE, metrics);
+        lines.add(BOTTOM_BORDER);
+    }
+
+    /**
+     * 调用位置,从最外层的调用开始,每深入一层缩进一次
+     */
+    private static void appendCallers(List<CharSequence> lines, LogConfig config, int methodCount, StackTraceElement[] stackTrace) {
+        if(stackTrace == null){
+            return;
+        }
+        int caller = CallerLocator.callerIndex(stackTrace);
+        if(caller < 0){
+            return;
+        }
+        int offset = caller + config.getMethodOffset();
+        // 当前的堆栈对应的方法数信息可能超过了追踪堆栈的的方法数量.需要去除
+        int count = Math.min(methodCount, stackTrace.length - offset);
+        for(int i = count - 1, depth = 0; i >= 0; i--, depth++){
+            lines.add(CallerLocator.line(stackTrace[offset + i], depth));
+        }
+    }
+
+    /**
+     * 获取线程信息行
+     * @param threadName
+     * @return 样式 : ║ Thread: 线程名
+     */
+    private String getThreadLine(String threadName) {
+        String line = threadLines.get(threadName);
+        if(line == null){
+            line = HORIZONTAL_DOUBLE_LINE + " Thread: " + threadName;
+            if(threadLines.size() >= MAX_THREAD_LINES){
+                threadLines.clear();
+            }
+            threadLines.put(threadName, line);
+        }
+        return line;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ldzspace.log;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 调用位置的获取和格式化
+ * 只有在需要打印方法信息时才获取栈信息,使用new Throwable()代替Thread.getStackTrace(),
+ * 省去了线程状态检查和虚拟机自身的栈帧;
+ * 格式化后的 "║ 类名.方法名  (文件名:行号)" 按调用位置和缩进层级缓存,同一位置重复调用不再拼接字符串
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class CallerLocator {
+    /**
+     * 缓存的调用位置上限,超过后清空重新缓存,防止动态生成的类无限增长
+     */
+    private static final int MAX_CACHE_SIZE = 1024;
+    /**
+     * 每层缩进的空格
+     */
+    private static final String INDENT = "   ";
+
+    /**
+     * 日志库自身的类,获取调用位置时跳过
+     */
+    private static final Set<String> LIBRARY_CLASSES = new HashSet<>();
+
+    static {
+        LIBRARY_CLASSES.add(CallerLocator.class.getName());
+        LIBRARY_CLASSES.add(LoggerPrinter.class.getName());
+        LIBRARY_CLASSES.add(Logger.class.getName());
+        LIBRARY_CLASSES.add(TaggedPrinter.class.getName());
+        LIBRARY_CLASSES.add(StructuredEventBuilder.class.getName());
+    }
+
+    /**
+     * 调用位置 -> 各缩进层级格式化后的字符串
+     */
+    private static final ConcurrentHashMap<StackTraceElement, String[]> LINES = new ConcurrentHashMap<>();
+
+    private CallerLocator() {
+    }
+
+    /**
+     * 获取当前线程的栈信息,必须在调用线程上执行
+     * @return
+     */
+    static StackTraceElement[] capture() {
+        return new Throwable().getStackTrace();
+    }
+
+    /**
+     * 第一个不属于日志库的栈帧位置,即用户调用Logger的位置
+     * @param trace
+     * @return 没有找到返回-1
+     */
+    static int callerIndex(StackTraceElement[] trace) {
+        for (int i = 0; i < trace.length; i++) {
+            if (!LIBRARY_CLASSES.contains(trace[i].getClassName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取格式化后的调用位置
+     * @param element 栈帧
+     * @param depth   缩进层级
+     * @return 样式: ║ 类名.方法名  (文件名:行号)
+     */
+    static String line(StackTraceElement element, int depth) {
+        String[] lines = LINES.get(element);
+        if (lines == null || depth >= lines.length) {
+            String[] grown = new String[Math.max(depth + 1, 4)];
+            if (lines != null) {
+                System.arraycopy(lines, 0, grown, 0, lines.length);
+            }
+            lines = grown;
+            if (LINES.size() >= MAX_CACHE_SIZE) {
+                LINES.clear();
+            }
+            LINES.put(element, lines);
+        }
+        // 并发时可能重复格式化,结果相同,不需要加锁
+        String line = lines[depth];
+        if (line == null) {
+            line = format(element, depth);
+            lines[depth] = line;
+        }
+        return line;
+    }
+
+    private static String format(StackTraceElement element, int depth) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("║ ");
+        for (int i = 0; i < depth; i++) {
+            builder.append(INDENT);
+        }
+        String className = element.getClassName();
+        builder.append(className.substring(className.lastIndexOf('.') + 1))
+                .append(".")
+                .append(element.getMethodName())
+                .append(" ")
+                .append(" (")
+                .append(element.getFileName())
+                .append(":")
+                .append(element.getLineNumber())
+                .append(")");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ldzspace.log;
+
+/**
+ * 字符串的一段视图,不拷贝字符,只有调用toString()时才生成新的字符串
+ * LineBuffer中的实例在每条日志输出后重新设置,adapter需要保留时用retain()
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class CharSlice implements CharSequence {
+    private CharSequence text;
+    private int start;
+    private int end;
+
+    CharSlice(CharSequence text, int start, int end) {
+        set(text, start, end);
+    }
+
+    void set(CharSequence text, int start, int end) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * 调用返回后仍然有效的副本: 原文本是String时只复制视图,否则拷贝字符
+     * @return
+     */
+    CharSequence retain() {
+        return text instanceof String ? new CharSlice(text, start, end) : toString();
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new CharSlice(text, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        return text.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,203 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 崩溃缓冲区: 在内存中保留最近的N条日志,崩溃时或者需要时再格式化输出
+ * 即使全局级别是NONE也会记录(在级别过滤之前),记录时不格式化消息也不获取栈信息,
+ * 只把模板,参数,tag,线程名和时间写入预先分配好的槽位
+ * 用法:
+ *     CrashBuffer crashBuffer = new CrashBuffer(256, LogLevel.DEBUG);
+ *     Logger.init().crashBuffer(crashBuffer).setLogLevel(LogLevel.NONE);
+ *     crashBuffer.installUncaughtExceptionHandler(new MappedFileLogAdapter(dir));
+ * 参数对象按引用保存,输出时才调用toString();多个线程同时写入同一个槽位(缓冲区远小于并发数)时,
+ * 输出的内容可能混合,这种情况只在极端并发下出现
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class CrashBuffer {
+    private final Slot[] slots;
+    private final int mask;
+    private final int minPriority;
+    private final AtomicLong next = new AtomicLong();
+    private volatile String tag = LogConfig.DEFAULT_TAG;   // 配置了这个缓冲区的printer的tag,崩溃日志使用
+
+    /**
+     * @param capacity 保留的日志条数,向上取2的幂
+     * @param minLevel 记录的最低级别,和全局级别无关
+     */
+    public CrashBuffer(int capacity, LogLevel minLevel) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (minLevel == null) {
+            throw new IllegalArgumentException("minLevel is null");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+        minPriority = minLevel.getPriority();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * 配置到printer时记录printer的tag,多个printer共用时使用最后配置的
+     * @param tag
+     */
+    void attach(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * 是否记录这个级别的日志,用于被过滤的调用判断是否还需要准备参数
+     */
+    boolean accepts(int priority) {
+        return priority >= minPriority;
+    }
+
+    /**
+     * 记录一条Object参数或结构化字段的日志
+     * @param baseTag   printer的tag
+     * @param tag       t()指定的tag,可能为null
+     * @param fields    结构化字段,普通日志为null
+     */
+    void record(int priority, String baseTag, Tag tag, String message, Object[] args, Throwable throwable, LogFields fields) {
+        if (priority < minPriority) {
+            return;
+        }
+        long sequence = next.getAndIncrement();
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.sequence = -1;
+        slot.fill(priority, baseTag, tag, message);
+        slot.args = args != null && args.length > 0 ? args : null;
+        slot.throwable = throwable;
+        slot.fields = fields;
+        slot.sequence = sequence;
+    }
+
+    /**
+     * 按时间顺序格式化并输出缓冲区中的日志,不清空缓冲区
+     * @param adapter 输出目标,如MappedFileLogAdapter
+     * @return 输出的日志条数
+     */
+    public int dumpTo(LogAdapter adapter) {
+        List<Entry> entries = snapshot();
+        // 独立的printer,不受全局级别和异步模式的影响;记录时没有获取栈信息
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.getSettings().methodCount(0).setLogAdapter(adapter);
+        for (Entry entry : entries) {
+            printer.init(entry.baseTag);
+            printer.print(entry.event);
+        }
+        return entries.size();
+    }
+
+    /**
+     * 设置默认的UncaughtExceptionHandler: 崩溃时先把缓冲区和崩溃的异常输出到adapter,再交给原来的handler
+     * @param adapter 输出目标,写入文件时建议使用MappedFileLogAdapter,进程退出后数据不会丢失
+     */
+    public void installUncaughtExceptionHandler(final LogAdapter adapter) {
+        final Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable) {
+                try {
+                    record(Logger.ASSERT, tag, TagRegistry.intern("crash"), "uncaught exception in thread " + thread.getName(), null, throwable, null);
+                    dumpTo(adapter);
+                    if (adapter instanceof MappedFileLogAdapter) {
+                        ((MappedFileLogAdapter) adapter).flush();
+                    }
+                } catch (Throwable ignored) {
+                    // 输出失败也要交给原来的handler
+                } finally {
+                    if (previous != null) {
+                        previous.uncaughtException(thread, throwable);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 拷贝缓冲区中完整的日志,正在写入的槽位会被跳过
+     * @return
+     */
+    List<Entry> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - slots.length);
+        List<Entry> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = slots[(int) (sequence & mask)];
+            if (slot.sequence != sequence) {
+                continue;
+            }
+            LogEvent event = new LogEvent();
+            event.priority = slot.priority;
+            event.tag = slot.tag;
+            event.message = slot.message;
+            event.args = slot.args;
+            event.throwable = slot.throwable;
+            event.fields = slot.fields;
+            event.threadName = slot.threadName;
+            event.context = slot.context;
+            event.timestamp = slot.timestamp;
+            String baseTag = slot.baseTag;
+            // 拷贝期间被覆盖的槽位丢弃
+            if (slot.sequence != sequence) {
+                continue;
+            }
+            entries.add(new Entry(baseTag, event));
+        }
+        return entries;
+    }
+
+    static final class Entry {
+        final String baseTag;
+        final LogEvent event;
+
+        Entry(String baseTag, LogEvent event) {
+            this.baseTag = baseTag;
+            this.event = event;
+        }
+    }
+
+    /**
+     * 预先分配的槽位,字段在写入时直接覆盖
+     * sequence为-1表示正在写入,否则是写入完成的序号
+     */
+    private static final class Slot {
+        volatile long sequence = -1;
+        int priority;
+        String baseTag;
+        Tag tag;
+        String message;
+        Object[] args;
+        Throwable throwable;
+        LogFields fields;
+        String threadName;
+        LogContext context;
+        long timestamp;
+
+        void fill(int priority, String baseTag, Tag tag, String message) {
+            this.priority = priority;
+            this.baseTag = baseTag;
+            this.tag = tag;
+            this.message = message;
+            this.threadName = Thread.currentThread().getName();
+            this.context = LogContext.current();
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ldzspace.log;
+
+/**
+ * 结构化日志: 用键值对代替格式化参数,字段以原始类型交给adapter和二进制文件,不需要先转换成字符串
+ *     Logger.atInfo().kv("userId", id).kv("latencyMs", ms).log("request done");
+ * 级别被过滤时返回的是什么都不做的单例,kv()不会保存任何值,ValueSupplier也不会被调用;
+ * 否则返回当前线程复用的实例,必须以log()结束,不能保存起来在其他线程或者之后使用
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public interface EventBuilder {
+    EventBuilder kv(String key, long value);
+    EventBuilder kv(String key, double value);
+    EventBuilder kv(String key, boolean value);
+    EventBuilder kv(String key, Object value);
+
+    /**
+     * 在log()时调用supplier获取值,被过滤时不调用
+     */
+    EventBuilder kv(String key, ValueSupplier<?> value);
+    EventBuilder throwable(Throwable throwable);
+
+    /**
+     * 输出日志,之后这个实例不能再使用
+     * @param message 消息,不做格式化,可以为null
+     */
+    void log(String message);
+}
@@ -0,0 +1,266 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 把同一条日志同时输出到多个adapter,例如logcat,本地文件和内存中的崩溃缓冲区
+ * 每个输出目标(Sink)有自己的级别,tag过滤,有界缓冲区和后台线程,
+ * 慢的目标(写文件)不会拖慢快的目标(logcat),也不会阻塞调用线程;
+ * 一条日志的行只拷贝一次,所有目标共享同一份
+ * 用法:
+ *     FanOutLogAdapter fanOut = new FanOutLogAdapter();
+ *     fanOut.addSink("logcat", new AndroidLogAdapter(), LogLevel.DEBUG);
+ *     fanOut.addSink("file", fileAdapter, LogLevel.INFO, "DZLOG-net");
+ *     Logger.init().setLogAdapter(fanOut);
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class FanOutLogAdapter implements BatchLogAdapter {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * 写时复制,输出时不需要加锁
+     */
+    private volatile Sink[] sinks = new Sink[0];
+
+    /**
+     * 添加一个输出目标,缓冲区满时丢弃新的日志
+     * @param name    目标名,也是后台线程名的一部分
+     * @param adapter
+     * @param level   最低输出级别
+     * @param tags    只输出这些tag(adapter收到的格式化后的tag,如DZLOG-net),不传表示全部输出
+     * @return
+     */
+    public Sink addSink(String name, LogAdapter adapter, LogLevel level, String... tags) {
+        return addSink(name, adapter, level, DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_NEWEST, tags);
+    }
+
+    /**
+     * 添加一个输出目标
+     * @param name           目标名,也是后台线程名的一部分
+     * @param adapter
+     * @param level          最低输出级别
+     * @param bufferSize     缓冲区大小
+     * @param overflowPolicy 缓冲区满时的处理策略,BLOCK会让调用线程等待这个目标
+     * @param tags           只输出这些tag,不传表示全部输出
+     * @return
+     */
+    public synchronized Sink addSink(String name, LogAdapter adapter, LogLevel level,
+                                     int bufferSize, OverflowPolicy overflowPolicy, String... tags) {
+        if (adapter == null || level == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("adapter, level and overflowPolicy may be not null");
+        }
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("bufferSize must be at least 2");
+        }
+        Sink sink = new Sink(name, LogAdapterBridge.wrap(adapter), level, tags, bufferSize, overflowPolicy);
+        Sink[] grown = Arrays.copyOf(sinks, sinks.length + 1);
+        grown[sinks.length] = sink;
+        sinks = grown;
+        return sink;
+    }
+
+    /**
+     * 移除输出目标,先输出缓冲区中剩余的日志
+     * @param sink
+     */
+    public synchronized void removeSink(Sink sink) {
+        List<Sink> list = new ArrayList<>(Arrays.asList(sinks));
+        if (list.remove(sink)) {
+            sinks = list.toArray(new Sink[list.size()]);
+            sink.dispatcher.shutdown();
+        }
+    }
+
+    public List<Sink> getSinks() {
+        return Collections.unmodifiableList(Arrays.asList(sinks));
+    }
+
+    @Override
+    public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+        Sink[] sinks = this.sinks;
+        RenderedEvent event = null;
+        for (Sink sink : sinks) {
+            if (!sink.accepts(priority, tag)) {
+                continue;
+            }
+            if (event == null) {
+                // 只在有目标需要时拷贝一次
+                event = new RenderedEvent(priority, tag, lines);
+            }
+            if (!sink.dispatcher.dispatch(event)) {
+                // 目标已经移除,或者目标的adapter中又打印了日志
+                sink.handle(event);
+            }
+        }
+    }
+
+    /**
+     * 等待所有目标输出调用前的日志
+     */
+    public void flush() {
+        for (Sink sink : sinks) {
+            sink.dispatcher.flush();
+        }
+    }
+
+    /**
+     * 输出剩余的日志并结束所有目标的后台线程
+     */
+    public synchronized void close() {
+        Sink[] sinks = this.sinks;
+        this.sinks = new Sink[0];
+        for (Sink sink : sinks) {
+            sink.dispatcher.shutdown();
+        }
+    }
+
+    private void writeMessage(int priority, String tag, String message) {
+        writeEvent(priority, tag, Collections.<CharSequence>singletonList(message));
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        writeMessage(Logger.DEBUG, tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        writeMessage(Logger.ERROR, tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        writeMessage(Logger.VERBOSE, tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        writeMessage(Logger.INFO, tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        writeMessage(Logger.WARN, tag, message);
+    }
+
+    @Override
+    public void wtf(String tag, String message) {
+        writeMessage(Logger.ASSERT, tag, message);
+    }
+
+    /**
+     * 格式化好的日志,创建后不再修改,由所有目标共享
+     */
+    static final class RenderedEvent {
+        final int priority;
+        final String tag;
+        final List<CharSequence> lines;
+        final long createdNanos;
+
+        RenderedEvent(int priority, String tag, List<CharSequence> lines) {
+            this.priority = priority;
+            this.tag = tag;
+            CharSequence[] copy = new CharSequence[lines.size()];
+            for (int i = 0; i < copy.length; i++) {
+                CharSequence line = lines.get(i);
+                // 只有String不会再改变;视图和StringBuilder在调用返回后会被复用,视图只在原文本是String时不拷贝字符
+                copy[i] = line instanceof String ? line : line instanceof CharSlice ? ((CharSlice) line).retain() : line.toString();
+            }
+            this.lines = Collections.unmodifiableList(Arrays.asList(copy));
+            this.createdNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 一个输出目标,包括过滤条件,缓冲区,后台线程和统计
+     */
+    public static final class Sink {
+        private final String name;
+        private final BatchLogAdapter adapter;
+        private final int minPriority;
+        private final Set<String> tags;
+        private final AsyncDispatcher<RenderedEvent> dispatcher;
+
+        private final AtomicLong writtenCount = new AtomicLong();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Sink(String name, BatchLogAdapter adapter, LogLevel level, String[] tags, int bufferSize, OverflowPolicy policy) {
+            this.name = name;
+            this.adapter = adapter;
+            this.minPriority = level.getPriority();
+            this.tags = tags == null || tags.length == 0 ? null : new HashSet<>(Arrays.asList(tags));
+            this.dispatcher = new AsyncDispatcher<>("DZLOG-sink-" + name, new AsyncDispatcher.Handler<RenderedEvent>() {
+                @Override
+                public void handle(RenderedEvent event) {
+                    Sink.this.handle(event);
+                }
+            }, bufferSize, policy);
+        }
+
+        boolean accepts(int priority, String tag) {
+            return priority >= minPriority && (tags == null || tags.contains(tag));
+        }
+
+        /**
+         * 输出一条日志并记录延迟,通常在后台线程中调用
+         */
+        void handle(RenderedEvent event) {
+            adapter.writeEvent(event.priority, event.tag, event.lines);
+            long latency = System.nanoTime() - event.createdNanos;
+            writtenCount.incrementAndGet();
+            totalLatencyNanos.addAndGet(latency);
+            long max;
+            while (latency > (max = maxLatencyNanos.get()) && !maxLatencyNanos.compareAndSet(max, latency)) {
+                // 其他线程同时更新了最大值,重新比较
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 因缓冲区满被丢弃的日志数
+         * @return
+         */
+        public long getDroppedCount() {
+            return dispatcher.getDroppedCount();
+        }
+
+        /**
+         * 已经输出的日志数
+         * @return
+         */
+        public long getWrittenCount() {
+            return writtenCount.get();
+        }
+
+        /**
+         * 从进入缓冲区到输出完成的平均时间
+         * @return
+         */
+        public long getAverageLatencyNanos() {
+            long count = writtenCount.get();
+            return count == 0 ? 0 : totalLatencyNanos.get() / count;
+        }
+
+        public long getMaxLatencyNanos() {
+            return maxLatencyNanos.get();
+        }
+
+        @Override
+        public String toString() {
+            return name + "{written=" + getWrittenCount() + ", dropped=" + getDroppedCount()
+                    + ", avgLatency=" + getAverageLatencyNanos() / 1000 + "us, maxLatency=" + getMaxLatencyNanos() / 1000 + "us}";
+        }
+    }
+}
@@ -1,11 +1,5 @@
 package com.ldzspace.log;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.net.UnknownHostException;
-
-import static android.icu.lang.UCharacter.GraphemeClusterBreak.T;
-
 /**
  * @作者 liudazhi
  * @创建日期 2016/12/28
@@ -46,26 +40,10 @@ public class Helper {
     }
 
     /**
-     * 获取异常的堆栈信息
+     * 获取异常的堆栈信息,使用默认的长度限制
      * @return
      */
     static String getStackTrace(Throwable throwable){
-        if(throwable == null){
-            return "";
-        }
-        Throwable t = throwable;
-        while (t != null){
-            if(t instanceof UnknownHostException){
-                return "";
-            }
-            // 获取抛出异常的原因
-            t = t.getCause();
-        }
-        // 写入字符串到sw中
-        StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        t.printStackTrace(pw);
-        pw.flush();
-        return sw.toString();
+        return ThrowableRenderer.DEFAULT.render(throwable);
     }
 }
@@ -0,0 +1,342 @@
+package com.ldzspace.log;
+
+/**
+ * 流式的json缩进格式化
+ * 只遍历一次输入,边校验边把缩进后的内容写入StringBuilder,不创建JSONObject/JSONArray,
+ * 字符串和数字按原文整段拷贝,key的顺序和数字的写法都保持不变;
+ * 遇到不合法的内容立即停止并抛出IllegalArgumentException
+ * 数组元素超过arrayLimit时,后面的元素只校验不输出,最后用一行 "... (N more)" 代替
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class JsonFormatter {
+    /**
+     * 解析状态
+     */
+    private static final int VALUE = 0;          // 需要一个值
+    private static final int FIRST_KEY = 1;      // 对象的第一个key或者}
+    private static final int KEY = 2;            // 逗号之后的key
+    private static final int FIRST_ELEMENT = 3;  // 数组的第一个元素或者]
+    private static final int AFTER_VALUE = 4;    // 值之后的逗号或者结束符
+
+    private final int indent;
+    private final int arrayLimit;
+
+    private String json;
+    private int position;
+    private int length;
+    private StringBuilder out;
+    private String padding = "\n";                // 换行和缩进,按最大深度增长
+
+    /**
+     * 每一层容器的信息,按深度保存
+     */
+    private boolean[] arrays = new boolean[16];   // 是否是数组
+    private int[] counts = new int[16];           // 已经出现的元素数
+    private int depth;
+    private int mutedDepth = -1;                  // 从这一层数组开始不输出,-1表示正常输出
+
+    /**
+     * @param indent     每层缩进的空格数
+     * @param arrayLimit 数组最多输出的元素数,0表示不限制
+     */
+    JsonFormatter(int indent, int arrayLimit) {
+        this.indent = indent;
+        this.arrayLimit = arrayLimit;
+    }
+
+    /**
+     * 格式化json
+     * @param json
+     * @return 缩进后的json
+     * @throws IllegalArgumentException 不是合法的json
+     */
+    String format(String json) {
+        this.json = json;
+        this.position = 0;
+        this.length = json.length();
+        this.out = new StringBuilder(length + (length >> 2));
+        this.depth = 0;
+        this.mutedDepth = -1;
+        int state = VALUE;
+        for (;;) {
+            skipWhitespace();
+            if (state == AFTER_VALUE && depth == 0) {
+                if (position < length) {
+                    throw error("unexpected content after end");
+                }
+                return out.toString();
+            }
+            if (position >= length) {
+                throw error("unexpected end");
+            }
+            char c = json.charAt(position);
+            switch (state) {
+                case VALUE:
+                    if (c == '{') {
+                        position++;
+                        open(false);
+                        state = FIRST_KEY;
+                    } else if (c == '[') {
+                        position++;
+                        open(true);
+                        state = FIRST_ELEMENT;
+                    } else {
+                        scalar(c);
+                        state = AFTER_VALUE;
+                    }
+                    break;
+                case FIRST_KEY:
+                    if (c == '}') {
+                        position++;
+                        close();
+                        state = AFTER_VALUE;
+                    } else {
+                        element();
+                        key(c);
+                        state = VALUE;
+                    }
+                    break;
+                case KEY:
+                    element();
+                    key(c);
+                    state = VALUE;
+                    break;
+                case FIRST_ELEMENT:
+                    if (c == ']') {
+                        position++;
+                        close();
+                        state = AFTER_VALUE;
+                        break;
+                    }
+                    element();
+                    state = VALUE;
+                    break;
+                case AFTER_VALUE:
+                default:
+                    position++;
+                    boolean array = arrays[depth - 1];
+                    if (c == ',') {
+                        if (array) {
+                            element();
+                            state = VALUE;
+                        } else {
+                            state = KEY;
+                        }
+                    } else if (c == (array ? ']' : '}')) {
+                        close();
+                    } else {
+                        position--;
+                        throw error("expected ',' or '" + (array ? ']' : '}') + "'");
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * json允许的空白字符: 空格,\t,\n,\r,比Character.isWhitespace少了\u000B等控制字符
+     * @param c
+     * @return
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private void skipWhitespace() {
+        String json = this.json;
+        while (position < length && isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private boolean muted() {
+        return mutedDepth >= 0;
+    }
+
+    private void open(boolean array) {
+        if (depth == arrays.length) {
+            boolean[] grownArrays = new boolean[depth * 2];
+            int[] grownCounts = new int[depth * 2];
+            System.arraycopy(arrays, 0, grownArrays, 0, depth);
+            System.arraycopy(counts, 0, grownCounts, 0, depth);
+            arrays = grownArrays;
+            counts = grownCounts;
+        }
+        arrays[depth] = array;
+        counts[depth] = 0;
+        depth++;
+        if (!muted()) {
+            out.append(array ? '[' : '{');
+        }
+    }
+
+    /**
+     * 开始容器中的一个元素(数组元素或者对象的键值对): 输出逗号,换行和缩进
+     */
+    private void element() {
+        int level = depth - 1;
+        int index = counts[level]++;
+        if (muted()) {
+            return;
+        }
+        if (arrays[level] && arrayLimit > 0 && index == arrayLimit) {
+            // 超过限制的元素只校验不输出
+            mutedDepth = level;
+            return;
+        }
+        if (index > 0) {
+            out.append(',');
+        }
+        newline(depth);
+    }
+
+    private void close() {
+        depth--;
+        int count = counts[depth];
+        boolean array = arrays[depth];
+        if (mutedDepth == depth) {
+            mutedDepth = -1;
+            out.append(',');
+            newline(depth + 1);
+            out.append("... (").append(count - arrayLimit).append(" more)");
+        } else if (muted()) {
+            return;
+        }
+        if (count > 0) {
+            newline(depth);
+        }
+        out.append(array ? ']' : '}');
+    }
+
+    private void newline(int level) {
+        int size = 1 + level * indent;
+        if (padding.length() < size) {
+            StringBuilder builder = new StringBuilder(size * 2).append('\n');
+            for (int i = 1; i < size * 2; i++) {
+                builder.append(' ');
+            }
+            padding = builder.toString();
+        }
+        out.append(padding, 0, size);
+    }
+
+    private void key(char c) {
+        if (c != '"') {
+            throw error("expected string key");
+        }
+        int start = position;
+        string();
+        if (!muted()) {
+            out.append(json, start, position).append(": ");
+        }
+        skipWhitespace();
+        if (position >= length || json.charAt(position) != ':') {
+            throw error("expected ':'");
+        }
+        position++;
+    }
+
+    /**
+     * 字符串,数字,true,false,null 校验后整段拷贝
+     */
+    private void scalar(char c) {
+        int start = position;
+        if (c == '"') {
+            string();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            number();
+        } else if (json.startsWith("true", position)) {
+            position += 4;
+        } else if (json.startsWith("false", position)) {
+            position += 5;
+        } else if (json.startsWith("null", position)) {
+            position += 4;
+        } else {
+            throw error("unexpected character '" + c + "'");
+        }
+        if (!muted()) {
+            out.append(json, start, position);
+        }
+    }
+
+    private void string() {
+        String json = this.json;
+        int i = position + 1;
+        for (;;) {
+            if (i >= length) {
+                position = i;
+                throw error("unterminated string");
+            }
+            char c = json.charAt(i++);
+            if (c == '"') {
+                position = i;
+                return;
+            }
+            if (c < 0x20) {
+                position = i - 1;
+                throw error("control character in string");
+            }
+            if (c == '\\') {
+                if (i >= length) {
+                    position = i;
+                    throw error("unterminated string");
+                }
+                char escape = json.charAt(i++);
+                if (escape == 'u') {
+                    for (int end = i + 4; i < end; i++) {
+                        if (i >= length || Character.digit(json.charAt(i), 16) < 0) {
+                            position = i;
+                            throw error("invalid unicode escape");
+                        }
+                    }
+                } else if ("\"\\/bfnrt".indexOf(escape) < 0) {
+                    position = i - 1;
+                    throw error("invalid escape");
+                }
+            }
+        }
+    }
+
+    /**
+     * -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+     */
+    private void number() {
+        if (json.charAt(position) == '-') {
+            position++;
+        }
+        if (position < length && json.charAt(position) == '0') {
+            position++;
+        } else if (digits() == 0) {
+            throw error("invalid number");
+        }
+        if (position < length && json.charAt(position) == '.') {
+            position++;
+            if (digits() == 0) {
+                throw error("invalid number");
+            }
+        }
+        if (position < length && (json.charAt(position) == 'e' || json.charAt(position) == 'E')) {
+            position++;
+            if (position < length && (json.charAt(position) == '+' || json.charAt(position) == '-')) {
+                position++;
+            }
+            if (digits() == 0) {
+                throw error("invalid number");
+            }
+        }
+    }
+
+    private int digits() {
+        int start = position;
+        while (position < length && json.charAt(position) >= '0' && json.charAt(position) <= '9') {
+            position++;
+        }
+        return position - start;
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException(reason + " at " + position);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ldzspace.log;
+
+import java.util.List;
+
+/**
+ * 一条日志的排版方式: 把格式化好的消息和线程,调用位置等信息排成输出的行
+ * 内置两种: BoxLayout(默认的边框样式)和PatternLayout(按模板输出单行,适合大量日志),
+ * 需要其他格式时用PatternLayout的模板自定义
+ * 排版方式保存在配置快照中,切换后每次打印只是调用不同的实现,没有额外的开销
+ * 用法:
+ *     Logger.init().layout(new PatternLayout(PatternLayout.FLAT));
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public abstract class Layout {
+    /**
+     * 每行最多的UTF-8字节数,安卓单条日志小于4076 bytes
+     */
+    static final int CHUNK_SIZE = 4000;
+
+    Layout() {
+    }
+
+    /**
+     * 排版一条日志,行追加到out.lines中,需要拼接的文本写入out.text,行可以是out.text的视图
+     * @param event
+     * @param tag     格式化后的tag
+     * @param content 消息和异常,不为空
+     * @param config  采集时的配置
+     * @param out     当前线程复用的缓冲区
+     * @param metrics 为null时不统计
+     */
+    abstract void layout(LogEvent event, String tag, CharSequence content, LogConfig config, LineBuffer out, LogMetrics metrics);
+
+    /**
+     * 按行输出内容,单行超过maxBytes字节时按字符边界拆分,行只是原消息的视图,不拷贝字符
+     * @param out
+     * @param content
+     * @param maxBytes
+     * @param metrics
+     */
+    static void appendContent(LineBuffer out, CharSequence content, int maxBytes, LogMetrics metrics) {
+        LineChunker chunker = out.chunker;
+        chunker.reset(content, maxBytes);
+        List<CharSequence> lines = out.lines;
+        int chunks = 0;
+        long bytes = 0;
+        while (chunker.next()) {
+            int start = chunker.lineStart();
+            int end = chunker.lineEnd();
+            lines.add(start == 0 && end == content.length() ? content : out.slice(content, start, end));
+            chunks++;
+            if (metrics != null) {
+                bytes += chunker.lineBytes();
+            }
+        }
+        if (metrics != null) {
+            metrics.output(chunks, bytes);
+        }
+    }
+}
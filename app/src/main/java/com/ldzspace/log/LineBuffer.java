@@ -0,0 +1,70 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 输出一条日志时每个线程复用的缓冲区: 行列表,格式化的消息,排版时拼接的文本,异常的文本,
+ * 拆分行的LineChunker和行的视图,一条日志输出后全部重置,不随日志分配
+ * adapter中又打印日志时缓冲区正在使用,这时创建新的缓冲区
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class LineBuffer {
+    /**
+     * 超过这个大小的文本缓冲区在使用后释放多余的空间
+     */
+    private static final int MAX_RETAINED = 64 * 1024;
+
+    final ArrayList<CharSequence> lines = new ArrayList<>();
+    final StringBuilder message = new StringBuilder(256);
+    final StringBuilder text = new StringBuilder(256);
+    final StringBuilder trace = new StringBuilder(256);
+    final LineChunker chunker = new LineChunker(Layout.CHUNK_SIZE);
+    private CharSlice[] slices = new CharSlice[8];
+    private int sliceCount;
+    boolean inUse;
+
+    /**
+     * 文本中一段的视图,实例在release()后复用
+     * @param text
+     * @param start
+     * @param end
+     * @return
+     */
+    CharSlice slice(CharSequence text, int start, int end) {
+        if (sliceCount == slices.length) {
+            slices = Arrays.copyOf(slices, sliceCount * 2);
+        }
+        CharSlice slice = slices[sliceCount];
+        if (slice == null) {
+            slice = new CharSlice(text, start, end);
+            slices[sliceCount] = slice;
+        } else {
+            slice.set(text, start, end);
+        }
+        sliceCount++;
+        return slice;
+    }
+
+    void release() {
+        lines.clear();
+        clear(message);
+        clear(text);
+        clear(trace);
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i].set(null, 0, 0);
+        }
+        sliceCount = 0;
+        chunker.reset("");
+        inUse = false;
+    }
+
+    private static void clear(StringBuilder builder) {
+        builder.setLength(0);
+        if (builder.capacity() > MAX_RETAINED) {
+            builder.trimToSize();
+        }
+    }
+}
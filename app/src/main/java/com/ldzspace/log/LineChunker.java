@@ -0,0 +1,159 @@
+package com.ldzspace.log;
+
+/**
+ * 把消息拆分成可以一次输出的行
+ * 只遍历一次CharSequence,按换行符断行,单行的UTF-8长度超过限制时在码点边界处再拆分,
+ * 不需要先getBytes()编码,也不会把一个多字节字符拆成两半;
+ * 消息只有一行时直接返回原字符串,不产生拷贝
+ * 用法:
+ *     LineChunker chunker = new LineChunker(message, CHUNK_SIZE);
+ *     while (chunker.next()) { output(chunker.line()); }
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class LineChunker {
+    private int maxBytes;
+    private CharSequence text;
+    private int end;           // 去掉末尾换行后的长度
+    private int position;      // 下一行的起始位置
+    private int lineStart;
+    private int lineEnd;
+
+    LineChunker(int maxBytes) {
+        setMaxBytes(maxBytes);
+    }
+
+    LineChunker(CharSequence text, int maxBytes) {
+        this(maxBytes);
+        reset(text);
+    }
+
+    /**
+     * 重新设置要拆分的文本和每行的字节数上限,LineBuffer中复用同一个对象
+     * @param text
+     * @param maxBytes
+     */
+    void reset(CharSequence text, int maxBytes) {
+        setMaxBytes(maxBytes);
+        reset(text);
+    }
+
+    private void setMaxBytes(int maxBytes) {
+        if (maxBytes < 4) {
+            throw new IllegalArgumentException("maxBytes must be at least 4");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 重新设置要拆分的文本,可以复用同一个对象
+     * @param text
+     */
+    void reset(CharSequence text) {
+        this.text = text;
+        int end = text.length();
+        // 和String.split一样忽略末尾的空行
+        while (end > 0 && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        this.end = end;
+        this.position = 0;
+        this.lineStart = 0;
+        this.lineEnd = 0;
+    }
+
+    /**
+     * 移动到下一行
+     * @return 没有剩余内容返回false
+     */
+    boolean next() {
+        int start = position;
+        if (start >= end) {
+            return false;
+        }
+        int newline = indexOfNewline(start);
+        int limit = newline < 0 ? end : newline;
+        lineStart = start;
+        // 每个char最多占3个字节,字符数不超过maxBytes/3时不需要计算UTF-8长度
+        if (limit - start <= maxBytes / 3) {
+            lineEnd = limit > start && text.charAt(limit - 1) == '\r' ? limit - 1 : limit;
+            position = newline < 0 ? end : newline + 1;
+            return true;
+        }
+        CharSequence text = this.text;
+        int bytes = 0;
+        int i = start;
+        while (i < limit) {
+            char c = text.charAt(i);
+            int size;
+            int count = 1;
+            if (c < 0x80) {
+                size = 1;
+            } else if (c < 0x800) {
+                size = 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < limit && Character.isLowSurrogate(text.charAt(i + 1))) {
+                size = 4;
+                count = 2;
+            } else {
+                size = 3;
+            }
+            if (bytes + size > maxBytes) {
+                // 超过限制,在当前码点之前断开,剩余部分作为下一行
+                lineEnd = i;
+                position = i;
+                return true;
+            }
+            bytes += size;
+            i += count;
+        }
+        lineEnd = limit > start && text.charAt(limit - 1) == '\r' ? limit - 1 : limit;
+        position = newline < 0 ? end : newline + 1;
+        return true;
+    }
+
+    private int indexOfNewline(int from) {
+        CharSequence text = this.text;
+        if (text instanceof String) {
+            int index = ((String) text).indexOf('\n', from);
+            return index < end ? index : -1;
+        }
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 当前行
+     * @return
+     */
+    String line() {
+        if (lineStart == 0 && lineEnd == text.length() && text instanceof String) {
+            return (String) text;
+        }
+        return text.subSequence(lineStart, lineEnd).toString();
+    }
+
+    int lineStart() {
+        return lineStart;
+    }
+
+    int lineEnd() {
+        return lineEnd;
+    }
+
+    /**
+     * 当前行的UTF-8字节数
+     * @return
+     */
+    int lineBytes() {
+        return Utf8.length(text, lineStart, lineEnd);
+    }
+
+    CharSequence text() {
+        return text;
+    }
+}
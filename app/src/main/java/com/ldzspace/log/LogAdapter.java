@@ -1,8 +1,5 @@
 package com.ldzspace.log;
 
-import static android.R.attr.tag;
-import static android.R.id.message;
-
 /**
  * @作者 liudazhi
  * @创建日期 2017/1/2
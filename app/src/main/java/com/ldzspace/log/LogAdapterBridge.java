@@ -0,0 +1,87 @@
+package com.ldzspace.log;
+
+import java.util.List;
+
+/**
+ * 把普通的LogAdapter包装成BatchLogAdapter,批量的行逐行按级别输出
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class LogAdapterBridge implements BatchLogAdapter {
+    private final LogAdapter adapter;
+
+    private LogAdapterBridge(LogAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * 已经支持批量输出的adapter直接返回
+     * @param adapter
+     * @return
+     */
+    static BatchLogAdapter wrap(LogAdapter adapter) {
+        if (adapter instanceof BatchLogAdapter) {
+            return (BatchLogAdapter) adapter;
+        }
+        return new LogAdapterBridge(adapter);
+    }
+
+    @Override
+    public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+        for (int i = 0, size = lines.size(); i < size; i++) {
+            String line = lines.get(i).toString();
+            switch (priority) {
+                case Logger.ERROR:
+                    adapter.e(tag, line);
+                    break;
+                case Logger.INFO:
+                    adapter.i(tag, line);
+                    break;
+                case Logger.WARN:
+                    adapter.w(tag, line);
+                    break;
+                case Logger.ASSERT:
+                    adapter.wtf(tag, line);
+                    break;
+                case Logger.VERBOSE:
+                    adapter.v(tag, line);
+                    break;
+                case Logger.DEBUG:
+                default:
+                    adapter.d(tag, line);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        adapter.d(tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        adapter.e(tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        adapter.v(tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        adapter.i(tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        adapter.w(tag, message);
+    }
+
+    @Override
+    public void wtf(String tag, String message) {
+        adapter.wtf(tag, message);
+    }
+}
@@ -0,0 +1,198 @@
+package com.ldzspace.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 读取LogArchiver生成的归档文件
+ * 打开时只读取文件头和块索引,读取时按原始偏移二分查找所在的块,只解压需要的块;
+ * 最近解压的一块会被缓存,顺序读取时每块只解压一次
+ * 不是线程安全的
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogArchive implements Closeable {
+    private final RandomAccessFile file;
+    private final byte[] dictionary;
+    private final long[] offsets;            // 每块压缩后的偏移
+    private final int[] compressedLengths;   // 每块压缩后的长度
+    private final long[] starts;             // 每块在原分段中的偏移,多一项是原分段的长度
+    private final Inflater inflater = new Inflater();
+
+    private byte[] compressed = new byte[0];
+    private byte[] block = new byte[0];
+    private int cachedBlock = -1;
+
+    /**
+     * 使用默认的预设字典
+     * @param archive
+     * @throws IOException
+     */
+    public LogArchive(File archive) throws IOException {
+        this(archive, LogArchiver.DEFAULT_DICTIONARY);
+    }
+
+    /**
+     * @param archive
+     * @param dictionary 压缩时使用的预设字典
+     * @throws IOException 不是归档文件,或者字典和压缩时不同
+     */
+    public LogArchive(File archive, byte[] dictionary) throws IOException {
+        file = new RandomAccessFile(archive, "r");
+        try {
+            byte[] magic = new byte[LogArchiver.MAGIC.length];
+            file.readFully(magic);
+            if (!Arrays.equals(magic, LogArchiver.MAGIC)) {
+                throw new IOException("not a log archive: " + archive);
+            }
+            int version = file.readUnsignedByte();
+            if (version != LogArchiver.VERSION) {
+                throw new IOException("unsupported version " + version);
+            }
+            file.readInt();   // 块大小,读取时使用索引中每块的长度
+            int dictionaryId = file.readInt();
+            if (dictionaryId != 0 && dictionaryId != LogArchiver.dictionaryId(dictionary)) {
+                throw new IOException("archive was compressed with a different dictionary");
+            }
+            this.dictionary = dictionaryId == 0 ? null : dictionary;
+            file.seek(file.length() - 8);
+            file.seek(file.readLong());
+            int blocks = file.readInt();
+            offsets = new long[blocks];
+            compressedLengths = new int[blocks];
+            starts = new long[blocks + 1];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = file.readLong();
+                compressedLengths[i] = file.readInt();
+                starts[i + 1] = starts[i] + file.readInt();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int getBlockCount() {
+        return offsets.length;
+    }
+
+    /**
+     * @return 原分段的长度
+     */
+    public long length() {
+        return starts[offsets.length];
+    }
+
+    /**
+     * 从原分段的position处读取最多length个字节
+     * @param position
+     * @param buffer
+     * @param offset
+     * @param length
+     * @return 读取的字节数,position超过原分段长度时返回-1
+     * @throws IOException
+     */
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position < 0");
+        }
+        if (position >= length()) {
+            return -1;
+        }
+        int index = blockOf(position);
+        int read = 0;
+        while (read < length && index < offsets.length) {
+            byte[] data = loadBlock(index);
+            int from = (int) (position + read - starts[index]);
+            int count = Math.min(length - read, (int) (starts[index + 1] - starts[index]) - from);
+            System.arraycopy(data, from, buffer, offset + read, count);
+            read += count;
+            index++;
+        }
+        return read;
+    }
+
+    /**
+     * 解压整个归档,写出原分段的内容
+     * @param out
+     * @throws IOException
+     */
+    public void copyTo(OutputStream out) throws IOException {
+        for (int i = 0; i < offsets.length; i++) {
+            out.write(loadBlock(i), 0, (int) (starts[i + 1] - starts[i]));
+        }
+    }
+
+    /**
+     * 解压整个归档
+     * @return 原分段的内容
+     * @throws IOException
+     */
+    public byte[] readAll() throws IOException {
+        long length = length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("archive too large: " + length);
+        }
+        byte[] bytes = new byte[(int) length];
+        read(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * 包含position的块,starts是递增的
+     */
+    private int blockOf(long position) {
+        int index = Arrays.binarySearch(starts, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private byte[] loadBlock(int index) throws IOException {
+        if (index == cachedBlock) {
+            return block;
+        }
+        int compressedLength = compressedLengths[index];
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        file.seek(offsets[index]);
+        file.readFully(compressed, 0, compressedLength);
+        int length = (int) (starts[index + 1] - starts[index]);
+        if (block.length < length) {
+            block = new byte[length];
+        }
+        cachedBlock = -1;
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < length) {
+                int count = inflater.inflate(block, inflated, length - inflated);
+                if (count == 0) {
+                    if (inflater.needsDictionary() && dictionary != null) {
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) {
+                        throw new IOException("corrupt block " + index);
+                    }
+                }
+                inflated += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt block " + index, e);
+        }
+        cachedBlock = index;
+        return block;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+}
@@ -0,0 +1,378 @@
+package com.ldzspace.log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * 日志归档: 在低优先级的后台线程中把已经关闭的分段压缩成归档文件,压缩完成后删除原分段
+ * 写日志的线程仍然只写映射内存,压缩不占用调用线程和写入线程的时间
+ * 归档文件: 原分段文件名 + ".dza",例如 dzlog-00000003.log.dza,内容可以是文本分段也可以是二进制分段
+ * 分段按blockSize切成块,每块单独用Deflate压缩,所有块共用一个预设字典,
+ * 字典中是边框字符,线程行,级别前缀,常用的tag和异常关键字,小的块也能有较好的压缩率;
+ * 文件末尾是块索引,用LogArchive读取时可以只解压需要的块
+ *
+ * 格式: "DZLA" 版本号(1字节) 块大小(int) 字典的Adler32(int,0表示没有字典)
+ *       块 块 ...                       每块是一个zlib流
+ *       块数(int) (压缩后的偏移(long) 压缩后的长度(int) 原长度(int))...
+ *       索引的偏移(long)
+ * 用法:
+ *     LogArchiver archiver = new LogArchiver();
+ *     mappedFileLogAdapter.archiveTo(archiver);
+ *     binaryLogWriter.archiveTo(archiver);
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogArchiver {
+    public static final String SUFFIX = ".dza";
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_ARCHIVES = 32;
+
+    static final byte[] MAGIC = {'D', 'Z', 'L', 'A'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = MAGIC.length + 1 + 4 + 4;
+
+    /**
+     * 默认的预设字典,Deflate优先匹配字典末尾的内容,出现最多的放在最后
+     */
+    static final byte[] DEFAULT_DICTIONARY = buildDefaultDictionary();
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final int blockSize;
+    private final byte[] dictionary;
+    private final int dictionaryId;
+    private final int maxArchives;
+
+    private final ArrayDeque<File> queue = new ArrayDeque<>();
+    private Thread worker;
+    private int pending;                 // 排队和正在压缩的分段数
+    private boolean closed;
+
+    public LogArchiver() {
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_DICTIONARY, DEFAULT_MAX_ARCHIVES);
+    }
+
+    /**
+     * @param blockSize   每块的原始大小,越大压缩率越高,随机读取时需要解压的数据也越多
+     * @param dictionary  预设字典,为null时不使用字典;读取归档时需要使用同一个字典
+     * @param maxArchives 每个目录最多保留的归档数,超过时删除最旧的
+     */
+    public LogArchiver(int blockSize, byte[] dictionary, int maxArchives) {
+        if (blockSize < 1024) {
+            throw new IllegalArgumentException("blockSize must be at least 1024");
+        }
+        if (maxArchives < 1) {
+            throw new IllegalArgumentException("maxArchives must be at least 1");
+        }
+        this.blockSize = blockSize;
+        this.dictionary = dictionary == null ? null : dictionary.clone();
+        this.dictionaryId = dictionaryId(dictionary);
+        this.maxArchives = maxArchives;
+    }
+
+    /**
+     * 把已经关闭的分段加入压缩队列,由分段的写入方在滚动时调用
+     * @param segment
+     */
+    public synchronized void submit(File segment) {
+        if (closed || queue.contains(segment)) {
+            return;
+        }
+        queue.add(segment);
+        pending++;
+        if (worker == null) {
+            worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "dzlog-archiver");
+            worker.setDaemon(true);
+            worker.setPriority(Thread.MIN_PRIORITY);
+            worker.start();
+        }
+        notifyAll();
+    }
+
+    /**
+     * 等待队列中的分段压缩完成,例如上传归档之前
+     * @param timeoutMillis
+     * @return 超时返回false
+     * @throws InterruptedException
+     */
+    public synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * 停止后台线程,正在压缩的分段会完成,队列中剩余的分段保留原文件
+     */
+    public synchronized void close() {
+        closed = true;
+        pending -= queue.size();
+        queue.clear();
+        notifyAll();
+    }
+
+    /**
+     * 目录中已有的归档,从旧到新排列
+     * @param directory
+     * @return
+     */
+    public static File[] list(File directory) {
+        String[] names = directory.list();
+        if (names == null) {
+            return new File[0];
+        }
+        Arrays.sort(names);
+        File[] files = new File[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(MappedSegments.PREFIX) && name.endsWith(SUFFIX)) {
+                files[count++] = new File(directory, name);
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+
+    private void work() {
+        while (true) {
+            File segment;
+            synchronized (this) {
+                while (queue.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (queue.isEmpty()) {
+                    worker = null;
+                    return;
+                }
+                segment = queue.poll();
+            }
+            try {
+                compact(segment);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                synchronized (this) {
+                    pending--;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * 压缩一个分段: 先写入临时文件,完成后改名并删除原分段,中途进程被杀死时原分段不受影响
+     * @param segment
+     * @return 归档文件,分段不存在或者为空时返回null
+     * @throws IOException
+     */
+    File compact(File segment) throws IOException {
+        if (!segment.isFile()) {
+            // 已经被写入方按数量清理了
+            return null;
+        }
+        File archive = new File(segment.getPath() + SUFFIX);
+        File temp = new File(archive.getPath() + TEMP_SUFFIX);
+        long length;
+        RandomAccessFile source = new RandomAccessFile(segment, "r");
+        try {
+            length = segment.getName().endsWith(BinaryLogWriter.SUFFIX) ? binaryDataLength(source) : dataLength(source);
+            if (length > 0) {
+                write(source, length, temp);
+            }
+        } finally {
+            source.close();
+        }
+        if (length == 0) {
+            //noinspection ResultOfMethodCallIgnored
+            segment.delete();
+            return null;
+        }
+        if (!temp.renameTo(archive)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("cannot rename " + temp);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        segment.delete();
+        deleteOldArchives(segment.getParentFile());
+        return archive;
+    }
+
+    /**
+     * 文本分段中有效数据的长度: 没能截断的分段末尾是未写入的0,不需要压缩;文本内容中不包含0
+     */
+    private static long dataLength(RandomAccessFile source) throws IOException {
+        byte[] window = new byte[8192];
+        long end = source.length();
+        while (end > 0) {
+            int size = (int) Math.min(window.length, end);
+            source.seek(end - size);
+            source.readFully(window, 0, size);
+            for (int i = size - 1; i >= 0; i--) {
+                if (window[i] != 0) {
+                    return end - size + i + 1;
+                }
+            }
+            end -= size;
+        }
+        return 0;
+    }
+
+    /**
+     * 二进制分段中有效数据的长度: 内容中可以有0(例如没有参数的日志最后一个字节),
+     * 只能按帧的长度逐帧跳过,长度为0或者超出文件的帧是结尾,和BinaryLogDecoder的判断相同
+     */
+    private static long binaryDataLength(RandomAccessFile source) throws IOException {
+        byte[] magic = BinaryLogWriter.MAGIC;
+        long end = source.length();
+        byte[] header = new byte[magic.length + 1];
+        if (end < header.length) {
+            return 0;
+        }
+        source.seek(0);
+        source.readFully(header);
+        if (!Arrays.equals(Arrays.copyOf(header, magic.length), magic)) {
+            // 不是二进制分段,按文本分段处理
+            return dataLength(source);
+        }
+        long position = header.length;
+        long last = position;
+        byte[] varInt = new byte[5];
+        while (position < end) {
+            source.seek(position);
+            int count = source.read(varInt, 0, (int) Math.min(varInt.length, end - position));
+            int frameLength = 0;
+            int size = 0;
+            while (size < count) {
+                int b = varInt[size++];
+                frameLength |= (b & 0x7f) << (7 * (size - 1));
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            if (frameLength <= 0 || (varInt[size - 1] & 0x80) != 0) {
+                break;
+            }
+            position += size + frameLength;
+            if (position > end) {
+                break;
+            }
+            last = position;
+        }
+        // 只有文件头的分段没有日志
+        return last == header.length ? 0 : last;
+    }
+
+    private void write(RandomAccessFile source, long length, File temp) throws IOException {
+        int blocks = (int) ((length + blockSize - 1) / blockSize);
+        long[] offsets = new long[blocks];
+        int[] compressedLengths = new int[blocks];
+        int[] lengths = new int[blocks];
+        byte[] input = new byte[blockSize];
+        byte[] output = new byte[8192];
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+        try {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(blockSize);
+            out.writeInt(dictionaryId);
+            long offset = HEADER_SIZE;
+            source.seek(0);
+            for (int i = 0; i < blocks; i++) {
+                int size = (int) Math.min(blockSize, length - (long) i * blockSize);
+                source.readFully(input, 0, size);
+                deflater.reset();
+                if (dictionary != null) {
+                    deflater.setDictionary(dictionary);
+                }
+                deflater.setInput(input, 0, size);
+                deflater.finish();
+                int compressed = 0;
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(output);
+                    out.write(output, 0, count);
+                    compressed += count;
+                }
+                offsets[i] = offset;
+                compressedLengths[i] = compressed;
+                lengths[i] = size;
+                offset += compressed;
+            }
+            out.writeInt(blocks);
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(offsets[i]);
+                out.writeInt(compressedLengths[i]);
+                out.writeInt(lengths[i]);
+            }
+            out.writeLong(offset);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void deleteOldArchives(File directory) {
+        File[] archives = list(directory);
+        for (int i = 0; i < archives.length - maxArchives; i++) {
+            //noinspection ResultOfMethodCallIgnored
+            archives[i].delete();
+        }
+    }
+
+    static int dictionaryId(byte[] dictionary) {
+        if (dictionary == null) {
+            return 0;
+        }
+        Adler32 adler = new Adler32();
+        adler.update(dictionary, 0, dictionary.length);
+        return (int) adler.getValue();
+    }
+
+    private static byte[] buildDefaultDictionary() {
+        String[] entries = {
+                "java.lang.IllegalArgumentException", "java.lang.IllegalStateException",
+                "java.lang.NullPointerException", "java.io.IOException", "java.lang.RuntimeException",
+                "\tat java.lang.reflect.Method.invoke(Native Method)\n",
+                "\tat com.android.internal.os.ZygoteInit.main(ZygoteInit.java:",
+                "\tat android.os.Looper.loop(Looper.java:",
+                "\tat android.os.Handler.dispatchMessage(Handler.java:",
+                "Caused by: ", "... more\n", "Exception: ", ".java:", ")\n\tat ",
+                "DZLOG-net", "DZLOG-db", "DZLOG-ui",
+                " V/DZLOG: ", " D/DZLOG: ", " I/DZLOG: ", " W/DZLOG: ", " E/DZLOG: ",
+                BoxLayout.BOTTOM_BORDER + "\n",
+                BoxLayout.MIDDLE_BORDER + "\n",
+                BoxLayout.TOP_BORDER + "\n",
+                "║ Thread: main\n", "║ ",
+        };
+        StringBuilder builder = new StringBuilder();
+        for (String entry : entries) {
+            builder.append(entry);
+        }
+        return builder.toString().getBytes(Charset.forName("UTF-8"));
+    }
+}
@@ -0,0 +1,614 @@
+package com.ldzspace.log;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings的不可变快照,创建后所有字段都不再修改
+ * 每次打印只读取一次Settings中的快照(一次volatile读),同一条日志的过滤,采集和输出使用同一份配置;
+ * 修改配置时用Builder创建新的快照整体替换,运行中切换级别,adapter等不会出现只生效一半的情况
+ * tag按"."分级,没有单独设置级别或adapter的tag使用上一级的设置;
+ * 每个注册过的tag解析后的结果按TagRegistry的编号保存在数组中,第一次使用时解析,之后的过滤只是一次数组读取
+ * 用法:
+ *     LogConfig current = settings.getConfig();
+ *     LogConfig next = current.toBuilder().logLevel(LogLevel.WARN).methodCount(0).build();
+ *     settings.compareAndSet(current, next);
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogConfig {
+    static final String DEFAULT_TAG = "DZLOG";
+
+    private final String tag;
+    private final int methodCount;
+    private final int methodOffset;
+    private final boolean showThreadInfo;
+    private final LogAdapter logAdapter;
+    private final BatchLogAdapter batchAdapter;
+    private final LogLevel logLevel;
+    private final Map<String, LogLevel> tagLevels;
+    private final Map<String, LogAdapter> tagAdapters;
+    private final Map<String, BatchLogAdapter> tagBatchAdapters;
+    private final LogLevel baseLevel;              // printer的tag的级别
+    private final LogAdapter baseAdapter;
+    private final BatchLogAdapter baseBatchAdapter;
+    private final boolean async;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean stringFormat;
+    private final BinaryLogWriter binaryWriter;
+    private final boolean textOutput;
+    private final int jsonArrayLimit;
+    private final int xmlMaxLength;
+    private final int xmlMaxDepth;
+    private final CrashBuffer crashBuffer;
+    private final RateLimiter rateLimiter;
+    private final LogMetrics metrics;
+    private final ThrowableRenderer throwableRenderer;
+    private final Layout layout;
+
+    /**
+     * 按tag编号解析好的级别和adapter,没有单独设置时为null
+     */
+    private volatile TagTable tagTable;
+
+    private LogConfig(Builder builder) {
+        this.tag = builder.tag;
+        this.methodCount = builder.methodCount;
+        this.methodOffset = builder.methodOffset;
+        this.showThreadInfo = builder.showThreadInfo;
+        if (builder.source != null && builder.logAdapter == builder.source.logAdapter) {
+            // adapter没有变化时沿用原来的包装
+            this.logAdapter = builder.source.logAdapter;
+            this.batchAdapter = builder.source.batchAdapter;
+        } else {
+            // 默认的adapter在创建快照时确定,不在打印时延迟创建
+            this.logAdapter = builder.logAdapter != null ? builder.logAdapter : new AndroidLogAdapter();
+            this.batchAdapter = LogAdapterBridge.wrap(logAdapter);
+        }
+        this.logLevel = builder.logLevel;
+        this.tagLevels = builder.tagLevels;
+        this.tagAdapters = builder.tagAdapters;
+        if (builder.source != null && builder.tagAdapters == builder.source.tagAdapters && builder.logAdapter == builder.source.logAdapter) {
+            this.tagBatchAdapters = builder.source.tagBatchAdapters;
+        } else {
+            Map<String, BatchLogAdapter> wrapped = new HashMap<>();
+            for (Map.Entry<String, LogAdapter> entry : tagAdapters.entrySet()) {
+                LogAdapter adapter = entry.getValue();
+                wrapped.put(entry.getKey(), adapter == logAdapter ? batchAdapter : LogAdapterBridge.wrap(adapter));
+            }
+            this.tagBatchAdapters = wrapped;
+        }
+        this.async = builder.async;
+        this.bufferSize = builder.bufferSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.stringFormat = builder.stringFormat;
+        this.binaryWriter = builder.binaryWriter;
+        this.textOutput = builder.textOutput;
+        this.jsonArrayLimit = builder.jsonArrayLimit;
+        this.xmlMaxLength = builder.xmlMaxLength;
+        this.xmlMaxDepth = builder.xmlMaxDepth;
+        this.crashBuffer = builder.crashBuffer;
+        this.rateLimiter = builder.rateLimiter;
+        this.metrics = builder.metrics;
+        this.throwableRenderer = builder.throwableRenderer;
+        this.layout = builder.layout;
+        Tag base = TagRegistry.intern(tag);
+        this.baseLevel = resolveLevel(base);
+        this.baseAdapter = resolveAdapter(base);
+        this.baseBatchAdapter = resolveBatchAdapter(base);
+    }
+
+    /**
+     * 默认配置
+     * @return
+     */
+    public static LogConfig defaults() {
+        return new Builder(null).build();
+    }
+
+    /**
+     * 以当前快照为基础创建Builder,build()得到新的快照,当前快照不受影响
+     * @return
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * 判断该级别和tag的日志是否需要输出
+     * @param priority log级别
+     * @param tag      为null时按printer的tag判断,和不带tag的日志一致
+     * @return
+     */
+    public boolean isLoggable(int priority, String tag) {
+        return priority >= getLogLevel(tag).getPriority();
+    }
+
+    /**
+     * 获取tag的输出级别,tag和上一级都没有单独设置时返回全局级别
+     * 只查询不注册tag,查询动态生成的tag不会占用注册表
+     * @param tag 为null时是printer的tag的级别
+     * @return
+     */
+    public LogLevel getLogLevel(String tag) {
+        return getLogLevel(TagRegistry.lookup(tag));
+    }
+
+    /**
+     * @param priority
+     * @param tag      为null时是printer的tag
+     * @return
+     */
+    boolean isLoggable(int priority, Tag tag) {
+        return priority >= getLogLevel(tag).getPriority();
+    }
+
+    /**
+     * @param tag 为null时是printer的tag
+     * @return
+     */
+    LogLevel getLogLevel(Tag tag) {
+        if (tag == null) {
+            return baseLevel;
+        }
+        if (tagLevels.isEmpty()) {
+            return logLevel;
+        }
+        if (tag.id < 0) {
+            return resolveLevel(tag);
+        }
+        return tagTable(tag.id).levels[tag.id];
+    }
+
+    /**
+     * @param tag 为null时是printer的tag
+     * @return 该tag日志输出的adapter
+     */
+    LogAdapter getLogAdapter(Tag tag) {
+        if (tag == null) {
+            return baseAdapter;
+        }
+        if (tagAdapters.isEmpty()) {
+            return logAdapter;
+        }
+        if (tag.id < 0) {
+            return resolveAdapter(tag);
+        }
+        return tagTable(tag.id).adapters[tag.id];
+    }
+
+    BatchLogAdapter getBatchAdapter(Tag tag) {
+        if (tag == null) {
+            return baseBatchAdapter;
+        }
+        if (tagAdapters.isEmpty()) {
+            return batchAdapter;
+        }
+        if (tag.id < 0) {
+            return resolveBatchAdapter(tag);
+        }
+        return tagTable(tag.id).batchAdapters[tag.id];
+    }
+
+    /**
+     * 包含该编号的解析表,创建后注册的tag只解析新增的部分,容量不够时按两倍扩展
+     */
+    private TagTable tagTable(int id) {
+        TagTable table = tagTable;
+        if (table == null || id >= table.size) {
+            // 并发扩展写入的结果相同,不需要加锁
+            int size = TagRegistry.size();
+            int from = table == null ? 0 : table.size;
+            TagTable grown;
+            if (table != null && size <= table.levels.length) {
+                // 旧表只读取size之前的位置,直接在后面的空位上解析
+                grown = new TagTable(size, table);
+            } else {
+                grown = new TagTable(size, Math.max(size, from * 2));
+                if (table != null) {
+                    System.arraycopy(table.levels, 0, grown.levels, 0, from);
+                    System.arraycopy(table.adapters, 0, grown.adapters, 0, from);
+                    System.arraycopy(table.batchAdapters, 0, grown.batchAdapters, 0, from);
+                }
+            }
+            for (int i = from; i < size; i++) {
+                Tag tag = TagRegistry.get(i);
+                grown.levels[i] = resolveLevel(tag);
+                grown.adapters[i] = resolveAdapter(tag);
+                grown.batchAdapters[i] = resolveBatchAdapter(tag);
+            }
+            tagTable = table = grown;
+        }
+        return table;
+    }
+
+    private LogLevel resolveLevel(Tag tag) {
+        for (Tag t = tag; t != null; t = t.parent) {
+            LogLevel level = tagLevels.get(t.name);
+            if (level != null) {
+                return level;
+            }
+        }
+        return logLevel;
+    }
+
+    private LogAdapter resolveAdapter(Tag tag) {
+        for (Tag t = tag; t != null; t = t.parent) {
+            LogAdapter adapter = tagAdapters.get(t.name);
+            if (adapter != null) {
+                return adapter;
+            }
+        }
+        return logAdapter;
+    }
+
+    private BatchLogAdapter resolveBatchAdapter(Tag tag) {
+        for (Tag t = tag; t != null; t = t.parent) {
+            BatchLogAdapter adapter = tagBatchAdapters.get(t.name);
+            if (adapter != null) {
+                return adapter;
+            }
+        }
+        return batchAdapter;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getMethodOffset() {
+        return methodOffset;
+    }
+
+    public boolean isShowThreadInfo() {
+        return showThreadInfo;
+    }
+
+    public LogAdapter getLogAdapter() {
+        return logAdapter;
+    }
+
+    BatchLogAdapter getBatchAdapter() {
+        return batchAdapter;
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public Map<String, LogLevel> getTagLevels() {
+        return tagLevels;
+    }
+
+    public Map<String, LogAdapter> getTagAdapters() {
+        return tagAdapters;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public boolean isStringFormat() {
+        return stringFormat;
+    }
+
+    public BinaryLogWriter getBinaryWriter() {
+        return binaryWriter;
+    }
+
+    public boolean isTextOutput() {
+        return textOutput;
+    }
+
+    public int getJsonArrayLimit() {
+        return jsonArrayLimit;
+    }
+
+    public int getXmlMaxLength() {
+        return xmlMaxLength;
+    }
+
+    public int getXmlMaxDepth() {
+        return xmlMaxDepth;
+    }
+
+    public CrashBuffer getCrashBuffer() {
+        return crashBuffer;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public LogMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ThrowableRenderer getThrowableRenderer() {
+        return throwableRenderer;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    private static final class TagTable {
+        final int size;                          // 已解析的tag数,之后的位置还没有使用
+        final LogLevel[] levels;
+        final LogAdapter[] adapters;
+        final BatchLogAdapter[] batchAdapters;
+
+        TagTable(int size, int capacity) {
+            this.size = size;
+            levels = new LogLevel[capacity];
+            adapters = new LogAdapter[capacity];
+            batchAdapters = new BatchLogAdapter[capacity];
+        }
+
+        /**
+         * 和source共用数组,解析到size
+         */
+        TagTable(int size, TagTable source) {
+            this.size = size;
+            levels = source.levels;
+            adapters = source.adapters;
+            batchAdapters = source.batchAdapters;
+        }
+    }
+
+    /**
+     * 创建新快照的Builder,不是线程安全的,只在一个线程中使用
+     */
+    public static final class Builder {
+        private final LogConfig source;
+        private String tag = DEFAULT_TAG;
+        private int methodCount = 2;
+        private int methodOffset = 0;
+        private boolean showThreadInfo = true;
+        private LogAdapter logAdapter;
+        private LogLevel logLevel = LogLevel.FULL;
+        private Map<String, LogLevel> tagLevels = Collections.emptyMap();
+        private Map<String, LogAdapter> tagAdapters = Collections.emptyMap();
+        private boolean async = false;
+        private int bufferSize = 1024;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private boolean stringFormat = false;
+        private BinaryLogWriter binaryWriter;
+        private boolean textOutput = true;
+        private int jsonArrayLimit = 0;
+        private int xmlMaxLength = 0;
+        private int xmlMaxDepth = 0;
+        private CrashBuffer crashBuffer;
+        private RateLimiter rateLimiter;
+        private LogMetrics metrics;
+        private ThrowableRenderer throwableRenderer = ThrowableRenderer.DEFAULT;
+        private Layout layout = BoxLayout.INSTANCE;
+
+        private Builder(LogConfig source) {
+            this.source = source;
+            if (source == null) {
+                return;
+            }
+            this.tag = source.tag;
+            this.methodCount = source.methodCount;
+            this.methodOffset = source.methodOffset;
+            this.showThreadInfo = source.showThreadInfo;
+            this.logAdapter = source.logAdapter;
+            this.logLevel = source.logLevel;
+            this.tagLevels = source.tagLevels;
+            this.tagAdapters = source.tagAdapters;
+            this.async = source.async;
+            this.bufferSize = source.bufferSize;
+            this.overflowPolicy = source.overflowPolicy;
+            this.stringFormat = source.stringFormat;
+            this.binaryWriter = source.binaryWriter;
+            this.textOutput = source.textOutput;
+            this.jsonArrayLimit = source.jsonArrayLimit;
+            this.xmlMaxLength = source.xmlMaxLength;
+            this.xmlMaxDepth = source.xmlMaxDepth;
+            this.crashBuffer = source.crashBuffer;
+            this.rateLimiter = source.rateLimiter;
+            this.metrics = source.metrics;
+            this.throwableRenderer = source.throwableRenderer;
+            this.layout = source.layout;
+        }
+
+        public Builder tag(String tag) {
+            if (tag == null) {
+                throw new IllegalArgumentException("tag is null");
+            }
+            if (tag.trim().length() == 0) {
+                throw new IllegalStateException("tag may be not empty");
+            }
+            this.tag = tag;
+            return this;
+        }
+
+        public Builder methodCount(int methodCount) {
+            this.methodCount = Math.max(methodCount, 0);
+            return this;
+        }
+
+        public Builder methodOffset(int methodOffset) {
+            this.methodOffset = methodOffset;
+            return this;
+        }
+
+        public Builder showThreadInfo(boolean showThreadInfo) {
+            this.showThreadInfo = showThreadInfo;
+            return this;
+        }
+
+        /**
+         * @param logAdapter 为null时使用AndroidLogAdapter
+         * @return
+         */
+        public Builder logAdapter(LogAdapter logAdapter) {
+            this.logAdapter = logAdapter;
+            return this;
+        }
+
+        public Builder logLevel(LogLevel logLevel) {
+            if (logLevel == null) {
+                throw new IllegalArgumentException("logLevel is null");
+            }
+            this.logLevel = logLevel;
+            return this;
+        }
+
+        /**
+         * 单独设置某个tag的输出级别,优先于全局级别,也是没有单独设置的下级tag的级别
+         * @param tag
+         * @param logLevel 为null时移除该tag的设置
+         * @return
+         */
+        public Builder logLevel(String tag, LogLevel logLevel) {
+            if (Helper.isEmpty(tag)) {
+                throw new IllegalArgumentException("tag may be not empty");
+            }
+            Map<String, LogLevel> levels = new HashMap<>(tagLevels);
+            if (logLevel == null) {
+                levels.remove(tag);
+            } else {
+                levels.put(tag, logLevel);
+            }
+            tagLevels = levels.isEmpty() ? Collections.<String, LogLevel>emptyMap() : Collections.unmodifiableMap(levels);
+            return this;
+        }
+
+        /**
+         * 某个tag及没有单独设置的下级tag的日志只输出到该adapter
+         * @param tag
+         * @param logAdapter 为null时移除该tag的设置
+         * @return
+         */
+        public Builder logAdapter(String tag, LogAdapter logAdapter) {
+            if (Helper.isEmpty(tag)) {
+                throw new IllegalArgumentException("tag may be not empty");
+            }
+            Map<String, LogAdapter> adapters = new HashMap<>(tagAdapters);
+            if (logAdapter == null) {
+                adapters.remove(tag);
+            } else {
+                adapters.put(tag, logAdapter);
+            }
+            tagAdapters = adapters.isEmpty() ? Collections.<String, LogAdapter>emptyMap() : Collections.unmodifiableMap(adapters);
+            return this;
+        }
+
+        /**
+         * @param async          是否异步输出
+         * @param bufferSize     环形缓冲区大小
+         * @param overflowPolicy 缓冲区满时的处理策略
+         * @return
+         */
+        public Builder async(boolean async, int bufferSize, OverflowPolicy overflowPolicy) {
+            if (bufferSize < 2) {
+                throw new IllegalArgumentException("bufferSize must be at least 2");
+            }
+            if (bufferSize > RingBuffer.MAX_CAPACITY) {
+                throw new IllegalArgumentException("bufferSize must be at most " + RingBuffer.MAX_CAPACITY);
+            }
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("overflowPolicy is null");
+            }
+            this.async = async;
+            this.bufferSize = bufferSize;
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder stringFormat(boolean stringFormat) {
+            this.stringFormat = stringFormat;
+            return this;
+        }
+
+        /**
+         * @param binaryWriter 为null时关闭二进制输出
+         * @param textOutput   是否仍然格式化并输出到logAdapter
+         * @return
+         */
+        public Builder binaryOutput(BinaryLogWriter binaryWriter, boolean textOutput) {
+            this.binaryWriter = binaryWriter;
+            this.textOutput = binaryWriter == null || textOutput;
+            return this;
+        }
+
+        public Builder jsonArrayLimit(int jsonArrayLimit) {
+            if (jsonArrayLimit < 0) {
+                throw new IllegalArgumentException("jsonArrayLimit cannot be negative");
+            }
+            this.jsonArrayLimit = jsonArrayLimit;
+            return this;
+        }
+
+        public Builder xmlLimits(int maxLength, int maxDepth) {
+            if (maxLength < 0 || maxDepth < 0) {
+                throw new IllegalArgumentException("xml limits cannot be negative");
+            }
+            this.xmlMaxLength = maxLength;
+            this.xmlMaxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder crashBuffer(CrashBuffer crashBuffer) {
+            this.crashBuffer = crashBuffer;
+            return this;
+        }
+
+        /**
+         * @param rateLimiter 为null时不限流
+         * @return
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * @param metrics 为null时不统计
+         * @return
+         */
+        public Builder metrics(LogMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param throwableRenderer 异常的格式化方式,为null时使用默认的限制
+         * @return
+         */
+        public Builder throwableRenderer(ThrowableRenderer throwableRenderer) {
+            this.throwableRenderer = throwableRenderer != null ? throwableRenderer : ThrowableRenderer.DEFAULT;
+            return this;
+        }
+
+        /**
+         * @param layout 排版方式,为null时使用默认的边框样式
+         * @return
+         */
+        public Builder layout(Layout layout) {
+            this.layout = layout != null ? layout : BoxLayout.INSTANCE;
+            return this;
+        }
+
+        public LogConfig build() {
+            return new LogConfig(this);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.ldzspace.log;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * 日志上下文(MDC): 请求id,用户id,trace id等附加在当前线程打印的每条日志上
+ * 上下文是不可变的,修改时复制一份新的替换当前线程的引用(写时复制),
+ * 打印时只保存当前实例的引用,异步输出也不需要复制;
+ * 线程池和协程切换线程时用wrap()包装任务,提交时的上下文在执行的线程上恢复
+ *     LogContext.put("requestId", id);
+ *     executor = LogContext.wrap(executor);
+ *     executor.execute(task);   // task中的日志也带有requestId
+ * 文本输出时以 key=value 的格式接在消息后面,结构化和二进制输出时作为字段输出
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogContext {
+    public static final LogContext EMPTY = new LogContext(new String[0]);
+
+    /**
+     * 线程上保存的是不可变实例,不使用InheritableThreadLocal: 线程池中的线程不是提交任务的线程创建的
+     */
+    private static final ThreadLocal<LogContext> LOCAL = new ThreadLocal<>();
+    /**
+     * 没有设置过上下文时打印不读取ThreadLocal
+     */
+    private static volatile boolean used;
+
+    private final String[] entries;     // 按key排序的key,value交替排列
+    private LogFields fields;           // 作为结构化字段输出时的形式,第一次输出时创建
+
+    private LogContext(String[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 当前线程的上下文,打印时在调用线程上获取,不复制
+     * @return 没有设置时返回EMPTY
+     */
+    public static LogContext current() {
+        if (!used) {
+            return EMPTY;
+        }
+        LogContext context = LOCAL.get();
+        return context != null ? context : EMPTY;
+    }
+
+    /**
+     * 设置当前线程的一项上下文
+     * @param key
+     * @param value 为null时移除
+     */
+    public static void put(String key, String value) {
+        attach(current().with(key, value));
+    }
+
+    public static void remove(String key) {
+        attach(current().without(key));
+    }
+
+    public static void clear() {
+        attach(EMPTY);
+    }
+
+    /**
+     * 把当前线程的上下文替换为context
+     * @param context
+     * @return 原来的上下文,用于恢复
+     */
+    public static LogContext attach(LogContext context) {
+        LogContext previous = current();
+        if (context == null || context.entries.length == 0) {
+            if (previous != EMPTY) {
+                LOCAL.remove();
+            }
+        } else {
+            used = true;
+            LOCAL.set(context);
+        }
+        return previous;
+    }
+
+    /**
+     * 包装的任务执行时使用包装时(提交任务时)的上下文,执行完恢复执行线程原来的上下文
+     * @param task
+     * @return
+     */
+    public static Runnable wrap(final Runnable task) {
+        final LogContext context = current();
+        return new Runnable() {
+            @Override
+            public void run() {
+                LogContext previous = attach(context);
+                try {
+                    task.run();
+                } finally {
+                    attach(previous);
+                }
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(final Callable<T> task) {
+        final LogContext context = current();
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                LogContext previous = attach(context);
+                try {
+                    return task.call();
+                } finally {
+                    attach(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * 每个提交的任务都使用提交线程当时的上下文
+     * @param executor
+     * @return
+     */
+    public static Executor wrap(final Executor executor) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executor.execute(wrap(command));
+            }
+        };
+    }
+
+    public int size() {
+        return entries.length >> 1;
+    }
+
+    public String getKey(int index) {
+        return entries[index << 1];
+    }
+
+    public String getValue(int index) {
+        return entries[(index << 1) + 1];
+    }
+
+    /**
+     * @param key
+     * @return 没有该项时返回null
+     */
+    public String get(String key) {
+        int index = indexOf(key);
+        return index >= 0 ? getValue(index) : null;
+    }
+
+    /**
+     * @param key
+     * @param value 为null时移除
+     * @return 增加或替换了一项的新实例,值没有变化时返回自身
+     */
+    public LogContext with(String key, String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        if (value == null) {
+            return without(key);
+        }
+        int index = indexOf(key);
+        String[] copy;
+        if (index >= 0) {
+            if (value.equals(getValue(index))) {
+                return this;
+            }
+            copy = entries.clone();
+        } else {
+            index = -index - 1;
+            copy = new String[entries.length + 2];
+            System.arraycopy(entries, 0, copy, 0, index << 1);
+            System.arraycopy(entries, index << 1, copy, (index << 1) + 2, entries.length - (index << 1));
+            copy[index << 1] = key;
+        }
+        copy[(index << 1) + 1] = value;
+        return new LogContext(copy);
+    }
+
+    /**
+     * @param key
+     * @return 移除了一项的新实例,没有该项时返回自身
+     */
+    public LogContext without(String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return this;
+        }
+        if (entries.length == 2) {
+            return EMPTY;
+        }
+        String[] copy = new String[entries.length - 2];
+        System.arraycopy(entries, 0, copy, 0, index << 1);
+        System.arraycopy(entries, (index << 1) + 2, copy, index << 1, copy.length - (index << 1));
+        return new LogContext(copy);
+    }
+
+    /**
+     * 按key二分查找,上下文通常只有几项
+     * @return 下标,没有时返回-(插入位置)-1
+     */
+    private int indexOf(String key) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = getKey(mid).compareTo(key);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * 作为结构化字段的形式,每个实例只创建一次;并发创建时只是多一个等价的对象
+     * @return
+     */
+    LogFields asFields() {
+        LogFields result = fields;
+        if (result == null) {
+            int size = size();
+            String[] keys = new String[size];
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = getKey(i);
+                values[i] = getValue(i);
+            }
+            byte[] types = new byte[size];
+            Arrays.fill(types, (byte) LogFields.TYPE_OBJECT);
+            result = new LogFields(keys, types, new long[size], values);
+            fields = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return asFields().toString();
+    }
+}
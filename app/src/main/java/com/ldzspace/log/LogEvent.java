@@ -0,0 +1,54 @@
+package com.ldzspace.log;
+
+/**
+ * 一次log调用的快照,调用线程只负责采集这些字段,
+ * 格式化和输出交给后台线程完成
+ * LoggerPrinter打印的事件是复用的: 同步模式下每个线程复用一个实例,
+ * 异步模式下输出后回收到空闲队列,输出完成后不能再持有事件的引用
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class LogEvent {
+    /**
+     * 事件的来源: 新创建的不回收 / 线程复用的实例 / 异步模式的空闲队列
+     */
+    static final int POOL_NONE = 0;
+    static final int POOL_THREAD = 1;
+    static final int POOL_RING = 2;
+
+    int priority;                        // log级别
+    Tag tag;                             // 调用时指定的tag,为null时是printer的tag
+    int methodCount;                     // 打印的方法数
+    String message;                      // 消息模板
+    Object[] args;                       // 模板参数,没有参数时为null
+    Throwable throwable;                 // 抛出的异常
+    LogFields fields;                    // 结构化字段,普通日志为null
+    LogContext context;                  // 调用线程的日志上下文,不可变,只保存引用
+    String threadName;                   // 调用线程名
+    long timestamp;                      // 调用时间
+    StackTraceElement[] stackTrace;      // 调用线程的栈信息,methodCount为0时不采集
+    LogConfig config;                    // 采集时的配置快照,后台线程输出时使用同一份配置
+    boolean timed;                       // 统计各阶段耗时的采样调用
+    int pool;                            // 事件的来源,POOL_NONE等
+    boolean inUse;                       // 线程复用的实例正在使用,adapter中又打印日志时创建新的实例
+
+    /**
+     * 回收前清空,不再持有参数,异常等对象
+     */
+    void clear() {
+        priority = 0;
+        tag = null;
+        methodCount = 0;
+        message = null;
+        args = null;
+        throwable = null;
+        fields = null;
+        context = null;
+        threadName = null;
+        timestamp = 0;
+        stackTrace = null;
+        config = null;
+        timed = false;
+    }
+}
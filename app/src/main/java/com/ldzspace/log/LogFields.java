@@ -0,0 +1,214 @@
+package com.ldzspace.log;
+
+/**
+ * 一条结构化日志的字段,创建后不再修改
+ * 基本类型的值不装箱,对象的值在输出时才转换成字符串
+ * StructuredLogAdapter收到的就是这个对象,可以直接用appendJson()输出json
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogFields {
+    public static final int TYPE_LONG = 0;
+    public static final int TYPE_DOUBLE = 1;    // 保存为bits
+    public static final int TYPE_BOOLEAN = 2;   // 保存为0或1
+    public static final int TYPE_OBJECT = 3;
+
+    public static final LogFields EMPTY = new LogFields(new String[0], new byte[0], new long[0], null);
+
+    private final String[] keys;
+    private final byte[] types;
+    private final long[] values;
+    private final Object[] objects;     // 没有对象值时为null
+
+    LogFields(String[] keys, byte[] types, long[] values, Object[] objects) {
+        this.keys = keys;
+        this.types = types;
+        this.values = values;
+        this.objects = objects;
+    }
+
+    /**
+     * 日志上下文和这条日志的字段合并,上下文在前
+     * @param context 可以为null
+     * @param fields  可以为null
+     * @return 两者都为空时返回fields,只有一方时不复制
+     */
+    static LogFields merge(LogContext context, LogFields fields) {
+        if (context == null || context.size() == 0) {
+            return fields;
+        }
+        LogFields first = context.asFields();
+        if (fields == null || fields.size() == 0) {
+            return first;
+        }
+        int size = first.size() + fields.size();
+        String[] keys = new String[size];
+        byte[] types = new byte[size];
+        long[] values = new long[size];
+        Object[] objects = new Object[size];
+        int offset = 0;
+        for (LogFields part : new LogFields[]{first, fields}) {
+            int length = part.size();
+            System.arraycopy(part.keys, 0, keys, offset, length);
+            System.arraycopy(part.types, 0, types, offset, length);
+            System.arraycopy(part.values, 0, values, offset, length);
+            if (part.objects != null) {
+                System.arraycopy(part.objects, 0, objects, offset, length);
+            }
+            offset += length;
+        }
+        return new LogFields(keys, types, values, objects);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index
+     * @return TYPE_LONG等
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    public long getLong(int index) {
+        return values[index];
+    }
+
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(values[index]);
+    }
+
+    public boolean getBoolean(int index) {
+        return values[index] != 0;
+    }
+
+    /**
+     * 字段的值,基本类型会装箱
+     * @param index
+     * @return
+     */
+    public Object getValue(int index) {
+        switch (types[index]) {
+            case TYPE_LONG:
+                return values[index];
+            case TYPE_DOUBLE:
+                return getDouble(index);
+            case TYPE_BOOLEAN:
+                return getBoolean(index);
+            default:
+                return objects[index];
+        }
+    }
+
+    /**
+     * 按 key=value key=value 的格式追加,文本输出时接在消息后面
+     * @param builder
+     */
+    public void appendTo(StringBuilder builder) {
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(keys[i]).append('=');
+            appendValue(builder, i);
+        }
+    }
+
+    /**
+     * 按json对象的格式追加,数字和布尔值不加引号,其他对象按字符串输出
+     * @param builder
+     */
+    public void appendJson(StringBuilder builder) {
+        builder.append('{');
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendJsonString(builder, String.valueOf(keys[i]));
+            builder.append(':');
+            int type = types[i];
+            Object value = type == TYPE_OBJECT ? objects[i] : null;
+            if (type == TYPE_DOUBLE) {
+                double number = getDouble(i);
+                // NaN和无穷大不是合法的json数字
+                if (Double.isNaN(number) || Double.isInfinite(number)) {
+                    appendJsonString(builder, String.valueOf(number));
+                } else {
+                    builder.append(number);
+                }
+            } else if (type != TYPE_OBJECT) {
+                appendValue(builder, i);
+            } else if (value == null) {
+                builder.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                builder.append(value);
+            } else {
+                appendJsonString(builder, value.toString());
+            }
+        }
+        builder.append('}');
+    }
+
+    private void appendValue(StringBuilder builder, int index) {
+        switch (types[index]) {
+            case TYPE_LONG:
+                builder.append(values[index]);
+                break;
+            case TYPE_DOUBLE:
+                builder.append(getDouble(index));
+                break;
+            case TYPE_BOOLEAN:
+                builder.append(getBoolean(index));
+                break;
+            default:
+                builder.append(objects[index]);
+                break;
+        }
+    }
+
+    private static void appendJsonString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(16 * keys.length);
+        appendTo(builder);
+        return builder.toString();
+    }
+}
@@ -2,15 +2,54 @@ package com.ldzspace.log;
 
 /**
  * Created by liudazhi on 2016/12/22.
+ * 每个级别对应一个最低输出的优先级,低于该优先级的日志直接过滤
  */
 
 public  enum  LogLevel {
     /**
      * 全日志输出
      */
-    FULL,
+    FULL(Logger.VERBOSE),
+    /**
+     * 输出VERBOSE及以上的日志
+     */
+    VERBOSE(Logger.VERBOSE),
+    /**
+     * 输出DEBUG及以上的日志
+     */
+    DEBUG(Logger.DEBUG),
+    /**
+     * 输出INFO及以上的日志
+     */
+    INFO(Logger.INFO),
+    /**
+     * 输出WARN及以上的日志
+     */
+    WARN(Logger.WARN),
+    /**
+     * 输出ERROR及以上的日志
+     */
+    ERROR(Logger.ERROR),
+    /**
+     * 只输出ASSERT日志
+     */
+    ASSERT(Logger.ASSERT),
     /**
      * 不输出日志
      */
-    NONE
+    NONE(Integer.MAX_VALUE);
+
+    private final int priority;
+
+    LogLevel(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * 最低输出的优先级
+     * @return
+     */
+    public int getPriority() {
+        return priority;
+    }
 }
@@ -0,0 +1,360 @@
+package com.ldzspace.log;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 日志库自身的统计: 每个级别和tag的条数,被过滤和丢弃的条数,输出的字节数和行数,
+ * 以及每个阶段(获取栈信息,格式化,写入adapter)耗时的直方图
+ * 计数使用分段计数器,直方图按2的幂分桶,记录时不加锁也不分配内存;
+ * 读取时钟比级别检查本身还慢,所以被过滤的日志只计数不计时,输出的日志按sampleInterval采样计时
+ * 不设置时没有任何统计开销,ENABLED改为false后javac会去掉所有统计代码
+ * 用法:
+ *     Logger.init().metrics(new LogMetrics());
+ *     LogMetrics.Snapshot snapshot = Logger.metrics();
+ *     snapshot.getLatency(LogMetrics.STAGE_WRITE).getPercentileNanos(0.99);
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogMetrics {
+    /**
+     * 编译期开关
+     */
+    public static final boolean ENABLED = true;
+
+    /**
+     * 统计耗时的阶段
+     */
+    public static final int STAGE_CAPTURE = 0;      // 获取栈信息,methodCount为0时没有
+    public static final int STAGE_FORMAT = 1;       // 格式化消息和拼装行
+    public static final int STAGE_WRITE = 2;        // 写入adapter和二进制文件
+    public static final int STAGE_CALL = 3;         // 通过级别过滤后调用线程上的耗时,异步模式下不包括格式化和写入
+    static final int STAGES = 4;
+    private static final String[] STAGE_NAMES = {"capture", "format", "write", "call"};
+
+    /**
+     * 统计的tag上限,超过后计入OTHER_TAGS
+     */
+    private static final int MAX_TAGS = 256;
+    public static final String OTHER_TAGS = "*";
+
+    private final StripedCounter[] logged = new StripedCounter[Logger.ASSERT + 1];
+    private final ConcurrentHashMap<String, StripedCounter> tags = new ConcurrentHashMap<>();
+    private final StripedCounter filtered = new StripedCounter();
+    private final StripedCounter rateLimited = new StripedCounter();
+    private final StripedCounter bytes = new StripedCounter();
+    private final StripedCounter chunks = new StripedCounter();
+    private final Histogram[] latencies = new Histogram[STAGES];
+    private final int sampleMask;
+
+    /**
+     * 每16条输出的日志统计一次耗时
+     */
+    public LogMetrics() {
+        this(16);
+    }
+
+    /**
+     * @param sampleInterval 每多少条输出的日志统计一次耗时,向上取2的幂,1表示每条都统计
+     */
+    public LogMetrics(int sampleInterval) {
+        if (sampleInterval < 1 || sampleInterval > 1 << 30) {
+            throw new IllegalArgumentException("sampleInterval must be between 1 and 2^30");
+        }
+        int interval = Integer.highestOneBit(sampleInterval);
+        this.sampleMask = (interval < sampleInterval ? interval << 1 : interval) - 1;
+        for (int i = 0; i < logged.length; i++) {
+            logged[i] = new StripedCounter();
+        }
+        for (int i = 0; i < STAGES; i++) {
+            latencies[i] = new Histogram();
+        }
+    }
+
+    /**
+     * 一条日志通过了过滤
+     * @param priority
+     * @param tag      格式化前的tag
+     * @return 这条日志是否统计耗时,用计数的结果采样,不需要额外的计数器
+     */
+    boolean logged(int priority, String tag) {
+        counter(tag).increment();
+        if (priority >= 0 && priority < logged.length) {
+            return (logged[priority].increment() & sampleMask) == 0;
+        }
+        return false;
+    }
+
+    void filtered() {
+        filtered.increment();
+    }
+
+    void rateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * 输出的消息行
+     * @param lines 拆分后的行数
+     * @param bytes 消息内容的UTF-8字节数,不包括边框
+     */
+    void output(int lines, long bytes) {
+        chunks.add(lines);
+        this.bytes.add(bytes);
+    }
+
+    void latency(int stage, long nanos) {
+        latencies[stage].record(nanos);
+    }
+
+    private StripedCounter counter(String tag) {
+        String key = tag == null ? OTHER_TAGS : tag;
+        StripedCounter counter = tags.get(key);
+        if (counter == null) {
+            if (tags.size() >= MAX_TAGS) {
+                // 超过上限的tag共用一个计数器,已经存在时不再创建
+                key = OTHER_TAGS;
+                counter = tags.get(key);
+                if (counter != null) {
+                    return counter;
+                }
+            }
+            counter = new StripedCounter();
+            StripedCounter existing = tags.putIfAbsent(key, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * 当前统计的快照,各项分别读取,不是同一时刻的严格一致
+     * @param asyncDropped 异步模式下因缓冲区满丢弃的条数
+     * @return
+     */
+    Snapshot snapshot(long asyncDropped) {
+        long[] loggedCounts = new long[logged.length];
+        for (int i = 0; i < logged.length; i++) {
+            loggedCounts[i] = logged[i].sum();
+        }
+        Map<String, Long> tagCounts = new HashMap<>();
+        for (Map.Entry<String, StripedCounter> entry : tags.entrySet()) {
+            tagCounts.put(entry.getKey(), entry.getValue().sum());
+        }
+        HistogramSnapshot[] histograms = new HistogramSnapshot[STAGES];
+        for (int i = 0; i < STAGES; i++) {
+            histograms[i] = latencies[i].snapshot(STAGE_NAMES[i]);
+        }
+        return new Snapshot(loggedCounts, Collections.unmodifiableMap(tagCounts), filtered.sum(),
+                rateLimited.sum(), asyncDropped, bytes.sum(), chunks.sum(), histograms);
+    }
+
+    /**
+     * 按2的幂分桶的耗时直方图,第i个桶是 [2^(i-1), 2^i) 纳秒
+     */
+    private static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final StripedCounter count = new StripedCounter();
+        private final StripedCounter total = new StripedCounter();
+
+        void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos) & 63);
+            count.increment();
+            total.add(nanos);
+        }
+
+        HistogramSnapshot snapshot(String name) {
+            long[] counts = new long[64];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new HistogramSnapshot(name, counts, count.sum(), total.sum());
+        }
+    }
+
+    /**
+     * 一个阶段的耗时统计
+     */
+    public static final class HistogramSnapshot {
+        private final String name;
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+
+        HistogramSnapshot(String name, long[] buckets, long count, long totalNanos) {
+            this.name = name;
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * 百分位数的上界,精度是2倍
+         * @param percentile 0~1,如0.99
+         * @return 所在桶的上界,纳秒
+         */
+        public long getPercentileNanos(double percentile) {
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 1));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && buckets[i] > 0) {
+                    return i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{count=" + count + ", mean=" + getMeanNanos() + "ns, p50<=" + getPercentileNanos(0.5)
+                    + "ns, p99<=" + getPercentileNanos(0.99) + "ns}";
+        }
+    }
+
+    /**
+     * 统计的快照,可以导出到自己的监控系统
+     */
+    public static final class Snapshot {
+        private final long[] logged;
+        private final Map<String, Long> tags;
+        private final long filtered;
+        private final long rateLimited;
+        private final long asyncDropped;
+        private final long bytes;
+        private final long chunks;
+        private final HistogramSnapshot[] latencies;
+
+        Snapshot(long[] logged, Map<String, Long> tags, long filtered, long rateLimited, long asyncDropped,
+                 long bytes, long chunks, HistogramSnapshot[] latencies) {
+            this.logged = logged;
+            this.tags = tags;
+            this.filtered = filtered;
+            this.rateLimited = rateLimited;
+            this.asyncDropped = asyncDropped;
+            this.bytes = bytes;
+            this.chunks = chunks;
+            this.latencies = latencies;
+        }
+
+        /**
+         * 某个级别通过过滤的条数
+         * @param priority Logger.DEBUG等
+         * @return
+         */
+        public long getLogged(int priority) {
+            return priority >= 0 && priority < logged.length ? logged[priority] : 0;
+        }
+
+        public long getLoggedTotal() {
+            long total = 0;
+            for (long count : logged) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * 每个tag通过过滤的条数,printer自身的tag也在其中
+         * @return
+         */
+        public Map<String, Long> getLoggedByTag() {
+            return tags;
+        }
+
+        /**
+         * 被级别过滤的条数
+         * @return
+         */
+        public long getFiltered() {
+            return filtered;
+        }
+
+        /**
+         * 被限流或重复消息合并丢弃的条数
+         * @return
+         */
+        public long getRateLimited() {
+            return rateLimited;
+        }
+
+        /**
+         * 异步模式下因缓冲区满丢弃的条数
+         * @return
+         */
+        public long getAsyncDropped() {
+            return asyncDropped;
+        }
+
+        /**
+         * 输出的消息内容的UTF-8字节数,不包括边框和调用位置
+         * @return
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * 消息按行和CHUNK_SIZE拆分后的行数
+         * @return
+         */
+        public long getChunks() {
+            return chunks;
+        }
+
+        /**
+         * 某个阶段的耗时
+         * @param stage STAGE_CAPTURE等
+         * @return
+         */
+        public HistogramSnapshot getLatency(int stage) {
+            return latencies[stage];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(256)
+                    .append("logged=").append(getLoggedTotal())
+                    .append(", filtered=").append(filtered)
+                    .append(", rateLimited=").append(rateLimited)
+                    .append(", asyncDropped=").append(asyncDropped)
+                    .append(", bytes=").append(bytes)
+                    .append(", chunks=").append(chunks);
+            for (HistogramSnapshot latency : latencies) {
+                builder.append(", ").append(latency);
+            }
+            return builder.toString();
+        }
+    }
+}
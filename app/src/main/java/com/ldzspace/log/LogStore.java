@@ -0,0 +1,721 @@
+package com.ldzspace.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * 可以按时间,tag,级别和内容查询的本地日志存储,作为logAdapter使用:
+ *     LogStore store = new LogStore(new File(context.getFilesDir(), "logs"));
+ *     Logger.init().setLogAdapter(store);
+ *     store.query(from, to, Collections.singleton("DZLOG-net"), LogLevel.WARN, "timeout", visitor);
+ * 日志写入内存映射的分段文件 dzlog-00000001.dzs ...,每条日志保存时间,级别,格式化后的tag,线程名和消息(包括字段和异常),
+ * 不绘制边框;每BLOCK_RECORDS条日志是一块,内存中为每个分段保存:
+ *     稀疏时间索引  每块的偏移和最早/最晚时间
+ *     级别索引      每块出现过的级别
+ *     tag索引      tag -> 包含该tag的块
+ *     布隆过滤器    分段中出现过的单词,查询的单词不在分段中时跳过整个分段
+ * 查询时先用索引排除分段和块,只读取和解析可能匹配的块
+ * 上次运行留下的分段在第一次查询时扫描一遍建立索引,打开存储时不读取
+ * 写入和查询使用同一把锁,查询期间写入会等待
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class LogStore implements StructuredLogAdapter {
+    public static final int DEFAULT_BLOOM_BITS = 1 << 18;
+
+    static final String SUFFIX = ".dzs";
+    static final byte[] MAGIC = {'D', 'Z', 'L', 'S'};
+    static final int VERSION = 1;
+    /**
+     * 每块的日志条数,时间,级别和tag索引都以块为单位
+     */
+    static final int BLOCK_RECORDS = 64;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] PRIORITIES = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+
+    /**
+     * 接收查询结果
+     */
+    public interface Visitor {
+        /**
+         * @param record
+         * @return 返回false时停止查询
+         */
+        boolean visit(Record record);
+    }
+
+    /**
+     * 查询到的一条日志
+     */
+    public static final class Record {
+        private final long timestamp;
+        private final int priority;
+        private final String tag;
+        private final String threadName;
+        private final String message;
+
+        Record(long timestamp, int priority, String tag, String threadName, String message) {
+            this.timestamp = timestamp;
+            this.priority = priority;
+            this.tag = tag;
+            this.threadName = threadName;
+            this.message = message;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * @return 消息,有字段时后面是 key=value,有异常时后面是异常栈
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            char level = priority >= 0 && priority < PRIORITIES.length ? PRIORITIES[priority] : '?';
+            return timestamp + " " + level + "/" + tag + " [" + threadName + "]: " + message;
+        }
+    }
+
+    private final MappedSegments segments;
+    private final int bloomBits;
+    private final int maxTagBytes;
+    private final int maxMessageBytes;
+    private final ArrayList<SegmentIndex> indexes = new ArrayList<>();   // 从旧到新,最后一个是正在写入的分段
+    private final BinaryLogWriter.Encoder encoder = new BinaryLogWriter.Encoder();
+    private final StringBuilder text = new StringBuilder(256);
+    private byte[] block = new byte[8192];
+    private boolean closed;
+
+    public LogStore(File directory) throws IOException {
+        this(directory, MappedFileLogAdapter.DEFAULT_SEGMENT_SIZE, MappedFileLogAdapter.DEFAULT_MAX_SEGMENTS, DEFAULT_BLOOM_BITS);
+    }
+
+    /**
+     * @param directory   日志目录
+     * @param segmentSize 每个分段的大小(字节)
+     * @param maxSegments 最多保留的分段数
+     * @param bloomBits   每个分段的布隆过滤器的位数,向上取2的幂,0表示不使用
+     * @throws IOException
+     */
+    public LogStore(File directory, int segmentSize, int maxSegments, int bloomBits) throws IOException {
+        if (bloomBits < 0) {
+            throw new IllegalArgumentException("bloomBits < 0");
+        }
+        segments = new MappedSegments(directory, SUFFIX, segmentSize, 0, maxSegments);
+        this.bloomBits = bloomBits;
+        // 一条日志总能写进一个新的分段
+        maxTagBytes = Math.min(1024, segmentSize / 8);
+        maxMessageBytes = segmentSize / 2;
+        for (File segment : segments.list()) {
+            indexes.add(new SegmentIndex(segment, bloomBits, false));
+        }
+        openNext(false);
+    }
+
+    /**
+     * 当前分段和之前保留的分段,从旧到新排列
+     * @return
+     */
+    public File[] getSegments() {
+        return segments.list();
+    }
+
+    private void openNext(boolean roll) throws IOException {
+        if (roll) {
+            segments.roll();
+        } else {
+            segments.openNext();
+        }
+        segments.put(MAGIC, 0, MAGIC.length);
+        segments.put(new byte[]{VERSION}, 0, 1);
+        indexes.add(new SegmentIndex(segments.current(), bloomBits, true));
+        // 超过maxSegments的旧分段已经被删除
+        for (Iterator<SegmentIndex> iterator = indexes.iterator(); iterator.hasNext(); ) {
+            if (!iterator.next().file.exists()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void writeStructured(int priority, String tag, long timestamp, String threadName,
+                                             String message, Throwable throwable, LogFields fields) {
+        StringBuilder text = this.text;
+        text.setLength(0);
+        if (message != null) {
+            text.append(message);
+        }
+        if (fields.size() > 0) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            fields.appendTo(text);
+        }
+        if (throwable != null) {
+            if (text.length() > 0) {
+                text.append(": ");
+            }
+            ThrowableRenderer.DEFAULT.render(throwable, text);
+        }
+        append(priority, tag, timestamp, threadName, text);
+        if (text.capacity() > 64 * 1024) {
+            text.setLength(0);
+            text.trimToSize();
+        }
+    }
+
+    private synchronized void writeMessage(int priority, String tag, String message) {
+        append(priority, tag, System.currentTimeMillis(), Thread.currentThread().getName(), message);
+    }
+
+    private void append(int priority, String tag, long timestamp, String threadName, CharSequence message) {
+        if (closed) {
+            return;
+        }
+        BinaryLogWriter.Encoder encoder = this.encoder;
+        encoder.reset();
+        encoder.writeByte(priority);
+        encoder.writeLong(timestamp);
+        encoder.writeString(tag != null ? tag : "", maxTagBytes);
+        encoder.writeString(threadName != null ? threadName : "", maxTagBytes);
+        encoder.writeString(message != null ? message : "", maxMessageBytes);
+        int frameSize = BinaryLogWriter.Encoder.varIntSize(encoder.length) + encoder.length;
+        try {
+            if (frameSize > segments.remaining()) {
+                openNext(true);
+            }
+            // 先写内容最后写长度,写到一半的记录长度为0,扫描时当作结尾
+            int offset = segments.position();
+            int size = frameSize - encoder.length;
+            segments.skip(size);
+            segments.put(encoder.bytes, 0, encoder.length);
+            for (int i = size - 1; i >= 0; i--) {
+                int b = (encoder.length >>> (7 * i)) & 0x7f;
+                segments.put(offset + i, (byte) (i < size - 1 ? b | 0x80 : b));
+            }
+            indexes.get(indexes.size() - 1).add(offset, offset + frameSize, priority, tag, timestamp, message);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 查询日志,结果按写入顺序交给visitor
+     * @param from     最早的时间(包含)
+     * @param to       最晚的时间(包含)
+     * @param tags     格式化后的tag,例如DZLOG-net,为null或空时不按tag过滤
+     * @param level    最低级别,为null时不按级别过滤
+     * @param contains 消息中包含的内容,按单词匹配: 前后不能紧接字母或数字,
+     *                 例如"user 42"匹配"user 42 login",不匹配"user 420";为null时不按内容过滤
+     * @param visitor
+     * @return 交给visitor的日志条数
+     * @throws IOException
+     */
+    public synchronized int query(long from, long to, Collection<String> tags, LogLevel level, String contains,
+                                  Visitor visitor) throws IOException {
+        int minPriority = level != null ? level.getPriority() : 0;
+        if (minPriority >= 32 || from > to) {
+            return 0;
+        }
+        if (tags != null && tags.isEmpty()) {
+            tags = null;
+        }
+        if (contains != null && contains.isEmpty()) {
+            contains = null;
+        }
+        // tag和内容先按UTF-8字节比较,匹配的日志才解码成字符串
+        byte[][] tagBytes = null;
+        if (tags != null) {
+            tagBytes = new byte[tags.size()][];
+            int i = 0;
+            for (String tag : tags) {
+                tagBytes[i++] = tag.getBytes(UTF_8);
+            }
+        }
+        byte[] needle = contains != null ? contains.getBytes(UTF_8) : null;
+        int matched = 0;
+        for (SegmentIndex segment : indexes) {
+            if (!segment.loaded && !load(segment)) {
+                continue;
+            }
+            if (segment.count == 0 || segment.maxTime < from || segment.minTime > to) {
+                continue;
+            }
+            if (contains != null && segment.bloom != null && !segment.bloom.mightContainTokens(contains)) {
+                continue;
+            }
+            BitSet candidates = tags != null ? segment.blocksWithTags(tags) : null;
+            if (candidates != null && candidates.isEmpty()) {
+                continue;
+            }
+            RandomAccessFile file = null;
+            try {
+                for (int b = 0; b < segment.blocks; b++) {
+                    if (candidates != null && !candidates.get(b)) {
+                        continue;
+                    }
+                    if (segment.blockMax[b] < from || segment.blockMin[b] > to || segment.blockLevels[b] >>> minPriority == 0) {
+                        continue;
+                    }
+                    if (file == null) {
+                        file = new RandomAccessFile(segment.file, "r");
+                    }
+                    int start = segment.blockOffsets[b];
+                    int length = (b + 1 < segment.blocks ? segment.blockOffsets[b + 1] : segment.end) - start;
+                    if (block.length < length) {
+                        block = new byte[Math.max(length, block.length * 2)];
+                    }
+                    file.seek(start);
+                    file.readFully(block, 0, length);
+                    int visited = scanBlock(block, length, from, to, tagBytes, minPriority, contains, needle, visitor);
+                    if (visited < 0) {
+                        return matched - visited - 1;
+                    }
+                    matched += visited;
+                }
+            } finally {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 解析一块中的日志并逐条过滤,先比较时间和级别,再按字节比较tag和内容,都匹配时才解码字符串
+     * @return 匹配的条数,visitor要求停止时返回 -(条数)-1
+     */
+    private static int scanBlock(byte[] data, int length, long from, long to, byte[][] tags, int minPriority,
+                                 String contains, byte[] needle, Visitor visitor) {
+        Reader reader = new Reader(data, 0, length);
+        int matched = 0;
+        while (reader.position < length) {
+            int end = reader.readVarInt() + reader.position;
+            int priority = data[reader.position++];
+            long timestamp = reader.readLong();
+            if (priority < minPriority || timestamp < from || timestamp > to) {
+                reader.position = end;
+                continue;
+            }
+            int tagLength = reader.readVarInt();
+            int tagStart = reader.position;
+            if (tags != null && !equalsAny(data, tagStart, tagLength, tags)) {
+                reader.position = end;
+                continue;
+            }
+            reader.position += tagLength;
+            int threadLength = reader.readVarInt();
+            int threadStart = reader.position;
+            reader.position += threadLength;
+            int messageLength = reader.readVarInt();
+            int messageStart = reader.position;
+            reader.position = end;
+            if (needle != null && indexOf(data, messageStart, messageStart + messageLength, needle) < 0) {
+                continue;
+            }
+            String message = new String(data, messageStart, messageLength, UTF_8);
+            if (contains != null && indexOfWord(message, contains) < 0) {
+                continue;
+            }
+            matched++;
+            Record record = new Record(timestamp, priority, new String(data, tagStart, tagLength, UTF_8),
+                    new String(data, threadStart, threadLength, UTF_8), message);
+            if (!visitor.visit(record)) {
+                return -matched - 1;
+            }
+        }
+        return matched;
+    }
+
+    private static boolean equalsAny(byte[] data, int start, int length, byte[][] values) {
+        for (byte[] value : values) {
+            if (value.length == length && indexOf(data, start, start + length, value) == start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在data[start, end)中查找needle
+     * @return 位置,没有找到时返回-1
+     */
+    private static int indexOf(byte[] data, int start, int end, byte[] needle) {
+        byte first = needle[0];
+        int last = end - needle.length;
+        for (int i = start; i <= last; i++) {
+            if (data[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && data[i + j] == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查找单词边界上的word,word首尾是字母或数字时,message中相应的位置前后不能紧接字母或数字
+     * @return 位置,没有找到时返回-1
+     */
+    static int indexOfWord(String message, String word) {
+        boolean checkStart = Character.isLetterOrDigit(word.charAt(0));
+        boolean checkEnd = Character.isLetterOrDigit(word.charAt(word.length() - 1));
+        int index = message.indexOf(word);
+        while (index >= 0) {
+            int end = index + word.length();
+            if ((!checkStart || index == 0 || !Character.isLetterOrDigit(message.charAt(index - 1)))
+                    && (!checkEnd || end == message.length() || !Character.isLetterOrDigit(message.charAt(end)))) {
+                return index;
+            }
+            index = message.indexOf(word, index + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * 扫描上次运行留下的分段,建立索引
+     * @return 分段已经被删除时返回false
+     */
+    private boolean load(SegmentIndex segment) throws IOException {
+        if (!segment.file.isFile()) {
+            return false;
+        }
+        RandomAccessFile file = new RandomAccessFile(segment.file, "r");
+        byte[] data;
+        try {
+            data = new byte[(int) file.length()];
+            file.readFully(data);
+        } finally {
+            file.close();
+        }
+        segment.loaded = true;
+        int header = MAGIC.length + 1;
+        if (data.length < header || !Arrays.equals(Arrays.copyOf(data, MAGIC.length), MAGIC) || data[MAGIC.length] != VERSION) {
+            return true;
+        }
+        Reader reader = new Reader(data, header, data.length);
+        try {
+            while (reader.position < data.length) {
+                int offset = reader.position;
+                int frameLength = reader.readVarInt();
+                int end = reader.position + frameLength;
+                // 长度为0的记录是分段中未写入的部分,或者写到一半的日志
+                if (frameLength == 0 || end > data.length) {
+                    break;
+                }
+                int priority = data[reader.position++];
+                long timestamp = reader.readLong();
+                String tag = reader.readString();
+                reader.readString();
+                String message = reader.readString();
+                segment.add(offset, end, priority, tag, timestamp, message);
+                reader.position = end;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // 分段末尾的数据不完整
+        }
+        return true;
+    }
+
+    /**
+     * 把映射内存中的数据写回磁盘,防止断电丢失;进程被杀死不需要调用
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            segments.force();
+        }
+    }
+
+    /**
+     * 关闭存储,截断当前分段未使用的部分,关闭后仍然可以查询
+     * @throws IOException
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.close();
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        writeMessage(Logger.DEBUG, tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        writeMessage(Logger.ERROR, tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        writeMessage(Logger.VERBOSE, tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        writeMessage(Logger.INFO, tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        writeMessage(Logger.WARN, tag, message);
+    }
+
+    @Override
+    public void wtf(String tag, String message) {
+        writeMessage(Logger.ASSERT, tag, message);
+    }
+
+    /**
+     * 一个分段的索引,只在内存中
+     */
+    private static final class SegmentIndex {
+        final File file;
+        final Bloom bloom;
+        boolean loaded;
+        int count;                          // 日志条数
+        int end;                            // 最后一条日志的结尾
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        int blocks;
+        int[] blockOffsets = new int[16];
+        long[] blockMin = new long[16];
+        long[] blockMax = new long[16];
+        int[] blockLevels = new int[16];    // 每个级别一位
+        final HashMap<String, BlockList> tagBlocks = new HashMap<>();
+
+        SegmentIndex(File file, int bloomBits, boolean loaded) {
+            this.file = file;
+            this.bloom = bloomBits > 0 ? new Bloom(bloomBits) : null;
+            this.loaded = loaded;
+        }
+
+        void add(int offset, int end, int priority, String tag, long timestamp, CharSequence message) {
+            if (count % BLOCK_RECORDS == 0) {
+                if (blocks == blockOffsets.length) {
+                    int size = blocks * 2;
+                    blockOffsets = Arrays.copyOf(blockOffsets, size);
+                    blockMin = Arrays.copyOf(blockMin, size);
+                    blockMax = Arrays.copyOf(blockMax, size);
+                    blockLevels = Arrays.copyOf(blockLevels, size);
+                }
+                blockOffsets[blocks] = offset;
+                blockMin[blocks] = Long.MAX_VALUE;
+                blockMax[blocks] = Long.MIN_VALUE;
+                blockLevels[blocks] = 0;
+                blocks++;
+            }
+            int b = blocks - 1;
+            blockMin[b] = Math.min(blockMin[b], timestamp);
+            blockMax[b] = Math.max(blockMax[b], timestamp);
+            blockLevels[b] |= 1 << Math.min(Math.max(priority, 0), 31);
+            minTime = Math.min(minTime, timestamp);
+            maxTime = Math.max(maxTime, timestamp);
+            String key = tag != null ? tag : "";
+            BlockList list = tagBlocks.get(key);
+            if (list == null) {
+                list = new BlockList();
+                tagBlocks.put(key, list);
+            }
+            list.add(b);
+            if (bloom != null && message != null) {
+                bloom.addTokens(message);
+            }
+            count++;
+            this.end = end;
+        }
+
+        /**
+         * @return 包含任意一个tag的块
+         */
+        BitSet blocksWithTags(Collection<String> tags) {
+            BitSet blocks = new BitSet(this.blocks);
+            for (String tag : tags) {
+                BlockList list = tagBlocks.get(tag);
+                if (list != null) {
+                    for (int i = 0; i < list.size; i++) {
+                        blocks.set(list.blocks[i]);
+                    }
+                }
+            }
+            return blocks;
+        }
+    }
+
+    /**
+     * 递增的块序号,同一块只记录一次
+     */
+    private static final class BlockList {
+        int[] blocks = new int[4];
+        int size;
+
+        void add(int block) {
+            if (size > 0 && blocks[size - 1] == block) {
+                return;
+            }
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            blocks[size++] = block;
+        }
+    }
+
+    /**
+     * 单词的布隆过滤器,单词是连续的字母或数字,区分大小写
+     */
+    static final class Bloom {
+        private static final int HASHES = 3;
+        private static final int SEED = 0x9e3779b9;
+
+        private final long[] bits;
+        private final int mask;
+
+        Bloom(int bits) {
+            int size = Integer.highestOneBit(Math.max(bits, 64) - 1) << 1;
+            this.bits = new long[size >>> 6];
+            this.mask = size - 1;
+        }
+
+        void addTokens(CharSequence text) {
+            int hash = 0;
+            boolean inToken = false;
+            for (int i = 0, length = text.length(); i <= length; i++) {
+                char c = i < length ? text.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    hash = 31 * hash + c;
+                    inToken = true;
+                } else if (inToken) {
+                    add(hash);
+                    hash = 0;
+                    inToken = false;
+                }
+            }
+        }
+
+        /**
+         * @return text中的单词都可能出现过,有一个一定没有出现过时返回false
+         */
+        boolean mightContainTokens(CharSequence text) {
+            int hash = 0;
+            boolean inToken = false;
+            for (int i = 0, length = text.length(); i <= length; i++) {
+                char c = i < length ? text.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    hash = 31 * hash + c;
+                    inToken = true;
+                } else if (inToken) {
+                    if (!mightContain(hash)) {
+                        return false;
+                    }
+                    hash = 0;
+                    inToken = false;
+                }
+            }
+            return true;
+        }
+
+        private void add(int hash) {
+            for (int i = 0; i < HASHES; i++) {
+                int bit = mix(hash + i * SEED) & mask;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        private boolean mightContain(int hash) {
+            for (int i = 0; i < HASHES; i++) {
+                int bit = mix(hash + i * SEED) & mask;
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            hash *= 0xc2b2ae35;
+            hash ^= hash >>> 16;
+            return hash;
+        }
+    }
+
+    /**
+     * 按写入的格式读取记录
+     */
+    private static final class Reader {
+        final byte[] data;
+        final int limit;
+        int position;
+
+        Reader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position++];
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xff);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (position + length > limit) {
+                throw new ArrayIndexOutOfBoundsException(position + length);
+            }
+            String value = new String(data, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
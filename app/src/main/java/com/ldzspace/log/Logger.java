@@ -1,10 +1,8 @@
 package com.ldzspace.log;
 
-import static android.R.attr.priority;
-import static android.icu.lang.UCharacter.GraphemeClusterBreak.T;
-
 /**
  * 格式化的log日志
+ * 默认打印调用的方法信息,每条日志都会获取一次调用栈;高频日志可以用 init().methodCount(0) 关闭
  * Created by liudazhi on 2016/12/18.
  */
 
@@ -20,8 +18,13 @@ public final class Logger {
     /**
      * 防止用户没有调用初始化方法,直接创建好LoggerPrinter构造方法中也已经调用了
      * 初始化
+     * volatile保证其他线程看到的是初始化完成的printer
+     */
+    private static volatile LoggerPrinter printer = new LoggerPrinter();
+    /**
+     * t()返回的实例,打印时使用当前的printer,init()之后不需要重新获取
      */
-    private static LoggerPrinter printer = new LoggerPrinter();
+    private static final TaggedPrinter.Cache TAGGED = new TaggedPrinter.Cache(null);
 
     private Logger(){
 
@@ -37,16 +40,37 @@ public final class Logger {
     }
 
     public static Settings init(String tag){
-        printer = new LoggerPrinter();
-        return printer.init(tag);
+        LoggerPrinter next = new LoggerPrinter();
+        Settings settings = next.init(tag);
+        LoggerPrinter old;
+        synchronized (Logger.class){
+            old = printer;
+            printer = next;
+        }
+        // 旧的printer如果开启了异步模式,需要把剩余的日志输出并结束后台线程
+        old.shutdown();
+        return settings;
     }
 
-    public Printer t(String tag){
-        return printer.t(tag,printer.getSettings().getMethodCount());
+    /**
+     * 当前的printer
+     */
+    static LoggerPrinter getPrinter(){
+        return printer;
     }
 
-    public Printer t(int methodCount){
-        return printer.t(null,methodCount);
+    /**
+     * 获取指定tag的printer,返回的实例是缓存的,可以保存下来重复使用
+     * 打印时使用Logger当前的printer,Logger.init()之后不需要重新获取
+     * @param tag
+     * @return
+     */
+    public static Printer t(String tag){
+        return TAGGED.get(tag, -1);
+    }
+
+    public static Printer t(int methodCount){
+        return t(null,methodCount);
     }
 
     /**
@@ -55,8 +79,11 @@ public final class Logger {
      * @param methodCount
      * @return
      */
-    public Printer t(String tag , int methodCount){
-        return  printer.t(tag,methodCount);
+    public static Printer t(String tag , int methodCount){
+        if(methodCount < 0){
+            throw new IllegalArgumentException("methodCount cannot be negative");
+        }
+        return TAGGED.get(tag,methodCount);
     }
     /**
      * 提供对外暴露的log,用户自己选择输出日志的级别
@@ -69,6 +96,25 @@ public final class Logger {
         printer.log(priority,tag,message,throwable);
     }
 
+    /**
+     * 判断该级别的日志是否会输出,用于在构造开销较大的参数前判断
+     * @param priority
+     * @return
+     */
+    public static boolean isLoggable(int priority){
+        return printer.isLoggable(priority, null);
+    }
+
+    /**
+     * 判断该级别和tag的日志是否会输出
+     * @param priority
+     * @param tag
+     * @return
+     */
+    public static boolean isLoggable(int priority, String tag){
+        return printer.isLoggable(priority, tag);
+    }
+
     public static void d(Object object){
         printer.d(object);
     }
@@ -101,6 +147,54 @@ public final class Logger {
         printer.wtf(message, object);
     }
 
+    /**
+     * 没有参数的消息,不创建可变参数的空数组
+     */
+    public static void v(String message){
+        printer.v(message);
+    }
+
+    public static void i(String message){
+        printer.i(message);
+    }
+
+    public static void w(String message){
+        printer.w(message);
+    }
+
+    public static void e(String message){
+        printer.e(message);
+    }
+
+    public static void wtf(String message){
+        printer.wtf(message);
+    }
+
+    /**
+     * 结构化日志: Logger.atInfo().kv("userId", id).kv("latencyMs", ms).log("request done");
+     * 级别被过滤时返回什么都不做的单例
+     * @return
+     */
+    public static EventBuilder atVerbose(){
+        return printer.atVerbose();
+    }
+
+    public static EventBuilder atDebug(){
+        return printer.atDebug();
+    }
+
+    public static EventBuilder atInfo(){
+        return printer.atInfo();
+    }
+
+    public static EventBuilder atWarn(){
+        return printer.atWarn();
+    }
+
+    public static EventBuilder atError(){
+        return printer.atError();
+    }
+
     /**
      * 格式化json字符串
      * @param json
@@ -116,4 +210,34 @@ public final class Logger {
     public static void xml(String xml){
         printer.xml(xml);
     }
+
+    /**
+     * 异步模式下等待已提交的日志全部输出
+     */
+    public static void flush(){
+        printer.flush();
+    }
+
+    /**
+     * 异步模式下输出剩余日志并结束后台线程,之后的日志改为同步输出
+     */
+    public static void shutdown(){
+        printer.shutdown();
+    }
+
+    /**
+     * 异步模式下因缓冲区满被丢弃的日志数
+     * @return
+     */
+    public static long getDroppedCount(){
+        return printer.getDroppedCount();
+    }
+
+    /**
+     * 日志库自身的统计快照,需要先设置 Logger.init().metrics(new LogMetrics())
+     * @return 没有设置时返回null
+     */
+    public static LogMetrics.Snapshot metrics(){
+        return printer.metrics();
+    }
 }
@@ -1,23 +1,6 @@
 package com.ldzspace.log;
 
-import android.graphics.RegionIterator;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.Arrays;
-import java.util.Objects;
-
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 /**
  * log日志的打印输出类
@@ -34,45 +17,64 @@ public final class LoggerPrinter implements Printer {
     private static final int VERBOSE = 2;
     private static final int WARN    = 5;
 
-    /**
-     * 安卓最大的日志输出实体限制是小于4076 bytes,合4M
-     * 每块的大小限制为4000 byte
-     */
-    private static final int CHUNK_SIZE = 4000;
     /**
      * json是否使用漂亮的打印
      */
     private static final int JSON_INDENT = 2;
     /**
-     * 最小的栈指针
+     * xml每层缩进的空格数
      */
-    private static final int MIN_STACK_OFFSET = 3;
+    private static final int XML_INDENT = 2;
     /**
-     * 输出框
+     * 使用settings中的方法数
      */
-    private static final char TOP_LEFT_CORNER = '╔';
-    private static final char BOTTOM_LEFT_CORNER = '╚';
-    private static final char MIDDLE_CORNER = '╟';
-    private static final char HORIZONTAL_DOUBLE_LINE = '║';
-    private static final String DOUBLE_DIVIDER = "════════════════════════════════════════════";
-    private static final String SINGLE_DIVIDER = "────────────────────────────────────────────";
-    private static final String TOP_BORDER = TOP_LEFT_CORNER + DOUBLE_DIVIDER + DOUBLE_DIVIDER;
-    private static final String BOTTOM_BORDER = BOTTOM_LEFT_CORNER + DOUBLE_DIVIDER + DOUBLE_DIVIDER;
-    private static final String MIDDLE_BORDER = MIDDLE_CORNER + SINGLE_DIVIDER + SINGLE_DIVIDER;
-
+    private static final int DEFAULT_METHOD_COUNT = -1;
     /**
-     * 线程本地变量:ThreadLocal为每个使用该变量的线程提供独立的变量副本，
-     * 所以每一个线程都可以独立地改变自己的副本，而不会影响其它线程所对应的副本。
+     * 限流汇总行的tag
      */
-    private final ThreadLocal<String> localTag = new ThreadLocal<>();
-    private final ThreadLocal<Integer> localMethodCount = new ThreadLocal<>();
+    private static final Tag SUMMARY_TAG = TagRegistry.intern(RateLimiter.SUMMARY_TAG);
 
     /**
      * 通常是用来定义log的配置 如:方法的数量,和可见的线程信息
      */
     private final Settings settings = new Settings();
 
-    private String tag;
+    /**
+     * 异步分发器,开启异步模式后第一次打印时创建
+     */
+    private volatile AsyncDispatcher<LogEvent> dispatcher;
+
+    /**
+     * t()返回的实例
+     */
+    private final TaggedPrinter.Cache taggedPrinters = new TaggedPrinter.Cache(this);
+
+    /**
+     * 同步模式下每个线程复用的事件
+     */
+    private final ThreadLocal<LogEvent> localEvent = new ThreadLocal<LogEvent>() {
+        @Override
+        protected LogEvent initialValue() {
+            LogEvent event = new LogEvent();
+            event.pool = LogEvent.POOL_THREAD;
+            return event;
+        }
+    };
+
+    /**
+     * 异步模式下输出完成的事件,和分发器一起创建,生产者从这里取事件,后台线程输出后放回
+     */
+    private volatile RingBuffer<LogEvent> freeEvents;
+
+    /**
+     * 每个线程复用的缓冲区,收集一条日志的所有行
+     */
+    private final ThreadLocal<LineBuffer> localBuffer = new ThreadLocal<LineBuffer>() {
+        @Override
+        protected LineBuffer initialValue() {
+            return new LineBuffer();
+        }
+    };
 
     public LoggerPrinter(){
         init(DEFAULT_TAG);
@@ -80,16 +82,8 @@ public final class LoggerPrinter implements Printer {
     
     @Override
     public Settings init(String tag){
-        if(tag == null){
-            throw new IllegalArgumentException("tag is null");
-        }
-
-        if(tag.trim().length() == 0){
-            throw new IllegalStateException("tag may be not empty");
-        }
-
-        this.tag = tag;
-        return settings ;
+        // tag保存在配置快照中,和其他配置一起读取
+        return settings.tag(tag);
     }
 
     @Override
@@ -97,18 +91,33 @@ public final class LoggerPrinter implements Printer {
         return settings;
     }
 
+    /**
+     * 获取指定tag的printer,方法数使用settings中的设置
+     * @param tag
+     * @return 缓存的实例,可以保存下来重复使用
+     */
     @Override
-    public Printer t(String tag, int methodCount) {
-        localMethodCount.set(methodCount);
-        if(tag != null){
-            localTag.set(tag);
+    public TaggedPrinter t(String tag) {
+        return taggedPrinters.get(tag, DEFAULT_METHOD_COUNT);
+    }
+
+    /**
+     * 获取指定tag和方法数的printer
+     * @param tag         为null时使用printer的tag
+     * @param methodCount
+     * @return 缓存的实例,可以保存下来重复使用
+     */
+    @Override
+    public TaggedPrinter t(String tag, int methodCount) {
+        if(methodCount < 0){
+            throw new IllegalArgumentException("methodCount cannot be negative");
         }
-        return this;
+        return taggedPrinters.get(tag, methodCount);
     }
 
     @Override
     public void d(String message, Object... args) {
-        log(DEBUG,null,message,args);
+        log(DEBUG,null,DEFAULT_METHOD_COUNT,null,message,args);
     }
 
     /**
@@ -117,6 +126,27 @@ public final class LoggerPrinter implements Printer {
      */
     @Override
     public void d(Object object){
+        logObject(null,DEFAULT_METHOD_COUNT,object);
+    }
+
+    /**
+     * d(Object)的实现,tag和方法数由调用方传入
+     * @param tag
+     * @param methodCount
+     * @param object
+     */
+    void logObject(Tag tag, int methodCount, Object object){
+        // 数组转字符串的开销较大,先判断是否需要输出
+        LogConfig config = settings.getConfig();
+        if(!config.isLoggable(DEBUG, tag)){
+            if(config.getCrashBuffer() != null){
+                // 崩溃缓冲区按引用保存对象,输出时才转换成字符串
+                recordFiltered(config, tag, "{}", new Object[]{object});
+            }else{
+                countFiltered(config);
+            }
+            return;
+        }
         String message;
         // 检查是否传入的是否是array类型
         if(object.getClass().isArray()){
@@ -125,86 +155,127 @@ public final class LoggerPrinter implements Printer {
             message = object.toString();
         }
         // 最后的参数不一定要传
-        log(DEBUG,null,message);
+        log(DEBUG,tag,methodCount,null,message,null);
     }
 
     @Override
     public void e(String message, Object... args) {
-        e(null,message,args);
+        log(ERROR,null,DEFAULT_METHOD_COUNT,null,message,args);
     }
 
     @Override
     public void e(Throwable throwable,String message,Object object){
-        log(ERROR,throwable,message,object);
+        log(ERROR,null,DEFAULT_METHOD_COUNT,throwable,message,new Object[]{object});
     }
 
     @Override
     public void i(String message, Object... args) {
-        log(INFO,null,message,args);
+        log(INFO,null,DEFAULT_METHOD_COUNT,null,message,args);
     }
 
     @Override
     public void v(String message, Object... args) {
-        log(VERBOSE,null,message,args);
+        log(VERBOSE,null,DEFAULT_METHOD_COUNT,null,message,args);
     }
 
     @Override
     public void w(String message, Object... args) {
-        log(WARN,null,message,args);
+        log(WARN,null,DEFAULT_METHOD_COUNT,null,message,args);
     }
 
     @Override
     public void wtf(String message, Object... args) {
-        log(ASSERT,null,message,args);
+        log(ASSERT,null,DEFAULT_METHOD_COUNT,null,message,args);
+    }
+
+    @Override
+    public void v(String message) {
+        log(VERBOSE,null,DEFAULT_METHOD_COUNT,null,message,null);
+    }
+
+    @Override
+    public void i(String message) {
+        log(INFO,null,DEFAULT_METHOD_COUNT,null,message,null);
+    }
+
+    @Override
+    public void w(String message) {
+        log(WARN,null,DEFAULT_METHOD_COUNT,null,message,null);
+    }
+
+    @Override
+    public void e(String message) {
+        log(ERROR,null,DEFAULT_METHOD_COUNT,null,message,null);
+    }
+
+    @Override
+    public void wtf(String message) {
+        log(ASSERT,null,DEFAULT_METHOD_COUNT,null,message,null);
     }
 
     @Override
     public void json(String json) {
+        json(null,DEFAULT_METHOD_COUNT,json);
+    }
+
+    /**
+     * json()的实现,tag和方法数由调用方传入
+     * @param tag
+     * @param methodCount
+     * @param json
+     */
+    void json(Tag tag, int methodCount, String json) {
+        LogConfig config = settings.getConfig();
+        if(!config.isLoggable(DEBUG, tag)){
+            // 不缩进,崩溃缓冲区只保存原始内容
+            recordFiltered(config, tag, json, null);
+            return;
+        }
         if(Helper.isEmpty(json)){
-            d("Empty/Null json content");
+            log(DEBUG,tag,methodCount,null,"Empty/Null json content",null);
             return;
         }
         try {
-            json = json.trim();
-            if (json.startsWith("{")) {
-                JSONObject jsonObject = new JSONObject(json);
-                // 加上JSON_INDENT 使json更易读
-                String message = jsonObject.toString(JSON_INDENT);
-                d(message);
-                return;
+            // 逐个字符校验并缩进,不构建JSONObject/JSONArray
+            int start = 0;
+            while (start < json.length() && JsonFormatter.isWhitespace(json.charAt(start))) {
+                start++;
             }
-
-            if (json.startsWith("[")) {
-                JSONArray jsonArray = new JSONArray(json);
-                String message = jsonArray.toString(JSON_INDENT);
-                d(message);
+            if (start < json.length() && (json.charAt(start) == '{' || json.charAt(start) == '[')) {
+                log(DEBUG,tag,methodCount,null,new JsonFormatter(JSON_INDENT, config.getJsonArrayLimit()).format(json),null);
                 return;
             }
-            e("invalid message");
-        }catch(Exception e){
-            e("invalid message");
+            log(ERROR,tag,methodCount,null,"invalid message",null);
+        }catch(IllegalArgumentException e){
+            log(ERROR,tag,methodCount,null,"invalid message",null);
         }
     }
 
     @Override
     public void xml(String xml) {
+        xml(null,DEFAULT_METHOD_COUNT,xml);
+    }
+
+    /**
+     * xml()的实现,tag和方法数由调用方传入
+     * @param tag
+     * @param methodCount
+     * @param xml
+     */
+    void xml(Tag tag, int methodCount, String xml) {
+        LogConfig config = settings.getConfig();
+        if(!config.isLoggable(DEBUG, tag)){
+            recordFiltered(config, tag, xml, null);
+            return;
+        }
         if(Helper.isEmpty(xml)){
-            d("Empty/Null xml content");
+            log(DEBUG,tag,methodCount,null,"Empty/Null xml content",null);
             return;
         }
         try {
-            Source xmlSource = new StreamSource(new StringReader(xml));
-            StreamResult xmlResult = new StreamResult(new StringWriter());
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            // 输出的时候是否可以使用空白格
-            transformer.setOutputProperty(OutputKeys.INDENT,"yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount","2");
-            transformer.transform(xmlSource,xmlResult);
-            d(xmlResult.getWriter().toString().replaceFirst(">", ">\n"));
-        } catch (TransformerConfigurationException e) {
-            e.printStackTrace();
-        } catch (TransformerException e) {
-            e.printStackTrace();
+            log(DEBUG,tag,methodCount,null,XmlFormatter.format(xml, XML_INDENT, config.getXmlMaxLength(), config.getXmlMaxDepth()),null);
+        } catch (IllegalArgumentException e) {
+            log(ERROR,tag,methodCount,null,"invalid message",null);
         }
     }
 
@@ -216,23 +287,142 @@ public final class LoggerPrinter implements Printer {
      * @param agrs     可变参数  只是输出消息的补充
      */
     public void log(int priority, Throwable throwable, String message, Object... agrs){
-        if(settings.getLogLevel() == LogLevel.NONE){
+        log(priority, null, DEFAULT_METHOD_COUNT, throwable, message, agrs);
+    }
+
+    /**
+     * Object参数的日志,tag和方法数由调用方(LoggerPrinter或TaggedPrinter)传入
+     * @param priority
+     * @param tag         为null时使用printer的tag
+     * @param methodCount 小于0时使用settings中的方法数
+     * @param throwable
+     * @param message
+     * @param args
+     */
+    void log(int priority, Tag tag, int methodCount, Throwable throwable, String message, Object[] args){
+        log(priority, tag, methodCount, throwable, message, args, null);
+    }
+
+    /**
+     * Object参数或结构化字段的日志
+     * @param fields 结构化字段,普通日志为null
+     */
+    void log(int priority, Tag tag, int methodCount, Throwable throwable, String message, Object[] args, LogFields fields){
+        // 只读取一次配置快照,运行中修改配置不影响这条日志
+        LogConfig config = settings.getConfig();
+        String baseTag = config.getTag();
+        LogMetrics metrics = LogMetrics.ENABLED ? config.getMetrics() : null;
+        // 崩溃缓冲区在级别过滤之前记录
+        CrashBuffer crashBuffer = config.getCrashBuffer();
+        if(crashBuffer != null){
+            crashBuffer.record(priority, baseTag, tag, message, args, throwable, fields);
+        }
+        // 在格式化消息和获取栈信息之前过滤
+        if(!config.isLoggable(priority, tag)){
+            countFiltered(config);
             return;
         }
-        String tag = getTag();
-        // 将message和agrs 合并,使用了String.format,
-        String messageInfo = createMessage(message, agrs);
-        log(priority,tag,messageInfo,throwable);
+        RateLimiter rateLimiter = config.getRateLimiter();
+        if(rateLimiter != null){
+            long now = System.nanoTime();
+            if(!admit(config, rateLimiter, priority, tag, rateLimiter.acquire(tag != null ? tag.name : null, message, args, now), now)){
+                return;
+            }
+        }
+        // 采样的调用才计时
+        long start = metrics != null && metrics.logged(priority, tag != null ? tag.name : baseTag) ? System.nanoTime() : 0;
+        LogEvent event = newEvent(config, priority, tag, methodCount, message, start != 0);
+        if(args != null && args.length > 0){
+            event.args = args;
+        }
+        event.throwable = throwable;
+        event.fields = fields;
+        dispatch(event, config);
+        if(start != 0){
+            metrics.latency(LogMetrics.STAGE_CALL, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean isLoggable(int priority, String tag) {
+        return settings.isLoggable(priority, tag);
+    }
+
+    @Override
+    public EventBuilder atVerbose() {
+        return at(VERBOSE, null, DEFAULT_METHOD_COUNT);
+    }
+
+    @Override
+    public EventBuilder atDebug() {
+        return at(DEBUG, null, DEFAULT_METHOD_COUNT);
+    }
+
+    @Override
+    public EventBuilder atInfo() {
+        return at(INFO, null, DEFAULT_METHOD_COUNT);
+    }
+
+    @Override
+    public EventBuilder atWarn() {
+        return at(WARN, null, DEFAULT_METHOD_COUNT);
+    }
+
+    @Override
+    public EventBuilder atError() {
+        return at(ERROR, null, DEFAULT_METHOD_COUNT);
+    }
+
+    /**
+     * 结构化日志,级别被过滤时返回什么都不做的单例,不保存字段也不调用ValueSupplier;
+     * 崩溃缓冲区记录这个级别时仍然返回正常的实例,log()中先记录再过滤
+     * @param priority
+     * @param tag         为null时使用printer的tag
+     * @param methodCount 小于0时使用settings中的方法数
+     * @return
+     */
+    EventBuilder at(int priority, Tag tag, int methodCount) {
+        LogConfig config = settings.getConfig();
+        if(!config.isLoggable(priority, tag)){
+            CrashBuffer crashBuffer = config.getCrashBuffer();
+            if(crashBuffer != null && crashBuffer.accepts(priority)){
+                return StructuredEventBuilder.obtain(this, priority, tag, methodCount);
+            }
+            countFiltered(config);
+            return StructuredEventBuilder.NO_OP;
+        }
+        return StructuredEventBuilder.obtain(this, priority, tag, methodCount);
     }
 
     /**
      * 创建消息 如果后面的参数为空,我们就直接输出 message
-     * @param message 消息
-     * @param args 参数
+     * 只用于需要字符串的StructuredLogAdapter,文本输出直接格式化到复用的缓冲区
+     * @param event
      * @return
      */
-    private String  createMessage(String message , Object... args) {
-        return args == null || args.length == 0 ? message : String.format(message,args);
+    private String createMessage(LogEvent event, LogConfig config) {
+        return MessageFormatter.format(event, config.isStringFormat());
+    }
+
+    /**
+     * 文本输出时把结构化字段接在消息后面: message key=value key=value
+     * @param message 可以为null,也可以是已经写入out的消息
+     * @param fields
+     * @param out     复用的消息缓冲区
+     * @return out
+     */
+    private static CharSequence appendFields(CharSequence message, LogFields fields, StringBuilder out) {
+        if(message != out){
+            out.setLength(0);
+            if(message != null){
+                out.append(message);
+            }
+        }
+        if(message != null){
+            out.append(' ');
+        }
+        fields.appendTo(out);
+        return out;
     }
 
     /**
@@ -244,210 +434,406 @@ public final class LoggerPrinter implements Printer {
      */
     @Override
     public void log(int priority, String tag, String message, Throwable throwable) {
-        if(settings.getLogLevel() == LogLevel.NONE){
-            return;
-        }
-        if(throwable != null && message != null){
-            message += ": " + Helper.getStackTrace(throwable);
-        }
-        if(throwable != null && message == null){
-            message = Helper.getStackTrace(throwable);
-        }
-        if(message == null){
-            message = "No message/exception is set";
+        log(priority, TagRegistry.intern(tag), DEFAULT_METHOD_COUNT, throwable, message, null);
+    }
+
+    /**
+     * 被级别过滤的d(Object)/json()/xml()在返回之前记录到崩溃缓冲区,和log()一样先记录再过滤
+     * @param config
+     * @param tag
+     * @param message
+     * @param args
+     */
+    private static void recordFiltered(LogConfig config, Tag tag, String message, Object[] args) {
+        CrashBuffer crashBuffer = config.getCrashBuffer();
+        if(crashBuffer != null){
+            crashBuffer.record(DEBUG, config.getTag(), tag, message, args, null, null);
         }
-        int methodCount = getMethodCount();
-        if(Helper.isEmpty(message)){
-            message = "Empty/null log message";
+        countFiltered(config);
+    }
+
+    /**
+     * 统计被级别过滤的日志
+     * @param config
+     */
+    private static void countFiltered(LogConfig config) {
+        LogMetrics metrics = LogMetrics.ENABLED ? config.getMetrics() : null;
+        if(metrics != null){
+            metrics.filtered();
         }
-        logTopBorder(priority,tag);
-        logHeaderContent(priority,tag,methodCount);
+    }
 
-        byte[] bytes = message.getBytes();
-        int length = bytes.length;
-        // 如果输出的信息小于chunksize,我们认为这是一次能输出的大小
-        if(length <= CHUNK_SIZE){
-            if(methodCount > 0){
-                logDivdier(priority,tag);
+    /**
+     * 处理限流的检查结果: 输出到期的汇总行和合并的重复消息数
+     * @param config
+     * @param rateLimiter
+     * @param priority
+     * @param tag
+     * @param repeated    RateLimiter.acquire()的返回值
+     * @param now
+     * @return 这条日志是否输出
+     */
+    private boolean admit(LogConfig config, RateLimiter rateLimiter, int priority, Tag tag, int repeated, long now) {
+        String summary = rateLimiter.pollSummary(now, false);
+        if(summary != null){
+            logSummary(config, summary);
+        }
+        if(repeated < 0){
+            LogMetrics metrics = LogMetrics.ENABLED ? config.getMetrics() : null;
+            if(metrics != null){
+                metrics.rateLimited();
             }
-            logContent(priority, tag,message);
-            logBottomBorder(priority,tag);
-            return;
+            return false;
         }
-        if(methodCount > 0){
-            logDivdier(priority,tag);
+        if(repeated > 0){
+            logNotice(config, priority, tag, "last message repeated " + repeated + " times");
         }
+        return true;
+    }
 
-        for(int i = 0; i < length; i+= CHUNK_SIZE){
-            int count = Math.min(length - i, CHUNK_SIZE);
-            logContent(priority,tag,new String(bytes,i,count));
+    /**
+     * 输出限流的汇总行,可以用tag "ratelimit"的级别关闭
+     * @param config
+     * @param summary
+     */
+    private void logSummary(LogConfig config, String summary) {
+        if(config.isLoggable(WARN, SUMMARY_TAG)){
+            logNotice(config, WARN, SUMMARY_TAG, summary);
         }
-        logBottomBorder(priority,tag);
     }
 
-    public int getMethodCount(){
-        Integer count = localMethodCount.get();
-        int result = settings.getMethodCount();
-        if(count != null){
-            localMethodCount.remove();
-            result = count;
-        }
-        if(result < 0){
-            // 方法数量无法预期
-            throw new IllegalArgumentException("methodCount cannot be negative");
-        }
-        return result;
+    /**
+     * 日志库自己输出的提示,不打印方法信息,也不经过限流
+     * @param config
+     * @param priority
+     * @param tag
+     * @param message
+     */
+    private void logNotice(LogConfig config, int priority, Tag tag, String message) {
+        dispatch(newEvent(config, priority, tag, 0, message, false), config);
     }
 
     /**
-     * 获取当前类在栈中的指针
-     * @param trace
+     * 在调用线程上采集日志事件的公共部分
+     * @param config      这条日志使用的配置快照
+     * @param priority
+     * @param tag         为null时使用printer的tag
+     * @param methodCount 小于0时使用settings中的方法数
+     * @param message
+     * @param timed       是否统计各阶段耗时
      * @return
      */
-    public int getStackOffset(StackTraceElement[] trace){
-        for(int i = MIN_STACK_OFFSET;i <trace.length;i++){
-            StackTraceElement stackTraceElement = trace[i];
-            String className = stackTraceElement.getClassName();
-            // 去除我们自己的方法输出,剩余的方法数量就是便宜量
-            if(!className.equals(LoggerPrinter.class.getName()) && !className.equals(Logger.class.getName())){
-                return --i;
+    private LogEvent newEvent(LogConfig config, int priority, Tag tag, int methodCount, String message, boolean timed) {
+        LogEvent event = obtainEvent(config);
+        event.config = config;
+        event.priority = priority;
+        event.tag = tag;
+        event.methodCount = methodCount < 0 ? config.getMethodCount() : methodCount;
+        event.message = message;
+        event.threadName = Thread.currentThread().getName();
+        event.context = LogContext.current();
+        event.timestamp = System.currentTimeMillis();
+        event.timed = timed;
+        // 栈信息只能在调用线程上获取,不打印方法信息时不获取
+        if(event.methodCount > 0){
+            long start = timed ? System.nanoTime() : 0;
+            event.stackTrace = CallerLocator.capture();
+            if(timed){
+                config.getMetrics().latency(LogMetrics.STAGE_CAPTURE, System.nanoTime() - start);
             }
         }
-        return -1;
+        return event;
     }
 
     /**
-     * 绘制打印框的上边界
-     * @param logType
-     * @param tag
+     * 获取一个空的事件: 同步模式下是当前线程复用的实例,异步模式下从空闲队列中取,都没有时创建新的
+     * @param config
+     * @return
      */
-    private void logTopBorder(int logType , String tag) {
-        logChunk(logType,tag,TOP_BORDER);
+    private LogEvent obtainEvent(LogConfig config) {
+        if(config.isAsync()){
+            RingBuffer<LogEvent> free = freeEvents;
+            LogEvent event = free != null ? free.poll() : null;
+            if(event == null){
+                event = new LogEvent();
+                event.pool = LogEvent.POOL_RING;
+            }
+            return event;
+        }
+        LogEvent event = localEvent.get();
+        if(event.inUse){
+            // adapter中又打印了日志
+            return new LogEvent();
+        }
+        event.inUse = true;
+        return event;
     }
 
     /**
-     * 绘制头部内容
-     * @param logType
-     * @param tag
-     * @param methodCount
+     * 输出完成后回收事件,被丢弃的异步事件不回收
+     * @param event
      */
-    private void logHeaderContent(int logType, String tag, int methodCount) {
-        // 获取当前线程的栈信息
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        // 查看控制器/设置器 是否允许展示线程栈信息
-        if(settings.isShowThreadInfo()){
-            // 样式 : ||  Thread :  线程名
-            logChunk(logType,tag,HORIZONTAL_DOUBLE_LINE + " Thread: " + Thread.currentThread().getName());
-            // 绘制分割线
-            logDivdier(logType,tag);
-        }
-        String level = "";
-        int offset = getStackOffset(stackTrace) + settings.getMethodOffset();
-        // 当前的堆栈对应的方法数信息可能超过了追踪堆栈的的方法数量.需要去除
-        if(methodCount + offset > stackTrace.length){
-            methodCount = stackTrace.length - offset - 1;
-        }
-
-        for(int i = methodCount; i > 0; i--){
-            // 找到每个自己方法的堆栈中的位置
-            int stackIndex = i + offset;
-            if (stackIndex >= stackTrace.length) {
-                continue;
-            }
-            // 拼接自有方法的堆栈信息
-            StringBuilder builder = new StringBuilder();
-            builder.append("║ ")
-                    .append(level)
-                    .append(getSimpleClassName(stackTrace[stackIndex].getClassName()))
-                    .append(".")
-                    .append(stackTrace[stackIndex].getMethodName())
-                    .append(" ")
-                    .append(" (")
-                    .append(stackTrace[stackIndex].getFileName())
-                    .append(":")
-                    .append(stackTrace[stackIndex].getLineNumber())
-                    .append(")");
-            level += "   ";
-            logChunk(logType, tag, builder.toString());
+    private void recycle(LogEvent event) {
+        switch(event.pool){
+            case LogEvent.POOL_THREAD:
+                event.clear();
+                event.inUse = false;
+                break;
+            case LogEvent.POOL_RING:
+                event.clear();
+                RingBuffer<LogEvent> free = freeEvents;
+                if(free != null){
+                    free.offer(event);
+                }
+                break;
+            default:
+                break;
         }
+    }
 
+    /**
+     * 异步模式下交给后台线程,否则直接输出
+     * @param event
+     * @param config
+     */
+    private void dispatch(LogEvent event, LogConfig config) {
+        AsyncDispatcher<LogEvent> dispatcher = getDispatcher(config);
+        if(dispatcher != null && dispatcher.dispatch(event)){
+            // 由后台线程输出后回收
+            return;
+        }
+        try {
+            print(event, config);
+        } finally {
+            recycle(event);
+        }
     }
 
     /**
-     * 绘制分割线
-     * @param logType
-     * @param tag
+     * 使用采集时的配置格式化并输出一条日志,没有时使用当前配置
+     * @param event
      */
-    private void logDivdier(int logType, String tag) {
-        logChunk(logType,tag,MIDDLE_BORDER);
+    void print(LogEvent event) {
+        print(event, event.config != null ? event.config : settings.getConfig());
     }
 
     /**
-     * 打印输出内容
-     * @param priority
-     * @param tag
-     * @param message
+     * 格式化并输出一条日志,异步模式下在后台线程中调用
+     * @param event
+     * @param config
      */
-    private void logContent(int priority, String tag, String message) {
-        String[] lines = message.split(System.getProperty("line.separator"));
-        for (String line : lines){
-            logChunk(priority,tag,line);
+    private void print(LogEvent event, LogConfig config) {
+        LogMetrics metrics = LogMetrics.ENABLED ? config.getMetrics() : null;
+        boolean timed = metrics != null && event.timed;
+        long start = timed ? System.nanoTime() : 0;
+        long writeNanos = 0;
+        String formattedTag = formatTag(config.getTag(), event.tag);
+        BinaryLogWriter binaryWriter = config.getBinaryWriter();
+        if(binaryWriter != null){
+            binaryWriter.write(event,formattedTag,config.isShowThreadInfo(),config.getMethodOffset(),config.getThrowableRenderer());
+            if(timed){
+                long now = System.nanoTime();
+                writeNanos = now - start;
+                start = now;
+            }
+            if(!config.isTextOutput()){
+                if(timed){
+                    metrics.latency(LogMetrics.STAGE_WRITE, writeNanos);
+                }
+                return;
+            }
+        }
+        int priority = event.priority;
+        Throwable throwable = event.throwable;
+        // 日志上下文作为字段输出,在字段之前
+        LogFields fields = LogFields.merge(event.context, event.fields);
+        LogAdapter logAdapter = config.getLogAdapter(event.tag);
+        if(logAdapter instanceof StructuredLogAdapter){
+            // 字段原样交给adapter,不绘制边框
+            ((StructuredLogAdapter) logAdapter).writeStructured(priority, formattedTag, event.timestamp, event.threadName,
+                    createMessage(event, config), throwable, fields != null ? fields : LogFields.EMPTY);
+            if(timed){
+                metrics.latency(LogMetrics.STAGE_WRITE, writeNanos + System.nanoTime() - start);
+            }
+            return;
+        }
+        // 一条日志的所有行收集好后只调用一次adapter,tag也只格式化一次
+        LineBuffer buffer = obtainBuffer();
+        try {
+            // 消息格式化到复用的缓冲区中,没有参数时直接使用模板
+            CharSequence message = MessageFormatter.formatTo(event, config.isStringFormat(), buffer.message);
+            if(fields != null && fields.size() > 0){
+                message = appendFields(message, fields, buffer.message);
+            }
+            // 异常直接格式化到复用的缓冲区中,和消息一起交给拆分器,不生成中间字符串
+            CharSequence content = message;
+            if(throwable != null){
+                StringBuilder trace = buffer.trace;
+                if(message != null){
+                    trace.append(message).append(": ");
+                }
+                config.getThrowableRenderer().render(throwable, trace);
+                content = trace;
+            }
+            if(content == null){
+                content = "No message/exception is set";
+            }
+            if(Helper.isEmpty(content)){
+                content = "Empty/null log message";
+            }
+            config.getLayout().layout(event, formattedTag, content, config, buffer, metrics);
+            if(timed){
+                long now = System.nanoTime();
+                metrics.latency(LogMetrics.STAGE_FORMAT, now - start);
+                start = now;
+            }
+            config.getBatchAdapter(event.tag).writeEvent(priority,formattedTag,buffer.lines);
+            if(timed){
+                metrics.latency(LogMetrics.STAGE_WRITE, writeNanos + System.nanoTime() - start);
+            }
+        } finally {
+            buffer.release();
         }
     }
 
     /**
-     * 绘制下边界
-     * @param priority
-     * @param tag
+     * 获取当前线程复用的缓冲区
+     * adapter中又打印日志时缓冲区正在使用,这时创建新的缓冲区
+     * @return
      */
-    private void logBottomBorder(int priority, String tag) {
-        logChunk(priority,tag,BOTTOM_BORDER);
+    private LineBuffer obtainBuffer() {
+        LineBuffer buffer = localBuffer.get();
+        if(buffer.inUse){
+            buffer = new LineBuffer();
+        }
+        buffer.inUse = true;
+        return buffer;
     }
 
     /**
-     * 使用android的log日志工具输出
-     * @param logType
-     * @param tag
-     * @param chunk
-     */
-    private void logChunk(int logType, String tag, String chunk) {
-        String fortag = formatTag(tag);
-        switch (logType){
-            case ERROR :
-                // 获取Android的log输出工具
-                settings.getLogAdapter().e(fortag,chunk);
-                break;
-            case INFO  :
-                settings.getLogAdapter().i(fortag,chunk);
-                break;
-            case WARN  :
-                settings.getLogAdapter().w(fortag,chunk);
-                break;
-            case ASSERT:
-                settings.getLogAdapter().wtf(fortag,chunk);
-                break;
-            case VERBOSE :
-                settings.getLogAdapter().v(fortag,chunk);
-                break;
-            case DEBUG :
-                break;
-            default:
-                settings.getLogAdapter().d(fortag,chunk);
-                break;
+     * 获取异步分发器,没有开启异步模式时返回null
+     * 关闭异步模式,或者缓冲区大小和策略变化时,结束原来的分发器(输出剩余的日志),需要时按新的配置创建
+     * @return
+     */
+    private AsyncDispatcher<LogEvent> getDispatcher(LogConfig config) {
+        AsyncDispatcher<LogEvent> result = dispatcher;
+        if(config.isAsync() ? result != null && result.matches(config.getBufferSize(), config.getOverflowPolicy()) : result == null){
+            return result;
+        }
+        AsyncDispatcher<LogEvent> retired;
+        synchronized (this){
+            retired = dispatcher;
+            if(!config.isAsync()){
+                dispatcher = null;
+                result = null;
+            }else if(retired != null && retired.matches(config.getBufferSize(), config.getOverflowPolicy())){
+                return retired;
+            }else{
+                result = new AsyncDispatcher<>("DZLOG-async", new AsyncDispatcher.Handler<LogEvent>() {
+                    @Override
+                    public void handle(LogEvent event) {
+                        try {
+                            print(event);
+                        } finally {
+                            recycle(event);
+                        }
+                    }
+                }, config.getBufferSize(), config.getOverflowPolicy());
+                freeEvents = new RingBuffer<>(config.getBufferSize());
+                dispatcher = result;
+            }
+        }
+        // 在锁外等待,原来的后台线程输出时可能再打印日志
+        if(retired != null){
+            retired.shutdown();
+        }
+        return result;
+    }
+
+    @Override
+    public void flush() {
+        // 还没有到汇总时间的丢弃数量也一起输出
+        LogConfig config = settings.getConfig();
+        RateLimiter rateLimiter = config.getRateLimiter();
+        if(rateLimiter != null){
+            String summary = rateLimiter.pollSummary(System.nanoTime(), true);
+            if(summary != null){
+                logSummary(config, summary);
+            }
+        }
+        AsyncDispatcher<LogEvent> dispatcher = this.dispatcher;
+        if(dispatcher != null){
+            dispatcher.flush();
+        }
+        // 多个输出目标各自有后台线程,也需要等待;单独设置给tag的adapter同样处理
+        LogAdapter adapter = config.getLogAdapter();
+        flush(adapter);
+        for(LogAdapter tagAdapter : config.getTagAdapters().values()){
+            if(tagAdapter != adapter){
+                flush(tagAdapter);
+            }
         }
+    }
 
+    private static void flush(LogAdapter adapter){
+        if(adapter instanceof FanOutLogAdapter){
+            ((FanOutLogAdapter) adapter).flush();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        AsyncDispatcher<LogEvent> dispatcher = this.dispatcher;
+        if(dispatcher != null){
+            dispatcher.shutdown();
+        }
     }
 
     /**
-     * 格式化tag 格式: tag-自己定义tag
-     * @param tag
+     * 异步模式下因缓冲区满被丢弃的日志数
      * @return
      */
-    private String formatTag(String tag) {
-        if (!Helper.isEmpty(tag) && !Helper.equals(this.tag, tag)) {
-            return this.tag + "-" + tag;
+    public long getDroppedCount() {
+        AsyncDispatcher<LogEvent> dispatcher = this.dispatcher;
+        return dispatcher == null ? 0 : dispatcher.getDroppedCount();
+    }
+
+    /**
+     * 日志库自身的统计快照
+     * @return 没有设置settings.metrics()时返回null
+     */
+    public LogMetrics.Snapshot metrics() {
+        LogMetrics metrics = LogMetrics.ENABLED ? settings.getMetrics() : null;
+        return metrics == null ? null : metrics.snapshot(getDroppedCount());
+    }
+
+    public int getMethodCount(){
+        int result = settings.getMethodCount();
+        if(result < 0){
+            // 方法数量无法预期
+            throw new IllegalArgumentException("methodCount cannot be negative");
         }
-        return this.tag;
+        return result;
+    }
+
+    /**
+     * 获取当前类在栈中的指针
+     * @param trace
+     * @return
+     */
+    public int getStackOffset(StackTraceElement[] trace){
+        int index = CallerLocator.callerIndex(trace);
+        return index < 0 ? -1 : index - 1;
+    }
+
+    /**
+     * 格式化tag 格式: tag-自己定义tag,结果缓存在Tag中,printer的tag不变时不再拼接
+     * @param baseTag printer的tag
+     * @param tag     为null时使用printer的tag
+     * @return
+     */
+    private String formatTag(String baseTag, Tag tag) {
+        return tag == null ? baseTag : tag.format(baseTag);
     }
 
     /**
@@ -465,11 +851,6 @@ public final class LoggerPrinter implements Printer {
      * @return
      */
     public String getTag() {
-        String tag = localTag.get();
-        if(tag != null){
-            localTag.remove();
-            return tag;
-        }
-        return this.tag;
+        return settings.getConfig().getTag();
     }
 }
@@ -0,0 +1,216 @@
+package com.ldzspace.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 写入内存映射文件的adapter,用于在设备上持久化日志
+ * 日志按固定大小的分段文件保存: dzlog-00000001.log, dzlog-00000002.log ...
+ * 写满或者超过滚动时间后创建新的分段,只保留最近的maxSegments个分段;
+ * 写入的是映射内存,不需要每行一次write()系统调用,进程被杀死后已写入的数据仍由系统写回文件
+ * 每行的格式: 10-18 12:00:00.000 D/DZLOG: 内容
+ * 文件中未写入的部分都是0,重新打开时通过第一个0字节找到写入位置,所以写入的内容中的'\0'会被替换成空格
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class MappedFileLogAdapter implements BatchLogAdapter {
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_SEGMENTS = 8;
+
+    static final String SUFFIX = ".log";
+
+    private static final char[] PRIORITIES = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+
+    private final MappedSegments segments;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MM-dd HH:mm:ss.", Locale.US);
+    private final Date date = new Date();
+    private long cachedSecond = -1;
+    private String cachedPrefix;
+    private final StringBuilder prefix = new StringBuilder(64);   // 每条日志的前缀,写入在锁内完成
+
+    private byte[] scratch = new byte[1024];          // 编码缓冲区,写入映射内存时整块拷贝
+
+    private boolean closed;
+
+    public MappedFileLogAdapter(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, 0, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * @param directory          日志目录
+     * @param segmentSize        每个分段的大小(字节)
+     * @param rollIntervalMillis 分段的最长时间,超过后滚动到新的分段,0表示只按大小滚动
+     * @param maxSegments        最多保留的分段数
+     * @throws IOException
+     */
+    public MappedFileLogAdapter(File directory, int segmentSize, long rollIntervalMillis, int maxSegments) throws IOException {
+        segments = new MappedSegments(directory, SUFFIX, segmentSize, rollIntervalMillis, maxSegments);
+        segments.openLast();
+    }
+
+    static File segmentFile(File directory, int index) {
+        return MappedSegments.segmentFile(directory, index, SUFFIX);
+    }
+
+    /**
+     * 当前分段和之前保留的分段,从旧到新排列
+     * @return
+     */
+    public File[] getSegments() {
+        return segments.list();
+    }
+
+    /**
+     * 滚动后把关闭的分段压缩成归档,节省存储空间和上传流量,用LogArchive读取
+     * @param archiver 为null时不再压缩
+     */
+    public synchronized void archiveTo(LogArchiver archiver) {
+        if (!closed) {
+            segments.archiveTo(archiver);
+        }
+    }
+
+    @Override
+    public synchronized void writeEvent(int priority, String tag, List<CharSequence> lines) {
+        if (closed) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (segments.isExpired(now)) {
+                segments.roll();
+            }
+            CharSequence prefix = linePrefix(now, priority, tag);
+            // 前缀每条日志只编码一次,放在scratch的开头
+            ensureScratch(prefix.length() * 3);
+            int prefixLength = Utf8.encode(prefix, 0, prefix.length(), scratch, 0, Integer.MAX_VALUE);
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                writeLine(prefixLength, lines.get(i));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 每行的前缀: 时间 级别/tag:
+     * 时间精确到秒的部分按秒缓存,结果写入复用的StringBuilder
+     */
+    private CharSequence linePrefix(long now, int priority, String tag) {
+        long second = now / 1000;
+        if (second != cachedSecond) {
+            date.setTime(now);
+            cachedPrefix = dateFormat.format(date);
+            cachedSecond = second;
+        }
+        int millis = (int) (now % 1000);
+        char level = priority >= 0 && priority < PRIORITIES.length ? PRIORITIES[priority] : '?';
+        StringBuilder builder = prefix;
+        builder.setLength(0);
+        builder.append(cachedPrefix)
+                .append((char) ('0' + millis / 100))
+                .append((char) ('0' + millis / 10 % 10))
+                .append((char) ('0' + millis % 10))
+                .append(' ')
+                .append(level)
+                .append('/')
+                .append(tag)
+                .append(": ");
+        return builder;
+    }
+
+    /**
+     * 写入一行: 前缀已经编码在scratch的开头,行内容编码在前缀之后,然后整体写入映射内存
+     * @param prefixLength 前缀的字节数
+     * @param line
+     * @throws IOException
+     */
+    private void writeLine(int prefixLength, CharSequence line) throws IOException {
+        // 单行最多占满整个分段
+        int maxLineBytes = segments.getSegmentSize() - prefixLength - 1;
+        ensureScratch(prefixLength + Math.min(line.length() * 3, maxLineBytes) + 1);
+        byte[] scratch = this.scratch;
+        int end = Utf8.encode(line, 0, line.length(), scratch, prefixLength, maxLineBytes);
+        // 0字节用来标记文件中未写入的部分,内容中的'\0'替换成空格
+        for (int i = prefixLength; i < end; i++) {
+            if (scratch[i] == 0) {
+                scratch[i] = ' ';
+            }
+        }
+        scratch[end++] = '\n';
+        if (end > segments.remaining()) {
+            segments.roll();
+        }
+        segments.put(scratch, 0, end);
+    }
+
+    private void ensureScratch(int size) {
+        if (scratch.length < size) {
+            byte[] grown = new byte[Math.max(size, scratch.length * 2)];
+            System.arraycopy(scratch, 0, grown, 0, scratch.length);
+            scratch = grown;
+        }
+    }
+
+    /**
+     * 把映射内存中的数据写回磁盘,防止断电丢失;进程被杀死不需要调用
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            segments.force();
+        }
+    }
+
+    /**
+     * 关闭adapter,截断当前分段未使用的部分
+     * @throws IOException
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.close();
+    }
+
+    private void writeMessage(int priority, String tag, String message) {
+        writeEvent(priority, tag, Collections.<CharSequence>singletonList(message));
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        writeMessage(Logger.DEBUG, tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        writeMessage(Logger.ERROR, tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        writeMessage(Logger.VERBOSE, tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        writeMessage(Logger.INFO, tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        writeMessage(Logger.WARN, tag, message);
+    }
+
+    @Override
+    public void wtf(String tag, String message) {
+        writeMessage(Logger.ASSERT, tag, message);
+    }
+}
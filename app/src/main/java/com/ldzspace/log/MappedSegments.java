@@ -0,0 +1,282 @@
+package com.ldzspace.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 按固定大小滚动的内存映射分段文件: dzlog-00000001.log, dzlog-00000002.log ...
+ * 只负责分段的创建、映射、滚动和清理,写入什么内容由使用方决定;
+ * 不是线程安全的,由使用方加锁
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class MappedSegments {
+    static final String PREFIX = "dzlog-";
+
+    private final File directory;
+    private final String suffix;
+    private final int segmentSize;
+    private final long rollIntervalMillis;
+    private final int maxSegments;
+
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+    private int segmentIndex;
+    private long segmentStartMillis;
+    private LogArchiver archiver;       // 关闭的分段交给它压缩,为null时不压缩
+
+    /**
+     * @param directory          日志目录
+     * @param suffix             分段文件的后缀
+     * @param segmentSize        每个分段的大小(字节)
+     * @param rollIntervalMillis 分段的最长时间,超过后滚动到新的分段,0表示只按大小滚动
+     * @param maxSegments        最多保留的分段数
+     * @throws IOException
+     */
+    MappedSegments(File directory, String suffix, int segmentSize, long rollIntervalMillis, int maxSegments) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024");
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be at least 1");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create directory " + directory);
+        }
+        this.directory = directory;
+        this.suffix = suffix;
+        this.segmentSize = segmentSize;
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * 打开最后一个分段继续写入,没有分段时创建新的分段
+     * 分段中未写入的部分都是0,通过第一个0字节找到写入位置,所以写入的内容中不能包含0
+     * @throws IOException
+     */
+    void openLast() throws IOException {
+        int[] indexes = segmentIndexes(directory, suffix);
+        if (indexes.length == 0) {
+            openSegment(1);
+            return;
+        }
+        int last = indexes[indexes.length - 1];
+        File segment = segmentFile(directory, last, suffix);
+        if (segment.length() != segmentSize) {
+            // 已经截断的旧分段或者大小配置变了,从新的分段开始写
+            openSegment(last + 1);
+            return;
+        }
+        file = new RandomAccessFile(segment, "rw");
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentIndex = last;
+        segmentStartMillis = segment.lastModified();
+        buffer.position(findEnd(buffer));
+    }
+
+    /**
+     * 总是创建新的分段开始写入,用于内容中可能包含0的格式
+     * @throws IOException
+     */
+    void openNext() throws IOException {
+        int[] indexes = segmentIndexes(directory, suffix);
+        openSegment(indexes.length == 0 ? 1 : indexes[indexes.length - 1] + 1);
+    }
+
+    /**
+     * 找到第一个0字节的位置,数据区中不包含0,可以二分查找
+     * @param buffer
+     * @return
+     */
+    static int findEnd(MappedByteBuffer buffer) {
+        int low = 0;
+        int high = buffer.capacity();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.get(middle) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void openSegment(int index) throws IOException {
+        File segment = segmentFile(directory, index, suffix);
+        file = new RandomAccessFile(segment, "rw");
+        file.setLength(segmentSize);
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentIndex = index;
+        segmentStartMillis = System.currentTimeMillis();
+        deleteOldSegments();
+    }
+
+    /**
+     * 当前分段是否已经超过滚动时间,空的分段不需要滚动
+     * @param now
+     * @return
+     */
+    boolean isExpired(long now) {
+        return rollIntervalMillis > 0 && now - segmentStartMillis >= rollIntervalMillis && buffer.position() > 0;
+    }
+
+    /**
+     * 关闭当前分段并截断未使用的部分,然后打开新的分段
+     * @throws IOException
+     */
+    void roll() throws IOException {
+        File closed = current();
+        closeSegment();
+        if (archiver != null) {
+            archiver.submit(closed);
+        }
+        openSegment(segmentIndex + 1);
+    }
+
+    /**
+     * 之后滚动时关闭的分段交给archiver压缩,目录中已经关闭的分段(上次运行留下的)立即提交
+     * @param archiver 为null时不再压缩
+     */
+    void archiveTo(LogArchiver archiver) {
+        this.archiver = archiver;
+        if (archiver == null) {
+            return;
+        }
+        File current = current();
+        for (File segment : list()) {
+            if (!segment.equals(current)) {
+                archiver.submit(segment);
+            }
+        }
+    }
+
+    /**
+     * 正在写入的分段文件
+     */
+    File current() {
+        return segmentFile(directory, segmentIndex, suffix);
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    int remaining() {
+        return buffer.remaining();
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * 写入当前分段,调用前需要确认remaining()足够
+     */
+    void put(byte[] source, int offset, int length) {
+        buffer.put(source, offset, length);
+    }
+
+    /**
+     * 在指定位置写入一个字节,不移动写入位置
+     */
+    void put(int position, byte value) {
+        buffer.put(position, value);
+    }
+
+    /**
+     * 跳过length个字节,跳过的部分之后用put(int, byte)补写
+     */
+    void skip(int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * 把映射内存中的数据写回磁盘
+     */
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        closeSegment();
+    }
+
+    private void closeSegment() throws IOException {
+        int length = buffer.position();
+        buffer.force();
+        buffer = null;
+        try {
+            file.getChannel().truncate(length);
+        } catch (IOException ignored) {
+            // 部分系统不允许截断仍在映射中的文件,保留原大小,重新打开时按第一个0字节定位
+        } finally {
+            file.close();
+            file = null;
+        }
+    }
+
+    private void deleteOldSegments() {
+        int[] indexes = segmentIndexes(directory, suffix);
+        for (int i = 0; i < indexes.length - maxSegments; i++) {
+            //noinspection ResultOfMethodCallIgnored
+            segmentFile(directory, indexes[i], suffix).delete();
+        }
+    }
+
+    /**
+     * 当前分段和之前保留的分段,从旧到新排列
+     * @return
+     */
+    File[] list() {
+        return list(directory, suffix);
+    }
+
+    static File[] list(File directory, String suffix) {
+        int[] indexes = segmentIndexes(directory, suffix);
+        File[] files = new File[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            files[i] = segmentFile(directory, indexes[i], suffix);
+        }
+        return files;
+    }
+
+    /**
+     * 目录中已有的分段序号,从小到大排列
+     * @param directory
+     * @param suffix
+     * @return
+     */
+    static int[] segmentIndexes(File directory, String suffix) {
+        String[] names = directory.list();
+        if (names == null) {
+            return new int[0];
+        }
+        int[] indexes = new int[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(PREFIX) && name.endsWith(suffix)) {
+                try {
+                    int index = Integer.parseInt(name.substring(PREFIX.length(), name.length() - suffix.length()));
+                    indexes[count++] = index;
+                } catch (NumberFormatException ignored) {
+                    // 不是日志分段
+                }
+            }
+        }
+        indexes = Arrays.copyOf(indexes, count);
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    static File segmentFile(File directory, int index, String suffix) {
+        return new File(directory, String.format(Locale.US, "%s%08d%s", PREFIX, index, suffix));
+    }
+}
@@ -0,0 +1,259 @@
+package com.ldzspace.log;
+
+import java.util.Arrays;
+
+/**
+ * 日志消息格式化,代替String.format
+ * 支持 {} 和 %s %d %x %X %% %n,解析后的模板按模板字符串的引用缓存,
+ * 格式化时直接写入线程复用的StringBuilder,数字参数直接写入不生成中间的字符串;
+ * 遇到不支持的格式(如 %.2f, %5d)或参数类型不匹配时回退到String.format
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class MessageFormatter {
+    /**
+     * 模板缓存大小,必须是2的幂
+     */
+    private static final int CACHE_SIZE = 256;
+    /**
+     * 复用的StringBuilder超过该容量后丢弃,防止一条大日志长期占用内存
+     */
+    private static final int MAX_BUILDER_CAPACITY = 16 * 1024;
+
+    private static final char BRACES = '{';
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /**
+     * 按identityHashCode直接映射的模板缓存,冲突时直接覆盖;
+     * Template的字段都是final的,不加锁读写也是安全的
+     */
+    private static final Template[] CACHE = new Template[CACHE_SIZE];
+
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    private MessageFormatter() {
+    }
+
+    /**
+     * 格式化日志事件中的消息
+     * @param event
+     * @param stringFormat 是否使用String.format兼容模式
+     * @return
+     */
+    static String format(LogEvent event, boolean stringFormat) {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        CharSequence result = formatTo(event, stringFormat, builder);
+        if (result != builder) {
+            return (String) result;
+        }
+        String message = builder.toString();
+        if (builder.capacity() > MAX_BUILDER_CAPACITY) {
+            BUILDER.remove();
+        }
+        return message;
+    }
+
+    /**
+     * 把消息格式化到调用方复用的缓冲区,不生成字符串
+     * @param event
+     * @param stringFormat 是否使用String.format兼容模式
+     * @param out          空的缓冲区
+     * @return 没有参数时是模板本身,回退到String.format时是新的字符串,否则是out
+     */
+    static CharSequence formatTo(LogEvent event, boolean stringFormat, StringBuilder out) {
+        String pattern = event.message;
+        if (event.args == null || pattern == null) {
+            return pattern;
+        }
+        if (stringFormat) {
+            return String.format(pattern, event.args);
+        }
+        Template template = template(pattern);
+        if (!template.supported) {
+            return String.format(pattern, event.args);
+        }
+        if (!template.appendTo(out, event.args)) {
+            out.setLength(0);
+            return String.format(pattern, event.args);
+        }
+        return out;
+    }
+
+    /**
+     * 获取解析后的模板,优先从缓存中获取
+     * @param pattern
+     * @return
+     */
+    static Template template(String pattern) {
+        int index = System.identityHashCode(pattern) & (CACHE_SIZE - 1);
+        Template template = CACHE[index];
+        if (template != null && template.pattern == pattern) {
+            return template;
+        }
+        template = new Template(pattern);
+        CACHE[index] = template;
+        return template;
+    }
+
+    /**
+     * 解析后的模板: literal[0] spec[0] literal[1] spec[1] ... literal[n]
+     */
+    static final class Template {
+        final String pattern;
+        final boolean supported;
+        /**
+         * 每段文本在模板中的起止位置,比占位符多一段
+         */
+        private final int[] starts;
+        private final int[] ends;
+        /**
+         * 占位符类型: { s d x X % n
+         */
+        private final char[] specs;
+
+        Template(String pattern) {
+            this.pattern = pattern;
+            int length = pattern.length();
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(i);
+                if (c == '%' || (c == '{' && i + 1 < length && pattern.charAt(i + 1) == '}')) {
+                    count++;
+                    i++;
+                }
+            }
+            int[] starts = new int[count + 1];
+            int[] ends = new int[count + 1];
+            char[] specs = new char[count];
+            boolean supported = true;
+            int spec = 0;
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(i);
+                char type;
+                if (c == '{' && i + 1 < length && pattern.charAt(i + 1) == '}') {
+                    type = BRACES;
+                } else if (c == '%') {
+                    type = i + 1 < length ? pattern.charAt(i + 1) : 0;
+                    if (type != 's' && type != 'd' && type != 'x' && type != 'X' && type != '%' && type != 'n') {
+                        supported = false;
+                    }
+                } else {
+                    continue;
+                }
+                starts[spec] = start;
+                ends[spec] = i;
+                specs[spec++] = type;
+                start = i + 2;
+                i++;
+            }
+            starts[spec] = Math.min(start, length);
+            ends[spec] = length;
+            this.starts = starts;
+            this.ends = ends;
+            this.specs = specs;
+            this.supported = supported;
+        }
+
+        /**
+         * 把格式化结果写入builder
+         * @param builder
+         * @param args
+         * @return 参数类型和占位符不匹配时返回false,由调用方回退到String.format
+         */
+        boolean appendTo(StringBuilder builder, Object[] args) {
+            int arg = 0;
+            for (int i = 0; i < specs.length; i++) {
+                builder.append(pattern, starts[i], ends[i]);
+                char spec = specs[i];
+                if (spec == '%') {
+                    builder.append('%');
+                } else if (spec == 'n') {
+                    builder.append(LINE_SEPARATOR);
+                } else if (arg >= args.length) {
+                    // {} 缺少参数时原样输出,%s 等交给String.format抛出异常
+                    if (spec != BRACES) {
+                        return false;
+                    }
+                    builder.append("{}");
+                } else if (!appendObject(builder, spec, args[arg++])) {
+                    return false;
+                }
+            }
+            builder.append(pattern, starts[specs.length], ends[specs.length]);
+            return true;
+        }
+
+        private static boolean appendObject(StringBuilder builder, char spec, Object value) {
+            if (spec == BRACES || spec == 's') {
+                if (spec == BRACES && value instanceof Object[]) {
+                    // 只有 {} 展开数组,%s 和String.format一样输出数组本身
+                    builder.append(Arrays.deepToString((Object[]) value));
+                } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                    // 和toString()的结果相同,不生成中间的字符串
+                    builder.append(((Number) value).longValue());
+                } else if (value instanceof Double) {
+                    builder.append(((Double) value).doubleValue());
+                } else if (value instanceof Float) {
+                    builder.append(((Float) value).floatValue());
+                } else {
+                    builder.append(value);
+                }
+                return true;
+            }
+            // %d %x 只处理整数类型,其他类型交给String.format
+            if (value instanceof Integer) {
+                return appendInteger(builder, spec, (Integer) value, 32);
+            }
+            if (value instanceof Long) {
+                return appendInteger(builder, spec, (Long) value, 64);
+            }
+            if (value instanceof Short) {
+                return appendInteger(builder, spec, (Short) value, 16);
+            }
+            if (value instanceof Byte) {
+                return appendInteger(builder, spec, (Byte) value, 8);
+            }
+            if (value == null) {
+                builder.append("null");
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean appendInteger(StringBuilder builder, char spec, long value, int bits) {
+            if (spec == 'd') {
+                builder.append(value);
+            } else {
+                appendHex(builder, value, bits, spec == 'X');
+            }
+            return true;
+        }
+
+        /**
+         * 和String.format一样,负数按对应位数的补码输出
+         */
+        private static void appendHex(StringBuilder builder, long value, int bits, boolean upper) {
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            char[] digits = upper ? HEX_UPPER : HEX_LOWER;
+            int shift = 60;
+            while (shift > 0 && ((value >>> shift) & 0xf) == 0) {
+                shift -= 4;
+            }
+            for (; shift >= 0; shift -= 4) {
+                builder.append(digits[(int) ((value >>> shift) & 0xf)]);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ldzspace.log;
+
+/**
+ * 异步模式下环形缓冲区写满时的处理策略
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public enum OverflowPolicy {
+    /**
+     * 阻塞调用线程,直到后台线程腾出空间
+     */
+    BLOCK,
+    /**
+     * 丢弃缓冲区中最旧的日志,写入新的日志
+     */
+    DROP_OLDEST,
+    /**
+     * 丢弃当前要写入的日志
+     */
+    DROP_NEWEST
+}
@@ -0,0 +1,308 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * 按模板输出,每行消息一行,不绘制边框,适合大量日志或者写入文件
+ * 模板在创建时编译成步骤类型和文本数组,打印时按类型依次执行,不再解析模板,结果写入复用的缓冲区
+ * 支持的占位符:
+ *     %time   时间 HH:mm:ss.SSS,使用创建时的默认时区
+ *     %level  级别 V D I W E A
+ *     %tag    格式化后的tag
+ *     %thread 线程名
+ *     %caller 调用位置 类名.方法名(文件名:行号),methodCount为0时不获取栈信息,输出为空
+ *     %msg    消息,多行消息的每一行都带上模板的其他部分,模板中最多一个
+ *     %%      百分号
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class PatternLayout extends Layout {
+    /**
+     * 单行格式: 12:00:00.000 D/DZLOG [main] MainActivity.onCreate(MainActivity.java:20): 消息
+     */
+    public static final String FLAT = "%time %level/%tag [%thread] %caller: %msg";
+
+    private static final char[] LEVELS = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+    /**
+     * 模板其他部分太长时,每行消息至少保留的字节数
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    /**
+     * 步骤类型,用switch执行,避免每个占位符一次虚方法调用
+     */
+    private static final int LITERAL = 0;
+    private static final int TIME = 1;
+    private static final int LEVEL = 2;
+    private static final int TAG = 3;
+    private static final int THREAD = 4;
+    private static final int CALLER = 5;
+
+    private final String pattern;
+    private final int[] prefix;         // %msg之前的步骤
+    private final String[] prefixText;  // LITERAL步骤的文本
+    private final int[] suffix;         // %msg之后的步骤
+    private final String[] suffixText;
+    private final boolean hasMessage;
+    private final TimeCache time;       // 没有%time时为null
+
+    /**
+     * @param pattern 模板
+     * @throws IllegalArgumentException 未知的占位符或者有多个%msg
+     */
+    public PatternLayout(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("pattern is null");
+        }
+        this.pattern = pattern;
+        List<Integer> prefix = new ArrayList<>();
+        List<String> prefixText = new ArrayList<>();
+        List<Integer> suffix = new ArrayList<>();
+        List<String> suffixText = new ArrayList<>();
+        List<Integer> steps = prefix;
+        List<String> texts = prefixText;
+        boolean hasMessage = false;
+        boolean hasTime = false;
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i < pattern.length() && pattern.charAt(i) == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < pattern.length() && Character.isLetter(pattern.charAt(i))) {
+                i++;
+            }
+            String name = pattern.substring(start, i);
+            int type = type(name, pattern);
+            if (literal.length() > 0) {
+                steps.add(LITERAL);
+                texts.add(literal.toString());
+                literal.setLength(0);
+            }
+            if (type < 0) {
+                if (hasMessage) {
+                    throw new IllegalArgumentException("pattern may contain only one %msg: " + pattern);
+                }
+                hasMessage = true;
+                steps = suffix;
+                texts = suffixText;
+            } else {
+                steps.add(type);
+                texts.add(null);
+                hasTime |= type == TIME;
+            }
+        }
+        if (literal.length() > 0) {
+            steps.add(LITERAL);
+            texts.add(literal.toString());
+        }
+        this.prefix = toArray(prefix);
+        this.prefixText = prefixText.toArray(new String[prefixText.size()]);
+        this.suffix = toArray(suffix);
+        this.suffixText = suffixText.toArray(new String[suffixText.size()]);
+        this.hasMessage = hasMessage;
+        this.time = hasTime ? new TimeCache(TimeZone.getDefault()) : null;
+    }
+
+    /**
+     * @return 步骤类型,%msg返回-1
+     */
+    private static int type(String name, String pattern) {
+        switch (name) {
+            case "msg":
+                return -1;
+            case "time":
+                return TIME;
+            case "level":
+                return LEVEL;
+            case "tag":
+                return TAG;
+            case "thread":
+                return THREAD;
+            case "caller":
+                return CALLER;
+            default:
+                throw new IllegalArgumentException("unknown placeholder %" + name + " in " + pattern);
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    void layout(LogEvent event, String tag, CharSequence content, LogConfig config, LineBuffer out, LogMetrics metrics) {
+        StringBuilder text = out.text;
+        // 模板的其他部分每条日志只执行一次,后缀先写在前面,
+        // 第一行直接接在前缀后面,只有多行消息的后续行才拷贝前缀
+        int suffixStart = text.length();
+        append(suffix, suffixText, event, tag, config, text);
+        int prefixStart = text.length();
+        append(prefix, prefixText, event, tag, config, text);
+        int prefixEnd = text.length();
+        List<CharSequence> lines = out.lines;
+        if (!hasMessage) {
+            lines.add(out.slice(text, prefixStart, prefixEnd));
+            if (metrics != null) {
+                metrics.output(1, 0);
+            }
+            return;
+        }
+        // 每个字符最多3个UTF-8字节,按上限估算模板部分的长度,不逐个字符计算
+        int maxBytes = CHUNK_SIZE - 3 * (prefixEnd - suffixStart);
+        LineChunker chunker = out.chunker;
+        chunker.reset(content, Math.max(MIN_CHUNK_SIZE, maxBytes));
+        int chunks = 0;
+        long bytes = 0;
+        while (chunker.next()) {
+            int start = prefixStart;
+            if (chunks > 0) {
+                start = text.length();
+                text.append(text, prefixStart, prefixEnd);
+            }
+            if (chunker.lineStart() == 0 && chunker.lineEnd() == content.length()) {
+                // 单行消息整体追加,String和StringBuilder是数组拷贝
+                text.append(content);
+            } else {
+                text.append(content, chunker.lineStart(), chunker.lineEnd());
+            }
+            text.append(text, suffixStart, prefixStart);
+            lines.add(out.slice(text, start, text.length()));
+            chunks++;
+            if (metrics != null) {
+                bytes += chunker.lineBytes();
+            }
+        }
+        if (metrics != null) {
+            metrics.output(chunks, bytes);
+        }
+    }
+
+    private void append(int[] steps, String[] texts, LogEvent event, String tag, LogConfig config, StringBuilder out) {
+        for (int i = 0; i < steps.length; i++) {
+            switch (steps[i]) {
+                case LITERAL:
+                    out.append(texts[i]);
+                    break;
+                case TIME:
+                    time.append(event.timestamp, out);
+                    break;
+                case LEVEL:
+                    int priority = event.priority;
+                    out.append(priority >= 0 && priority < LEVELS.length ? LEVELS[priority] : '?');
+                    break;
+                case TAG:
+                    out.append(tag);
+                    break;
+                case THREAD:
+                    out.append(event.threadName);
+                    break;
+                case CALLER:
+                    appendCaller(event.stackTrace, config.getMethodOffset(), out);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 调用位置 类名.方法名(文件名:行号)
+     */
+    private static void appendCaller(StackTraceElement[] stackTrace, int methodOffset, StringBuilder out) {
+        int caller = stackTrace == null ? -1 : CallerLocator.callerIndex(stackTrace);
+        if (caller < 0 || caller + methodOffset >= stackTrace.length) {
+            return;
+        }
+        StackTraceElement element = stackTrace[caller + methodOffset];
+        String className = element.getClassName();
+        out.append(className, className.lastIndexOf('.') + 1, className.length())
+                .append('.').append(element.getMethodName())
+                .append('(').append(element.getFileName()).append(':').append(element.getLineNumber()).append(')');
+    }
+
+    @Override
+    public String toString() {
+        return "PatternLayout(" + pattern + ")";
+    }
+
+
+    /**
+     * 直接计算时分秒,不使用SimpleDateFormat,同一秒内的日志复用格式化好的"HH:mm:ss."
+     */
+    private static final class TimeCache {
+        private final TimeZone timeZone;
+        /**
+         * 最近一秒的缓存,对象不可变,多线程时只会多算几次
+         */
+        private volatile Second last = new Second(Long.MIN_VALUE, "");
+
+        TimeCache(TimeZone timeZone) {
+            this.timeZone = timeZone;
+        }
+
+        void append(long timestamp, StringBuilder out) {
+            long second = floorDiv(timestamp, 1000);
+            Second cached = last;
+            if (cached.second != second) {
+                cached = new Second(second, format(second * 1000));
+                last = cached;
+            }
+            int millis = (int) (timestamp - second * 1000);
+            out.append(cached.text)
+                    .append((char) ('0' + millis / 100))
+                    .append((char) ('0' + millis / 10 % 10))
+                    .append((char) ('0' + millis % 10));
+        }
+
+        private String format(long timestamp) {
+            long local = timestamp + timeZone.getOffset(timestamp);
+            int seconds = (int) (floorDiv(local, 1000) - floorDiv(local, 86400000L) * 86400);
+            char[] text = new char[9];
+            setDigits(text, 0, seconds / 3600);
+            text[2] = ':';
+            setDigits(text, 3, seconds / 60 % 60);
+            text[5] = ':';
+            setDigits(text, 6, seconds % 60);
+            text[8] = '.';
+            return new String(text);
+        }
+
+        private static void setDigits(char[] text, int offset, int value) {
+            text[offset] = (char) ('0' + value / 10);
+            text[offset + 1] = (char) ('0' + value % 10);
+        }
+
+        private static long floorDiv(long value, long divisor) {
+            long quotient = value / divisor;
+            return value % divisor < 0 ? quotient - 1 : quotient;
+        }
+
+        private static final class Second {
+            final long second;
+            final String text;
+
+            Second(long second, String text) {
+                this.second = second;
+                this.text = text;
+            }
+        }
+    }
+}
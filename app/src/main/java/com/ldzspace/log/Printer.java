@@ -1,7 +1,5 @@
 package com.ldzspace.log;
 
-import static android.R.attr.priority;
-
 /**
  * log日志的打印的接口
  * Created by liudazhi on 2016/12/18.
@@ -9,7 +7,14 @@ import static android.R.attr.priority;
 public interface Printer {
     Settings init(String tag);
     Settings getSettings();
+    Printer t(String tag);
     Printer t(String tag , int methodCount);
+    boolean isLoggable(int priority, String tag);
+    EventBuilder atVerbose();
+    EventBuilder atDebug();
+    EventBuilder atInfo();
+    EventBuilder atWarn();
+    EventBuilder atError();
     void log(int priority ,String tag, String message,Throwable throwable);
     void d(String message,Object... args);
     void d(Object object);
@@ -19,6 +24,16 @@ public interface Printer {
     void v(String message,Object... args);
     void w(String message,Object... args);
     void wtf(String message,Object... args);
+    /**
+     * 没有参数的消息,不创建可变参数的空数组
+     */
+    void v(String message);
+    void i(String message);
+    void w(String message);
+    void e(String message);
+    void wtf(String message);
     void json(String json);
     void xml(String xml);
+    void flush();
+    void shutdown();
 }
@@ -0,0 +1,288 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流和重复消息合并,在级别过滤之后,格式化消息和获取栈信息之前检查
+ * 每个调用位置(tag + 消息模板,模板通常是字符串常量)有一个令牌桶,超过速率的日志直接丢弃;
+ * 同一位置在dedupWindow内重复出现的相同消息(模板和参数都相同)只输出第一条,
+ * 之后输出不同的消息时先输出一行 "last message repeated N times";
+ * 丢弃的数量每隔summaryInterval汇总成一行,用tag "ratelimit"以WARN级别输出,
+ * 可以用settings.logLevel("ratelimit", LogLevel.NONE)关闭;
+ * 汇总时移除令牌已经回满的调用位置,调用位置超过上限时新的位置和同一个tag的其他位置共用一个令牌桶
+ * 计数都是原子变量,检查过程不加锁
+ * 用法:
+ *     Logger.init().rateLimit(new RateLimiter(10, 20));
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class RateLimiter {
+    public static final String SUMMARY_TAG = "ratelimit";
+
+    /**
+     * 调用位置的上限,防止拼接出来的消息无限增长,超过后新的位置按tag限流
+     */
+    static final int MAX_SITES = 1024;
+    /**
+     * tag的上限,超过后新的tag共用一个令牌桶
+     */
+    static final int MAX_TAGS = 256;
+    /**
+     * 汇总行最多列出的调用位置数
+     */
+    private static final int MAX_SUMMARY_SITES = 8;
+    private static final String NO_TEMPLATE = "";
+
+    private final long emissionInterval;    // 每个令牌的间隔,纳秒
+    private final long burstTolerance;      // 允许的突发,纳秒
+    private final long dedupWindow;
+    private final long summaryInterval;
+    private final boolean perCallSite;
+
+    /**
+     * tag -> 消息模板 -> 状态
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Site>> sites = new ConcurrentHashMap<>();
+    private final AtomicLong siteCount = new AtomicLong();
+    /**
+     * tag超过上限后共用的令牌桶
+     */
+    private final Site overflow;
+    private final AtomicLong nextSummary;
+
+    /**
+     * 每个调用位置每秒permitsPerSecond条,最多连续burst条,1秒内的重复消息合并,每10秒汇总一次
+     * @param permitsPerSecond
+     * @param burst
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, 1000, 10000, true);
+    }
+
+    /**
+     * @param permitsPerSecond      每个调用位置每秒允许的条数
+     * @param burst                 允许连续输出的条数
+     * @param dedupWindowMillis     合并重复消息的时间窗口,0表示不合并
+     * @param summaryIntervalMillis 汇总丢弃数量的间隔
+     * @param perCallSite           true时按tag+消息模板限流,false时同一个tag共用一个令牌桶
+     */
+    public RateLimiter(double permitsPerSecond, int burst, long dedupWindowMillis, long summaryIntervalMillis, boolean perCallSite) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        if (dedupWindowMillis < 0 || summaryIntervalMillis <= 0) {
+            throw new IllegalArgumentException("invalid dedup window or summary interval");
+        }
+        this.emissionInterval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstTolerance = emissionInterval * (burst - 1);
+        this.dedupWindow = TimeUnit.MILLISECONDS.toNanos(dedupWindowMillis);
+        this.summaryInterval = TimeUnit.MILLISECONDS.toNanos(summaryIntervalMillis);
+        this.perCallSite = perCallSite;
+        long now = System.nanoTime();
+        this.nextSummary = new AtomicLong(now + summaryInterval);
+        this.overflow = new Site(null, null, now);
+    }
+
+    /**
+     * @param tag     调用时的tag
+     * @param message 消息模板
+     * @param args
+     * @param now     System.nanoTime()
+     * @return 小于0表示丢弃;大于0表示输出,并且之前合并了这么多条重复消息
+     */
+    int acquire(String tag, String message, Object[] args, long now) {
+        Site site = site(tag, message, now);
+        Last last = site.last;
+        if (last != null && now - last.until < 0 && last.matches(message, args)) {
+            site.repeated.incrementAndGet();
+            return -1;
+        }
+        if (!tryAcquire(site, now)) {
+            site.suppressed.incrementAndGet();
+            return -1;
+        }
+        if (dedupWindow > 0) {
+            site.last = new Last(message, args, now + dedupWindow);
+        }
+        long repeated = site.repeated.getAndSet(0);
+        return (int) Math.min(repeated, Integer.MAX_VALUE);
+    }
+
+    private Site site(String tag, String message, long now) {
+        String tagKey = tag == null ? NO_TEMPLATE : tag;
+        ConcurrentHashMap<String, Site> templates = sites.get(tagKey);
+        if (templates == null) {
+            if (sites.size() >= MAX_TAGS) {
+                return overflow;
+            }
+            templates = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Site> existing = sites.putIfAbsent(tagKey, templates);
+            if (existing != null) {
+                templates = existing;
+            }
+        }
+        boolean perTemplate = perCallSite && message != null;
+        String key = perTemplate ? message : NO_TEMPLATE;
+        Site site = templates.get(key);
+        if (site == null && perTemplate && siteCount.get() >= MAX_SITES) {
+            // 新的调用位置和同一个tag的其他位置共用一个令牌桶,不能不限流
+            perTemplate = false;
+            key = NO_TEMPLATE;
+            site = templates.get(key);
+        }
+        if (site == null) {
+            site = new Site(tag, perTemplate ? message : null, now);
+            Site existing = templates.putIfAbsent(key, site);
+            if (existing != null) {
+                site = existing;
+            } else {
+                siteCount.incrementAndGet();
+            }
+        }
+        return site;
+    }
+
+    /**
+     * 令牌桶用GCRA(理论到达时间tat)表示,只需要一个原子变量:
+     * 当前时间不早于 tat - burstTolerance 时允许,之后tat增加一个令牌的间隔
+     * @param site
+     * @param now
+     * @return
+     */
+    private boolean tryAcquire(Site site, long now) {
+        AtomicLong tat = site.tat;
+        for (;;) {
+            long current = tat.get();
+            if (now - (current - burstTolerance) < 0) {
+                return false;
+            }
+            long next = (now - current > 0 ? now : current) + emissionInterval;
+            if (tat.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 到了汇总时间时返回汇总行,同一时间只有一个线程得到
+     * @param now   System.nanoTime()
+     * @param force 不管时间是否到了都汇总,flush时使用
+     * @return 没有需要汇总的内容时返回null
+     */
+    String pollSummary(long now, boolean force) {
+        long next = nextSummary.get();
+        if (!force && now - next < 0) {
+            return null;
+        }
+        if (!nextSummary.compareAndSet(next, now + summaryInterval)) {
+            return null;
+        }
+        long total = 0;
+        List<Count> counted = new ArrayList<>();
+        for (ConcurrentHashMap<String, Site> templates : sites.values()) {
+            for (Map.Entry<String, Site> entry : templates.entrySet()) {
+                Site site = entry.getValue();
+                long count = site.suppressed.getAndSet(0) + site.repeated.getAndSet(0);
+                if (count > 0) {
+                    total += count;
+                    counted.add(new Count(site, count));
+                } else if (site.idle(now) && templates.remove(entry.getKey(), site)) {
+                    // 令牌已经回满,移除后重新创建的结果相同
+                    siteCount.decrementAndGet();
+                }
+            }
+        }
+        long count = overflow.suppressed.getAndSet(0) + overflow.repeated.getAndSet(0);
+        if (count > 0) {
+            total += count;
+            counted.add(new Count(overflow, count));
+        }
+        if (total == 0) {
+            return null;
+        }
+        // 丢弃最多的位置排在前面
+        Collections.sort(counted, new Comparator<Count>() {
+            @Override
+            public int compare(Count a, Count b) {
+                return a.count < b.count ? 1 : a.count > b.count ? -1 : 0;
+            }
+        });
+        StringBuilder builder = new StringBuilder(128).append("suppressed ").append(total).append(" messages:");
+        for (int i = 0; i < counted.size() && i < MAX_SUMMARY_SITES; i++) {
+            Site site = counted.get(i).site;
+            builder.append(i == 0 ? " " : ", ");
+            if (site.tag != null) {
+                builder.append('[').append(site.tag).append("] ");
+            }
+            builder.append(site.template != null ? site.template : "*").append(" x").append(counted.get(i).count);
+        }
+        if (counted.size() > MAX_SUMMARY_SITES) {
+            builder.append(", ... (").append(counted.size() - MAX_SUMMARY_SITES).append(" more)");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 一个调用位置的令牌桶和计数
+     */
+    private static final class Site {
+        final String tag;
+        final String template;
+        final AtomicLong tat;                               // 令牌桶的理论到达时间
+        final AtomicLong suppressed = new AtomicLong();     // 超过速率丢弃的数量
+        final AtomicLong repeated = new AtomicLong();       // 重复消息合并的数量
+        volatile Last last;
+
+        Site(String tag, String template, long tat) {
+            this.tag = tag;
+            this.template = template;
+            this.tat = new AtomicLong(tat);
+        }
+
+        /**
+         * 令牌已经回满,并且没有需要合并的重复消息
+         */
+        boolean idle(long now) {
+            Last last = this.last;
+            return now - tat.get() >= 0 && (last == null || now - last.until >= 0);
+        }
+    }
+
+    private static final class Count {
+        final Site site;
+        final long count;
+
+        Count(Site site, long count) {
+            this.site = site;
+            this.count = count;
+        }
+    }
+
+    /**
+     * 最后输出的消息,整体替换,读取时不会看到一半的内容
+     */
+    private static final class Last {
+        final String message;
+        final Object[] args;
+        final long until;
+
+        Last(String message, Object[] args, long until) {
+            this.message = message;
+            this.args = args;
+            this.until = until;
+        }
+
+        boolean matches(String message, Object[] args) {
+            return Helper.equals(this.message, message) && Arrays.equals(this.args, args);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ldzspace.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界无锁环形队列,支持多个生产者和多个消费者
+ * 每个槽位带一个序号,生产者和消费者通过CAS抢占位置,通过序号判断槽位是否可读写
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class RingBuffer<E> {
+    private final int mask;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();    // 下一个读取的位置
+    private final AtomicLong tail = new AtomicLong();    // 下一个写入的位置
+
+    /**
+     * 向上取整为2的幂之后不能超过int的范围
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * @param capacity 容量,会向上取整为2的幂
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be at most " + MAX_CAPACITY);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        buffer = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素
+     * @param element
+     * @return 队列已满返回false
+     */
+    boolean offer(E element) {
+        long pos = tail.get();
+        for (;;) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer[index] = element;
+                    // 序号的volatile写保证元素对消费者可见
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取出元素
+     * @return 队列为空返回null
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long pos = head.get();
+        for (;;) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E element = (E) buffer[index];
+                    buffer[index] = null;
+                    // 槽位交还给下一圈的生产者
+                    sequences.set(index, pos + mask + 1);
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    int size() {
+        long size = tail.get() - head.get();
+        return size < 0 ? 0 : (int) size;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -1,42 +1,113 @@
 package com.ldzspace.log;
 
-import static android.icu.lang.UCharacter.GraphemeClusterBreak.L;
-
 /**
  * log日志的控制类 主要控制以下的变量:
  *                   methodCount 打印的方法数
  *                   methodOffset 省略打印的方法数
  *                   showThreadInfo 是否打印线程信息
- *                   logAdapter     是否使用adapter
+ *                   logAdapter     是否使用adapter,单个tag可以输出到单独的adapter
+ *                   logLevel       全局和单个tag的输出级别,tag按"."分级,下级tag继承上一级的设置
+ *                   async          是否异步输出
+ *                   stringFormat   是否使用String.format格式化消息
+ *                   binaryWriter   二进制格式输出
+ *                   jsonArrayLimit json中数组最多输出的元素数
+ *                   xmlMaxLength/xmlMaxDepth xml最多输出的字符数和元素层数
+ *                   crashBuffer    崩溃缓冲区
+ *                   rateLimiter    限流和重复消息合并
+ *                   metrics        日志库自身的统计
+ *                   throwableRenderer 异常的格式化方式
+ *                   layout         排版方式,边框或者单行模板
+ * 所有配置保存在不可变的LogConfig快照中,修改时创建新的快照整体替换(写时复制),
+ * 打印时只读取一次快照,运行中修改配置是线程安全的
  * Created by liudazhi on 2016/12/18.
  */
 
 public class Settings {
-    private int methodCount  = 2;                // 初始化方法数量
-    private int methodOffset = 0;                // 方法偏移量
-    private boolean showThreadInfo = true;       // 是否打印线程信息
-    private LogAdapter logAdapter;               // log的适配器,用于使用Android的log类.当然也可以使用其他的日志类
+    /**
+     * 当前的配置快照,写入在锁内完成,读取不加锁
+     */
+    private volatile LogConfig config = LogConfig.defaults();
+
+    /**
+     * 获取当前的配置快照,一条日志的处理过程中只读取一次
+     * @return
+     */
+    public LogConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 当前快照仍然是expect时替换为update,用于同时修改多项配置:
+     *     LogConfig current;
+     *     do {
+     *         current = settings.getConfig();
+     *     } while (!settings.compareAndSet(current, current.toBuilder().logLevel(LogLevel.WARN).logLevel("net", LogLevel.ERROR).build()));
+     * @param expect
+     * @param update
+     * @return 快照已被其他线程修改时返回false
+     */
+    public synchronized boolean compareAndSet(LogConfig expect, LogConfig update) {
+        if (update == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+        if (config != expect) {
+            return false;
+        }
+        install(update);
+        return true;
+    }
+
+    /**
+     * 替换快照,调用方持有锁
+     * 崩溃缓冲区在这里记录printer的tag,构建快照本身没有副作用
+     * @param update
+     */
+    private void install(LogConfig update) {
+        LogConfig previous = config;
+        config = update;
+        CrashBuffer crashBuffer = update.getCrashBuffer();
+        if (crashBuffer != null && (crashBuffer != previous.getCrashBuffer() || !Helper.equals(update.getTag(), previous.getTag()))) {
+            // 崩溃时记录的异常使用printer的tag
+            crashBuffer.attach(update.getTag());
+        }
+    }
 
-    private LogLevel logLevel = LogLevel.FULL;   // 全打印log
+    /**
+     * 在当前快照的基础上修改,调用方持有锁
+     * @return
+     */
+    private LogConfig.Builder edit() {
+        return config.toBuilder();
+    }
+
+    /**
+     * 设置tag,由Printer.init()调用
+     * @param tag
+     * @return
+     */
+    synchronized Settings tag(String tag) {
+        install(edit().tag(tag).build());
+        return this;
+    }
 
     /**
      * 是否隐藏线程信息
      * @return
      */
-    public Settings hideThreadInfo(){
-        showThreadInfo = false;
+    public synchronized Settings hideThreadInfo(){
+        config = edit().showThreadInfo(false).build();
         return this;
     }
 
     /**
      * 打印的方法数量
+     * 大于0时每条日志都要获取完整的调用栈(Java 7 无法只获取前几帧),分配的内存和栈深度成正比;
+     * 只有methodCount(0)的常见调用不分配内存
      * @param methodCount
      * @return
      */
-    public Settings methodCount(int methodCount){
-        if(methodCount < 0)
-            methodCount=0;
-        this.methodCount=methodCount;
+    public synchronized Settings methodCount(int methodCount){
+        config = edit().methodCount(methodCount).build();
         return this;
     }
 
@@ -45,40 +116,254 @@ public class Settings {
      * @param methodOffset
      * @return
      */
-    public Settings methodOffset(int methodOffset){
-        this.methodOffset = methodOffset;
+    public synchronized Settings methodOffset(int methodOffset){
+        config = edit().methodOffset(methodOffset).build();
         return  this;
     }
 
     public int getMethodCount() {
-        return methodCount;
+        return config.getMethodCount();
     }
 
     public int getMethodOffset() {
-        return methodOffset;
+        return config.getMethodOffset();
     }
 
-    public void setLogLevel(LogLevel logLevel){
-        this.logLevel = logLevel;
+    public synchronized void setLogLevel(LogLevel logLevel){
+        config = edit().logLevel(logLevel).build();
     }
 
     public LogLevel getLogLevel(){
-        return this.logLevel;
+        return config.getLogLevel();
+    }
+
+    /**
+     * 单独设置某个tag的输出级别,优先于全局级别
+     * @param tag      Printer.t()中使用的tag
+     * @param logLevel 为null时移除该tag的设置
+     * @return
+     */
+    public synchronized Settings logLevel(String tag, LogLevel logLevel){
+        config = edit().logLevel(tag, logLevel).build();
+        return this;
+    }
+
+    /**
+     * 获取tag的输出级别,tag和上一级都没有单独设置时返回全局级别
+     * @param tag 为null时是printer的tag的级别
+     * @return
+     */
+    public LogLevel getLogLevel(String tag){
+        return config.getLogLevel(tag);
+    }
+
+    /**
+     * 判断该级别和tag的日志是否需要输出,在格式化和获取栈信息之前调用
+     * @param priority log级别
+     * @param tag      为null时按printer的tag判断
+     * @return
+     */
+    public boolean isLoggable(int priority, String tag){
+        return config.isLoggable(priority, tag);
     }
 
     public LogAdapter getLogAdapter() {
-        if(logAdapter == null){
-            logAdapter = new AndroidLogAdapter();
-        }
-        return logAdapter;
+        return config.getLogAdapter();
     }
 
-    public void setLogAdapter(LogAdapter logAdapter) {
-        this.logAdapter = logAdapter;
+    /**
+     * @param logAdapter 为null时使用AndroidLogAdapter
+     */
+    public synchronized void setLogAdapter(LogAdapter logAdapter) {
+        config = edit().logAdapter(logAdapter).build();
+    }
+
+    /**
+     * 该tag及没有单独设置的下级tag的日志只输出到logAdapter
+     * @param tag        Printer.t()中使用的tag,如net时也包括net.http
+     * @param logAdapter 为null时移除该tag的设置
+     * @return
+     */
+    public synchronized Settings logAdapter(String tag, LogAdapter logAdapter){
+        config = edit().logAdapter(tag, logAdapter).build();
+        return this;
     }
 
     public boolean isShowThreadInfo() {
-        return showThreadInfo;
+        return config.isShowThreadInfo();
+    }
+
+    /**
+     * 开启异步输出,调用线程只采集日志,格式化和输出在后台线程完成
+     * @param bufferSize     环形缓冲区大小
+     * @param overflowPolicy 缓冲区满时的处理策略
+     * @return
+     */
+    public synchronized Settings async(int bufferSize, OverflowPolicy overflowPolicy){
+        config = edit().async(true, bufferSize, overflowPolicy).build();
+        return this;
+    }
+
+    public synchronized Settings async(){
+        return async(config.getBufferSize(), config.getOverflowPolicy());
+    }
+
+    /**
+     * 关闭异步输出,下一条日志打印时输出后台线程中剩余的日志并结束后台线程
+     * @return
+     */
+    public synchronized Settings sync(){
+        config = edit().async(false, config.getBufferSize(), config.getOverflowPolicy()).build();
+        return this;
+    }
+
+    public boolean isAsync() {
+        return config.isAsync();
+    }
+
+    public int getBufferSize() {
+        return config.getBufferSize();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return config.getOverflowPolicy();
+    }
+
+    /**
+     * 是否使用String.format格式化消息,默认使用MessageFormatter,
+     * 支持 {} %s %d %x,其他格式自动回退到String.format
+     * @param stringFormat
+     * @return
+     */
+    public synchronized Settings stringFormat(boolean stringFormat){
+        config = edit().stringFormat(stringFormat).build();
+        return this;
+    }
+
+    public boolean isStringFormat() {
+        return config.isStringFormat();
+    }
+
+    /**
+     * 同时以二进制格式写入日志,写入时不格式化消息也不绘制边框,用BinaryLogDecoder还原成文本
+     * @param binaryWriter 为null时关闭二进制输出
+     * @param textOutput   是否仍然格式化并输出到logAdapter,只需要持久化时传false
+     * @return
+     */
+    public synchronized Settings binaryOutput(BinaryLogWriter binaryWriter, boolean textOutput){
+        config = edit().binaryOutput(binaryWriter, textOutput).build();
+        return this;
+    }
+
+    public BinaryLogWriter getBinaryWriter() {
+        return config.getBinaryWriter();
+    }
+
+    public boolean isTextOutput() {
+        return config.isTextOutput();
+    }
+
+    /**
+     * json()中每个数组最多输出的元素数,超过的部分只输出剩余的数量
+     * @param jsonArrayLimit 0表示不限制
+     * @return
+     */
+    public synchronized Settings jsonArrayLimit(int jsonArrayLimit){
+        config = edit().jsonArrayLimit(jsonArrayLimit).build();
+        return this;
+    }
+
+    public int getJsonArrayLimit() {
+        return config.getJsonArrayLimit();
+    }
+
+    /**
+     * xml()的输出限制,超过长度时截断,超过层数的元素用"..."代替
+     * @param maxLength 最多输出的字符数,0表示不限制
+     * @param maxDepth  最多输出的元素层数,0表示不限制
+     * @return
+     */
+    public synchronized Settings xmlLimits(int maxLength, int maxDepth){
+        config = edit().xmlLimits(maxLength, maxDepth).build();
+        return this;
+    }
+
+    public int getXmlMaxLength() {
+        return config.getXmlMaxLength();
+    }
+
+    public int getXmlMaxDepth() {
+        return config.getXmlMaxDepth();
+    }
+
+    /**
+     * 在级别过滤之前把日志记录到崩溃缓冲区,全局级别为NONE时也会记录
+     * @param crashBuffer 为null时关闭
+     * @return
+     */
+    public synchronized Settings crashBuffer(CrashBuffer crashBuffer){
+        install(edit().crashBuffer(crashBuffer).build());
+        return this;
+    }
+
+    public CrashBuffer getCrashBuffer() {
+        return config.getCrashBuffer();
+    }
+
+    /**
+     * 按调用位置限流并合并重复的消息,在级别过滤之后,格式化之前检查
+     * @param rateLimiter 为null时关闭
+     * @return
+     */
+    public synchronized Settings rateLimit(RateLimiter rateLimiter){
+        config = edit().rateLimiter(rateLimiter).build();
+        return this;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return config.getRateLimiter();
+    }
+
+    /**
+     * 统计每个级别的条数,各阶段的耗时等,用Logger.metrics()读取
+     * @param metrics 为null时关闭,关闭后没有统计开销
+     * @return
+     */
+    public synchronized Settings metrics(LogMetrics metrics){
+        config = edit().metrics(metrics).build();
+        return this;
+    }
+
+    public LogMetrics getMetrics() {
+        return config.getMetrics();
+    }
+
+    /**
+     * 异常输出的最大层数,每层的栈帧数和合并的包名
+     * @param throwableRenderer 为null时使用默认的限制
+     * @return
+     */
+    public synchronized Settings throwableRenderer(ThrowableRenderer throwableRenderer){
+        config = edit().throwableRenderer(throwableRenderer).build();
+        return this;
+    }
+
+    public ThrowableRenderer getThrowableRenderer() {
+        return config.getThrowableRenderer();
+    }
+
+    /**
+     * 排版方式,默认是边框样式,大量日志时可以使用new PatternLayout(PatternLayout.FLAT)
+     * @param layout 为null时使用默认的边框样式
+     * @return
+     */
+    public synchronized Settings layout(Layout layout){
+        config = edit().layout(layout).build();
+        return this;
+    }
+
+    public Layout getLayout() {
+        return config.getLayout();
     }
 
 }
@@ -0,0 +1,56 @@
+package com.ldzspace.log;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段计数器,多个线程同时累加时分散到不同的槽位,读取时求和
+ * 作用和java.util.concurrent.atomic.LongAdder相同(Android低版本和Java 7没有),
+ * 按线程id选择槽位,每个槽位占一个缓存行,避免伪共享
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class StripedCounter {
+    /**
+     * 槽位数,不少于CPU核数的2的幂
+     */
+    private static final int STRIPES;
+    /**
+     * 每个槽位间隔8个long(64字节)
+     */
+    private static final int PADDING = 8;
+
+    static {
+        int cpus = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 64));
+        int stripes = Integer.highestOneBit(cpus);
+        STRIPES = stripes < cpus ? stripes << 1 : stripes;
+    }
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    void add(long value) {
+        cells.addAndGet(index(), value);
+    }
+
+    /**
+     * @return 当前线程所在槽位累加后的值,不是总数
+     */
+    long increment() {
+        return cells.incrementAndGet(index());
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        // 打散连续的线程id
+        int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return (hash & (STRIPES - 1)) * PADDING;
+    }
+}
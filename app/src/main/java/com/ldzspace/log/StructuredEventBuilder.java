@@ -0,0 +1,207 @@
+package com.ldzspace.log;
+
+import java.util.Arrays;
+
+/**
+ * EventBuilder的实现,每个线程复用一个实例,字段先保存在可增长的数组中,log()时拷贝成LogFields
+ * 从atInfo()到log()之间实例处于使用中,这时同一线程再次获取(例如计算字段值时又打印了结构化日志)会创建新的实例
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class StructuredEventBuilder implements EventBuilder {
+    /**
+     * 级别被过滤时返回的单例
+     */
+    static final EventBuilder NO_OP = new NoOp();
+
+    /**
+     * 只在builder中使用的类型,log()时调用supplier转换成TYPE_OBJECT
+     */
+    private static final byte TYPE_SUPPLIER = 4;
+
+    private static final ThreadLocal<StructuredEventBuilder> LOCAL = new ThreadLocal<StructuredEventBuilder>() {
+        @Override
+        protected StructuredEventBuilder initialValue() {
+            return new StructuredEventBuilder();
+        }
+    };
+
+    private LoggerPrinter printer;
+    private int priority;
+    private Tag tag;
+    private int methodCount;
+    private Throwable throwable;
+    private boolean active;
+
+    private String[] keys = new String[8];
+    private byte[] types = new byte[8];
+    private long[] values = new long[8];
+    private Object[] objects = new Object[8];
+    private int size;
+    private boolean hasObjects;
+
+    /**
+     * 获取当前线程的实例
+     * @param printer
+     * @param priority
+     * @param tag         为null时使用printer的tag
+     * @param methodCount 小于0时使用settings中的方法数
+     * @return
+     */
+    static StructuredEventBuilder obtain(LoggerPrinter printer, int priority, Tag tag, int methodCount) {
+        StructuredEventBuilder builder = LOCAL.get();
+        if (builder.active) {
+            builder = new StructuredEventBuilder();
+        }
+        builder.printer = printer;
+        builder.priority = priority;
+        builder.tag = tag;
+        builder.methodCount = methodCount;
+        builder.active = true;
+        return builder;
+    }
+
+    private void add(String key, byte type, long value, Object object) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        keys[size] = key;
+        types[size] = type;
+        values[size] = value;
+        objects[size] = object;
+        if (object != null) {
+            hasObjects = true;
+        }
+        size++;
+    }
+
+    @Override
+    public EventBuilder kv(String key, long value) {
+        add(key, (byte) LogFields.TYPE_LONG, value, null);
+        return this;
+    }
+
+    @Override
+    public EventBuilder kv(String key, double value) {
+        add(key, (byte) LogFields.TYPE_DOUBLE, Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    @Override
+    public EventBuilder kv(String key, boolean value) {
+        add(key, (byte) LogFields.TYPE_BOOLEAN, value ? 1 : 0, null);
+        return this;
+    }
+
+    @Override
+    public EventBuilder kv(String key, Object value) {
+        add(key, (byte) LogFields.TYPE_OBJECT, 0, value);
+        return this;
+    }
+
+    @Override
+    public EventBuilder kv(String key, ValueSupplier<?> value) {
+        add(key, value != null ? TYPE_SUPPLIER : (byte) LogFields.TYPE_OBJECT, 0, value);
+        return this;
+    }
+
+    @Override
+    public EventBuilder throwable(Throwable throwable) {
+        this.throwable = throwable;
+        return this;
+    }
+
+    @Override
+    public void log(String message) {
+        LoggerPrinter printer = this.printer;
+        int priority = this.priority;
+        Tag tag = this.tag;
+        int methodCount = this.methodCount;
+        Throwable throwable = this.throwable;
+        LogFields fields;
+        try {
+            fields = size == 0 ? LogFields.EMPTY : fields();
+        } finally {
+            // 先释放再输出,adapter中打印的结构化日志可以继续复用这个实例;supplier抛出异常时也要释放
+            clear();
+        }
+        printer.log(priority, tag, methodCount, throwable, message, null, fields);
+    }
+
+    /**
+     * 拷贝字段,调用ValueSupplier
+     * @return
+     */
+    private LogFields fields() {
+        int size = this.size;
+        byte[] types = Arrays.copyOf(this.types, size);
+        Object[] objects = null;
+        if (hasObjects) {
+            objects = Arrays.copyOf(this.objects, size);
+            for (int i = 0; i < size; i++) {
+                if (types[i] == TYPE_SUPPLIER) {
+                    types[i] = LogFields.TYPE_OBJECT;
+                    objects[i] = ((ValueSupplier<?>) objects[i]).get();
+                }
+            }
+        }
+        return new LogFields(Arrays.copyOf(keys, size), types, Arrays.copyOf(values, size), objects);
+    }
+
+    /**
+     * 清除引用,防止线程一直持有日志中的对象
+     */
+    private void clear() {
+        Arrays.fill(keys, 0, size, null);
+        if (hasObjects) {
+            Arrays.fill(objects, 0, size, null);
+        }
+        size = 0;
+        hasObjects = false;
+        printer = null;
+        tag = null;
+        throwable = null;
+        active = false;
+    }
+
+    private static final class NoOp implements EventBuilder {
+        @Override
+        public EventBuilder kv(String key, long value) {
+            return this;
+        }
+
+        @Override
+        public EventBuilder kv(String key, double value) {
+            return this;
+        }
+
+        @Override
+        public EventBuilder kv(String key, boolean value) {
+            return this;
+        }
+
+        @Override
+        public EventBuilder kv(String key, Object value) {
+            return this;
+        }
+
+        @Override
+        public EventBuilder kv(String key, ValueSupplier<?> value) {
+            return this;
+        }
+
+        @Override
+        public EventBuilder throwable(Throwable throwable) {
+            return this;
+        }
+
+        @Override
+        public void log(String message) {
+        }
+    }
+}
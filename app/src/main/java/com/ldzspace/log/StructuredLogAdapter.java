@@ -0,0 +1,24 @@
+package com.ldzspace.log;
+
+/**
+ * 接收结构化日志的adapter,例如输出json行或者上报到日志服务
+ * 设置为logAdapter后不再绘制边框,每条日志调用一次writeStructured(),
+ * 普通的日志也会调用,这时fields为LogFields.EMPTY
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public interface StructuredLogAdapter extends LogAdapter {
+    /**
+     * 输出一条日志
+     * @param priority   log级别
+     * @param tag        格式化后的tag
+     * @param timestamp  调用时间
+     * @param threadName 调用线程名
+     * @param message    格式化后的消息,没有时为null
+     * @param throwable  没有时为null
+     * @param fields     结构化字段
+     */
+    void writeStructured(int priority, String tag, long timestamp, String threadName,
+                         String message, Throwable throwable, LogFields fields);
+}
@@ -0,0 +1,56 @@
+package com.ldzspace.log;
+
+/**
+ * 注册过的tag: 编号,上一级tag和格式化后的完整tag
+ * tag按"."分级,net.http.retry的上一级是net.http,再上一级是net,
+ * 没有单独设置级别或adapter的tag使用上一级的设置
+ * 实例由TagRegistry创建,同名的tag是同一个实例
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class Tag {
+    final int id;           // 从0开始连续的编号,注册数超过上限时为-1
+    final String name;
+    final Tag parent;       // 没有上一级时为null
+
+    /**
+     * 最近一次格式化的结果,printer的tag通常不变,每个tag只拼接一次
+     */
+    private volatile Formatted formatted;
+
+    Tag(int id, String name, Tag parent) {
+        this.id = id;
+        this.name = name;
+        this.parent = parent;
+    }
+
+    /**
+     * 格式化后的tag: printer的tag-当前tag,两者相同时只用printer的tag
+     * @param baseTag printer的tag
+     * @return
+     */
+    String format(String baseTag) {
+        Formatted cached = formatted;
+        if (cached == null || !cached.baseTag.equals(baseTag)) {
+            cached = new Formatted(baseTag, name.equals(baseTag) ? baseTag : baseTag + "-" + name);
+            formatted = cached;
+        }
+        return cached.tag;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static final class Formatted {
+        final String baseTag;
+        final String tag;
+
+        Formatted(String baseTag, String tag) {
+            this.baseTag = baseTag;
+            this.tag = tag;
+        }
+    }
+}
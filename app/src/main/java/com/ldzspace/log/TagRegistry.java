@@ -0,0 +1,113 @@
+package com.ldzspace.log;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * tag的注册表: 每个tag名注册一次,得到从0开始的编号,
+ * LogConfig按编号用数组保存每个tag解析好的级别和adapter,过滤和格式化时不需要查表和拼接字符串
+ * 注册时同时注册所有上一级的tag;TaggedPrinter创建时注册,打印时直接使用
+ * 动态生成的tag超过MAX_TAGS后不再注册,返回编号为-1的临时实例,每次使用时按上一级逐个解析;
+ * 临时实例按名字缓存在固定大小的数组中,不加锁,重复使用同一个tag时不再创建
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class TagRegistry {
+    static final int MAX_TAGS = 4096;
+    /**
+     * 未注册tag的缓存大小,必须是2的幂
+     */
+    private static final int UNREGISTERED_CACHE_SIZE = 256;
+
+    private static final ConcurrentHashMap<String, Tag> tags = new ConcurrentHashMap<>();
+    private static volatile Tag[] byId = new Tag[64];
+    private static volatile int size;
+    /**
+     * 按名字的hash直接映射,冲突时直接覆盖;Tag的字段都是final的,不加锁读写也是安全的
+     */
+    private static final Tag[] unregistered = new Tag[UNREGISTERED_CACHE_SIZE];
+
+    private TagRegistry() {
+    }
+
+    /**
+     * @param name
+     * @return 注册过的tag,name为null或空时返回null(表示使用printer的tag)
+     */
+    static Tag intern(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        Tag tag = tags.get(name);
+        if (tag != null) {
+            return tag;
+        }
+        // 超过上限后不再进入注册的锁
+        return size >= MAX_TAGS ? unregistered(name) : register(name);
+    }
+
+    /**
+     * 查询用,不注册新的tag
+     * @param name
+     * @return 注册过的tag,没有注册时返回编号为-1的临时实例,name为null或空时返回null
+     */
+    static Tag lookup(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        Tag tag = tags.get(name);
+        return tag != null ? tag : unregistered(name);
+    }
+
+    private static Tag unregistered(String name) {
+        int index = name.hashCode() & (UNREGISTERED_CACHE_SIZE - 1);
+        Tag tag = unregistered[index];
+        if (tag != null && tag.name.equals(name)) {
+            return tag;
+        }
+        int dot = name.lastIndexOf('.');
+        tag = new Tag(-1, name, dot > 0 ? lookup(name.substring(0, dot)) : null);
+        unregistered[index] = tag;
+        return tag;
+    }
+
+    private static synchronized Tag register(String name) {
+        Tag tag = tags.get(name);
+        if (tag != null) {
+            return tag;
+        }
+        int dot = name.lastIndexOf('.');
+        Tag parent = dot > 0 ? intern(name.substring(0, dot)) : null;
+        int id = size;
+        if (id >= MAX_TAGS) {
+            return unregistered(name);
+        }
+        tag = new Tag(id, name, parent);
+        Tag[] array = byId;
+        if (id == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[id] = tag;
+        byId = array;
+        tags.put(name, tag);
+        // 先写入数组再增加数量,读到size的线程一定能读到对应的tag
+        size = id + 1;
+        return tag;
+    }
+
+    /**
+     * @return 已注册的tag数
+     */
+    static int size() {
+        return size;
+    }
+
+    /**
+     * @param id 小于size()
+     * @return
+     */
+    static Tag get(int id) {
+        return byId[id];
+    }
+}
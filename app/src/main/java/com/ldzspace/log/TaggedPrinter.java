@@ -0,0 +1,234 @@
+package com.ldzspace.log;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * t()返回的printer: 固定了tag和方法数,创建后不再修改
+ * tag和方法数随每次调用一起传给LoggerPrinter,不需要ThreadLocal,
+ * 调用t()之后没有打印日志也不会影响下一条日志;
+ * 同一个tag和方法数的实例会被缓存,可以保存在字段中重复使用,打印时不分配内存;
+ * tag在创建时注册到TagRegistry,打印时级别和格式化后的tag都按编号直接读取
+ *     private static final Printer NET = Logger.t("net");
+ *     NET.d("request {} finished", id);
+ * Logger.t()返回的实例每次打印时使用Logger当前的printer,Logger.init()之后仍然有效;
+ * LoggerPrinter.t()返回的实例固定使用创建它的printer
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class TaggedPrinter implements Printer {
+    private final LoggerPrinter printer;    // null表示使用Logger当前的printer
+    private final Tag tag;                  // null表示使用printer的tag
+    private final int methodCount;          // 小于0表示使用settings中的方法数
+
+    TaggedPrinter(LoggerPrinter printer, String tag, int methodCount) {
+        this.printer = printer;
+        this.tag = TagRegistry.intern(tag);
+        this.methodCount = methodCount;
+    }
+
+    public String getTag() {
+        return tag != null ? tag.name : null;
+    }
+
+    private LoggerPrinter printer() {
+        LoggerPrinter printer = this.printer;
+        return printer != null ? printer : Logger.getPrinter();
+    }
+
+    @Override
+    public Settings init(String tag) {
+        return printer != null ? printer.init(tag) : Logger.init(tag);
+    }
+
+    @Override
+    public Settings getSettings() {
+        return printer().getSettings();
+    }
+
+    @Override
+    public Printer t(String tag) {
+        return printer != null ? printer.t(tag) : Logger.t(tag);
+    }
+
+    @Override
+    public Printer t(String tag, int methodCount) {
+        return printer != null ? printer.t(tag, methodCount) : Logger.t(tag, methodCount);
+    }
+
+    @Override
+    public boolean isLoggable(int priority, String tag) {
+        return printer().isLoggable(priority, tag);
+    }
+
+    @Override
+    public EventBuilder atVerbose() {
+        return printer().at(Logger.VERBOSE, tag, methodCount);
+    }
+
+    @Override
+    public EventBuilder atDebug() {
+        return printer().at(Logger.DEBUG, tag, methodCount);
+    }
+
+    @Override
+    public EventBuilder atInfo() {
+        return printer().at(Logger.INFO, tag, methodCount);
+    }
+
+    @Override
+    public EventBuilder atWarn() {
+        return printer().at(Logger.WARN, tag, methodCount);
+    }
+
+    @Override
+    public EventBuilder atError() {
+        return printer().at(Logger.ERROR, tag, methodCount);
+    }
+
+    @Override
+    public void log(int priority, String tag, String message, Throwable throwable) {
+        printer().log(priority, TagRegistry.intern(tag), methodCount, throwable, message, null);
+    }
+
+    @Override
+    public void d(String message, Object... args) {
+        printer().log(Logger.DEBUG, tag, methodCount, null, message, args);
+    }
+
+    @Override
+    public void d(Object object) {
+        printer().logObject(tag, methodCount, object);
+    }
+
+    @Override
+    public void e(String message, Object... args) {
+        printer().log(Logger.ERROR, tag, methodCount, null, message, args);
+    }
+
+    @Override
+    public void e(Throwable throwable, String message, Object object) {
+        printer().log(Logger.ERROR, tag, methodCount, throwable, message, new Object[]{object});
+    }
+
+    @Override
+    public void i(String message, Object... args) {
+        printer().log(Logger.INFO, tag, methodCount, null, message, args);
+    }
+
+    @Override
+    public void v(String message, Object... args) {
+        printer().log(Logger.VERBOSE, tag, methodCount, null, message, args);
+    }
+
+    @Override
+    public void w(String message, Object... args) {
+        printer().log(Logger.WARN, tag, methodCount, null, message, args);
+    }
+
+    @Override
+    public void wtf(String message, Object... args) {
+        printer().log(Logger.ASSERT, tag, methodCount, null, message, args);
+    }
+
+    @Override
+    public void v(String message) {
+        printer().log(Logger.VERBOSE, tag, methodCount, null, message, null);
+    }
+
+    @Override
+    public void i(String message) {
+        printer().log(Logger.INFO, tag, methodCount, null, message, null);
+    }
+
+    @Override
+    public void w(String message) {
+        printer().log(Logger.WARN, tag, methodCount, null, message, null);
+    }
+
+    @Override
+    public void e(String message) {
+        printer().log(Logger.ERROR, tag, methodCount, null, message, null);
+    }
+
+    @Override
+    public void wtf(String message) {
+        printer().log(Logger.ASSERT, tag, methodCount, null, message, null);
+    }
+
+    @Override
+    public void json(String json) {
+        printer().json(tag, methodCount, json);
+    }
+
+    @Override
+    public void xml(String xml) {
+        printer().xml(tag, methodCount, xml);
+    }
+
+    @Override
+    public void flush() {
+        printer().flush();
+    }
+
+    @Override
+    public void shutdown() {
+        printer().shutdown();
+    }
+
+    /**
+     * 按tag和方法数缓存的实例
+     */
+    static final class Cache {
+        /**
+         * 缓存的tag上限,每个tag缓存默认方法数和0~7个方法数的TaggedPrinter
+         */
+        private static final int MAX_TAGS = 256;
+        private static final int CACHED_METHOD_COUNTS = 8;
+
+        private final LoggerPrinter printer;
+        /**
+         * tag -> 按方法数缓存的TaggedPrinter,下标0是默认方法数
+         */
+        private final ConcurrentHashMap<String, TaggedPrinter[]> printers = new ConcurrentHashMap<>();
+
+        /**
+         * @param printer 为null时缓存的实例使用Logger当前的printer
+         */
+        Cache(LoggerPrinter printer) {
+            this.printer = printer;
+        }
+
+        /**
+         * @param tag         为null时使用printer的tag
+         * @param methodCount 小于0时使用settings中的方法数
+         * @return
+         */
+        TaggedPrinter get(String tag, int methodCount) {
+            String key = tag == null ? "" : tag;
+            TaggedPrinter[] cached = printers.get(key);
+            if (cached == null) {
+                if (printers.size() >= MAX_TAGS) {
+                    // 动态生成的tag不无限缓存
+                    printers.clear();
+                }
+                cached = new TaggedPrinter[CACHED_METHOD_COUNTS + 1];
+                TaggedPrinter[] existing = printers.putIfAbsent(key, cached);
+                if (existing != null) {
+                    cached = existing;
+                }
+            }
+            int index = methodCount + 1;
+            if (index >= cached.length) {
+                return new TaggedPrinter(printer, tag, methodCount);
+            }
+            TaggedPrinter result = cached[index];
+            if (result == null) {
+                // 字段都是final,其他线程读到的实例一定是完整的;同时创建时只是多一个等价的实例
+                result = new TaggedPrinter(printer, tag, methodCount);
+                cached[index] = result;
+            }
+            return result;
+        }
+    }
+}
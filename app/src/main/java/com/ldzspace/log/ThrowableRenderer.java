@@ -0,0 +1,259 @@
+package com.ldzspace.log;
+
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 把异常转换成文本,格式和printStackTrace()相同,但是有长度限制:
+ * 1. 最多输出maxDepth层异常(cause和suppressed),每个异常最多maxFrames行调用栈
+ * 2. cause和外层异常相同的栈帧合并成 "... N more"
+ * 3. 连续的指定包名下的栈帧(反射,RxJava内部等)合并成一行 "... N frames in 包名"
+ * 4. 相同的异常(类型,消息和调用栈都相同)只格式化一次,之后直接使用缓存的文本
+ * 直接追加到调用方的StringBuilder中,LoggerPrinter不需要先生成整个字符串再拼接到消息后面
+ * 和android.util.Log一样,异常链中有UnknownHostException时不输出,网络不可用时避免大量无用的日志
+ * 用法:
+ *     Logger.init().throwableRenderer(new ThrowableRenderer(4, 32, "io.reactivex.", "okhttp3.internal."));
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public final class ThrowableRenderer {
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_MAX_FRAMES = 64;
+
+    /**
+     * 默认合并的包名: 反射调用和RxJava内部的栈帧对定位问题没有帮助
+     */
+    private static final String[] DEFAULT_FOLDED_PACKAGES = {
+            "java.lang.reflect.", "sun.reflect.", "jdk.internal.reflect.",
+            "io.reactivex.internal.", "rx.internal."
+    };
+
+    static final ThrowableRenderer DEFAULT = new ThrowableRenderer();
+
+    /**
+     * 缓存的异常数
+     */
+    private static final int CACHE_SIZE = 64;
+
+    private final int maxDepth;
+    private final int maxFrames;
+    private final String[] foldedPackages;
+
+    /**
+     * 指纹 -> 格式化后的文本,按访问顺序淘汰
+     */
+    private final LinkedHashMap<Long, String> cache = new LinkedHashMap<Long, String>(CACHE_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public ThrowableRenderer() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_FRAMES, DEFAULT_FOLDED_PACKAGES);
+    }
+
+    /**
+     * @param maxDepth       最多输出的异常层数,包括cause和suppressed
+     * @param maxFrames      每个异常最多输出的栈帧行数
+     * @param foldedPackages 连续出现时合并的包名前缀,如"io.reactivex."
+     */
+    public ThrowableRenderer(int maxDepth, int maxFrames, String... foldedPackages) {
+        if (maxDepth < 1 || maxFrames < 1) {
+            throw new IllegalArgumentException("maxDepth and maxFrames must be positive");
+        }
+        this.maxDepth = maxDepth;
+        this.maxFrames = maxFrames;
+        this.foldedPackages = foldedPackages != null ? foldedPackages.clone() : new String[0];
+    }
+
+    /**
+     * 格式化成字符串
+     * @param throwable
+     * @return throwable为null或者需要忽略时返回空字符串
+     */
+    public String render(Throwable throwable) {
+        StringBuilder builder = new StringBuilder();
+        render(throwable, builder);
+        return builder.toString();
+    }
+
+    /**
+     * 追加到builder中
+     * @param throwable
+     * @param out
+     */
+    public void render(Throwable throwable, StringBuilder out) {
+        if (throwable == null || hasUnknownHost(throwable)) {
+            return;
+        }
+        Long fingerprint = fingerprint(throwable, newIdentitySet(), 0, 17);
+        String cached;
+        synchronized (cache) {
+            cached = cache.get(fingerprint);
+        }
+        if (cached != null) {
+            out.append(cached);
+            return;
+        }
+        int start = out.length();
+        append(throwable, null, "", "", out, newIdentitySet(), 0);
+        String rendered = out.substring(start);
+        synchronized (cache) {
+            cache.put(fingerprint, rendered);
+        }
+    }
+
+    private static Set<Throwable> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+    }
+
+    private boolean hasUnknownHost(Throwable throwable) {
+        Throwable t = throwable;
+        for (int depth = 0; t != null && depth < maxDepth; depth++) {
+            if (t instanceof UnknownHostException) {
+                return true;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * 按格式化时相同的范围计算指纹,范围之外的差异不影响输出
+     */
+    private long fingerprint(Throwable throwable, Set<Throwable> seen, int depth, long hash) {
+        if (!seen.add(throwable)) {
+            return hash * 31;
+        }
+        hash = mix(hash, throwable.getClass().getName().hashCode());
+        String message = throwable.getLocalizedMessage();
+        hash = mix(hash, message != null ? message.hashCode() : 0);
+        StackTraceElement[] trace = throwable.getStackTrace();
+        hash = mix(hash, trace.length);
+        for (StackTraceElement element : trace) {
+            hash = mix(hash, element.hashCode());
+        }
+        for (Throwable suppressed : throwable.getSuppressed()) {
+            if (depth + 1 < maxDepth) {
+                hash = fingerprint(suppressed, seen, depth + 1, mix(hash, 1));
+            }
+        }
+        Throwable cause = throwable.getCause();
+        if (cause != null && depth + 1 < maxDepth) {
+            hash = fingerprint(cause, seen, depth + 1, mix(hash, 2));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * 和Throwable.printStackTrace()相同的结构
+     * @param throwable
+     * @param enclosing 外层异常的栈帧,用于合并相同的部分
+     * @param caption   "Caused by: " 或 "Suppressed: "
+     * @param indent    suppressed异常的缩进
+     */
+    private void append(Throwable throwable, StackTraceElement[] enclosing, String caption, String indent,
+                        StringBuilder out, Set<Throwable> seen, int depth) {
+        if (!seen.add(throwable)) {
+            out.append(indent).append(caption).append("[CIRCULAR REFERENCE: ").append(throwable).append("]\n");
+            return;
+        }
+        StackTraceElement[] trace = throwable.getStackTrace();
+        out.append(indent).append(caption).append(throwable).append('\n');
+        int common = enclosing == null ? 0 : commonFrames(trace, enclosing);
+        appendFrames(trace, trace.length - common, indent, out);
+        if (common > 0) {
+            out.append(indent).append("\t... ").append(common).append(" more\n");
+        }
+        Throwable[] suppressed = throwable.getSuppressed();
+        Throwable cause = throwable.getCause();
+        if (depth + 1 >= maxDepth) {
+            if (suppressed.length > 0 || cause != null) {
+                out.append(indent).append("\t... (more causes omitted)\n");
+            }
+            return;
+        }
+        for (Throwable t : suppressed) {
+            append(t, trace, "Suppressed: ", indent + '\t', out, seen, depth + 1);
+        }
+        if (cause != null) {
+            append(cause, trace, "Caused by: ", indent, out, seen, depth + 1);
+        }
+    }
+
+    /**
+     * 从末尾开始和外层异常相同的栈帧数
+     */
+    private static int commonFrames(StackTraceElement[] trace, StackTraceElement[] enclosing) {
+        int i = trace.length - 1;
+        int j = enclosing.length - 1;
+        while (i >= 0 && j >= 0 && trace[i].equals(enclosing[j])) {
+            i--;
+            j--;
+        }
+        return trace.length - 1 - i;
+    }
+
+    private void appendFrames(StackTraceElement[] trace, int count, String indent, StringBuilder out) {
+        int lines = 0;
+        int i = 0;
+        while (i < count) {
+            if (lines >= maxFrames) {
+                out.append(indent).append("\t... ").append(count - i).append(" more frames\n");
+                return;
+            }
+            String folded = foldedPackage(trace[i].getClassName());
+            int run = 1;
+            if (folded != null) {
+                while (i + run < count && trace[i + run].getClassName().startsWith(folded)) {
+                    run++;
+                }
+            }
+            if (run > 1) {
+                out.append(indent).append("\t... ").append(run).append(" frames in ")
+                        .append(folded, 0, folded.endsWith(".") ? folded.length() - 1 : folded.length()).append('\n');
+            } else {
+                appendFrame(trace[i], indent, out);
+            }
+            i += run;
+            lines++;
+        }
+    }
+
+    private String foldedPackage(String className) {
+        for (String prefix : foldedPackages) {
+            if (className.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 和StackTraceElement.toString()相同,直接追加不生成中间字符串
+     */
+    private static void appendFrame(StackTraceElement element, String indent, StringBuilder out) {
+        out.append(indent).append("\tat ").append(element.getClassName()).append('.').append(element.getMethodName());
+        String file = element.getFileName();
+        int line = element.getLineNumber();
+        if (element.isNativeMethod()) {
+            out.append("(Native Method)\n");
+        } else if (file == null) {
+            out.append("(Unknown Source)\n");
+        } else if (line >= 0) {
+            out.append('(').append(file).append(':').append(line).append(")\n");
+        } else {
+            out.append('(').append(file).append(")\n");
+        }
+    }
+}
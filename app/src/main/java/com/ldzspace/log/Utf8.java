@@ -0,0 +1,92 @@
+package com.ldzspace.log;
+
+/**
+ * UTF-8长度计算和编码,直接处理CharSequence,不需要先转换成String再getBytes()
+ * 不成对的代理字符和String.getBytes一样替换成'?'
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class Utf8 {
+    private Utf8() {
+    }
+
+    /**
+     * 计算UTF-8编码后的字节数,不需要真正编码
+     * @param text
+     * @param start
+     * @param end
+     * @return
+     */
+    static int length(CharSequence text, int start, int end) {
+        int bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 编码到字节数组中
+     * @param text
+     * @param start
+     * @param end
+     * @param dst      目标数组,调用方保证足够大(最多每个char 3个字节)
+     * @param offset   写入的起始位置
+     * @param maxBytes 最多写入的字节数,超过时在码点边界处截断
+     * @return 写入结束后的位置
+     */
+    static int encode(CharSequence text, int start, int end, byte[] dst, int offset, int maxBytes) {
+        int limit = maxBytes >= dst.length - offset ? dst.length : offset + maxBytes;
+        int p = offset;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (p + 1 > limit) {
+                    break;
+                }
+                dst[p++] = (byte) c;
+            } else if (c < 0x800) {
+                if (p + 2 > limit) {
+                    break;
+                }
+                dst[p++] = (byte) (0xc0 | (c >> 6));
+                dst[p++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                if (p + 4 > limit) {
+                    break;
+                }
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                dst[p++] = (byte) (0xf0 | (codePoint >> 18));
+                dst[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                dst[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                dst[p++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else {
+                if (p + 3 > limit) {
+                    break;
+                }
+                // 不成对的代理字符和String.getBytes一样替换成'?'
+                if (Character.isSurrogate(c)) {
+                    dst[p++] = '?';
+                    continue;
+                }
+                dst[p++] = (byte) (0xe0 | (c >> 12));
+                dst[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                dst[p++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return p;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ldzspace.log;
+
+/**
+ * 延迟计算的字段值,只有日志真正输出时才调用
+ * 作用和java.util.function.Supplier相同(Android低版本和Java 7没有)
+ *     Logger.atDebug().kv("state", new ValueSupplier<String>() {
+ *         public String get() { return dumpState(); }
+ *     }).log("tick");
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public interface ValueSupplier<T> {
+    T get();
+}
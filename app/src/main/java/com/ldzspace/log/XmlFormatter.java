@@ -0,0 +1,380 @@
+package com.ldzspace.log;
+
+/**
+ * 流式的xml缩进格式化,代替每次创建Transformer
+ * 按顺序读取标签,文本,注释,CDATA等,边读边写入缩进后的内容,标签和文本按原文整段拷贝;
+ * 只包含文本的元素输出在同一行: <name>user</name>
+ * 开始和结束标签不匹配等错误立即抛出IllegalArgumentException
+ * 每个线程复用一个实例(ThreadLocal),元素名的栈和输出缓冲区不需要每次分配
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class XmlFormatter {
+    /**
+     * 复用的StringBuilder超过该容量后丢弃,防止一条大日志长期占用内存
+     */
+    private static final int MAX_BUILDER_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<XmlFormatter> LOCAL = new ThreadLocal<XmlFormatter>() {
+        @Override
+        protected XmlFormatter initialValue() {
+            return new XmlFormatter();
+        }
+    };
+
+    private int indent;
+    private int maxLength;
+    private int maxDepth;
+
+    private String xml;
+    private int position;
+    private int length;
+    private StringBuilder out = new StringBuilder(1024);
+    private String padding = "\n";
+
+    /**
+     * 打开的元素名在原文中的位置
+     */
+    private int[] nameStarts = new int[16];
+    private int[] nameEnds = new int[16];
+    private int depth;
+
+    private boolean empty;              // 最后输出的开始标签后面还没有内容
+    private boolean inline;             // 开始标签后面紧跟着输出了文本
+    private int skipDepth;              // 超过深度限制时,从这一层开始不输出,-1表示正常输出
+    private int ellipsisDepth;          // 最后输出的"..."所在的层,避免兄弟元素重复输出
+    private boolean closedRoot;         // 根元素已经结束
+
+    private XmlFormatter() {
+    }
+
+    /**
+     * 格式化xml,使用当前线程的实例
+     * @param xml
+     * @param indent    每层缩进的空格数
+     * @param maxLength 最多输出的字符数,超过后截断,0表示不限制
+     * @param maxDepth  最多输出的元素层数,更深的元素用"..."代替,0表示不限制
+     * @return
+     * @throws IllegalArgumentException 不是合法的xml
+     */
+    static String format(String xml, int indent, int maxLength, int maxDepth) {
+        return LOCAL.get().formatXml(xml, indent, maxLength, maxDepth);
+    }
+
+    private String formatXml(String xml, int indent, int maxLength, int maxDepth) {
+        this.xml = xml;
+        this.position = 0;
+        this.length = xml.length();
+        this.indent = indent;
+        this.maxLength = maxLength;
+        this.maxDepth = maxDepth;
+        this.depth = 0;
+        this.empty = false;
+        this.inline = false;
+        this.skipDepth = -1;
+        this.ellipsisDepth = -1;
+        this.closedRoot = false;
+        StringBuilder out = this.out;
+        out.setLength(0);
+        try {
+            while (position < length) {
+                if (xml.charAt(position) == '<') {
+                    markup();
+                } else {
+                    text();
+                }
+                if (maxLength > 0 && out.length() > maxLength) {
+                    // 超过长度限制后不再解析剩余的内容
+                    out.setLength(maxLength);
+                    out.append("\n... (truncated, ").append(length).append(" chars)");
+                    return out.toString();
+                }
+            }
+            if (depth > 0) {
+                throw error("unclosed element");
+            }
+            if (!closedRoot) {
+                throw error("no root element");
+            }
+            return out.toString();
+        } finally {
+            this.xml = null;
+            if (out.capacity() > MAX_BUILDER_CAPACITY) {
+                this.out = new StringBuilder(1024);
+            }
+        }
+    }
+
+    /**
+     * 以'<'开始的内容
+     */
+    private void markup() {
+        String xml = this.xml;
+        int start = position;
+        if (xml.startsWith("<?", start)) {
+            position = find("?>", start + 2) + 2;
+            line(start, position);
+        } else if (xml.startsWith("<!--", start)) {
+            position = find("-->", start + 4) + 3;
+            line(start, position);
+        } else if (xml.startsWith("<![CDATA[", start)) {
+            position = find("]]>", start + 9) + 3;
+            if (depth == 0) {
+                throw error("text outside root element");
+            }
+            content(start, position);
+        } else if (xml.startsWith("<!", start)) {
+            position = declarationEnd(start + 2);
+            line(start, position);
+        } else if (xml.startsWith("</", start)) {
+            endTag(start);
+        } else {
+            startTag(start);
+        }
+    }
+
+    private void startTag(int start) {
+        if (depth == 0 && closedRoot) {
+            throw error("more than one root element");
+        }
+        int nameStart = start + 1;
+        int nameEnd = name(nameStart);
+        // 属性中的引号内可能包含'>'
+        int i = nameEnd;
+        char quote = 0;
+        for (;;) {
+            if (i >= length) {
+                position = i;
+                throw error("unterminated tag");
+            }
+            char c = xml.charAt(i++);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '<') {
+                position = i - 1;
+                throw error("unexpected '<' in tag");
+            } else if (c == '>') {
+                break;
+            }
+        }
+        position = i;
+        boolean selfClosing = xml.charAt(i - 2) == '/';
+        if (skipDepth < 0 && maxDepth > 0 && depth >= maxDepth) {
+            skipDepth = depth;
+            if (ellipsisDepth != depth) {
+                newline(depth);
+                out.append("...");
+                ellipsisDepth = depth;
+            }
+            empty = false;
+            inline = false;
+        }
+        if (skipDepth < 0) {
+            newline(depth);
+            out.append(xml, start, position);
+            empty = !selfClosing;
+            inline = false;
+            ellipsisDepth = -1;
+        }
+        if (selfClosing) {
+            if (skipDepth == depth) {
+                skipDepth = -1;
+            }
+            closedRoot = depth == 0;
+            return;
+        }
+        push(nameStart, nameEnd);
+    }
+
+    private void endTag(int start) {
+        int nameStart = start + 2;
+        int nameEnd = name(nameStart);
+        position = nameEnd;
+        skipWhitespace();
+        if (position >= length || xml.charAt(position) != '>') {
+            throw error("expected '>'");
+        }
+        position++;
+        if (depth == 0) {
+            throw error("unexpected end tag");
+        }
+        depth--;
+        int openStart = nameStarts[depth];
+        int openLength = nameEnds[depth] - openStart;
+        if (nameEnd - nameStart != openLength || !xml.regionMatches(nameStart, xml, openStart, openLength)) {
+            position = start;
+            throw error("mismatched end tag");
+        }
+        closedRoot = depth == 0;
+        if (skipDepth >= 0) {
+            if (skipDepth == depth) {
+                skipDepth = -1;
+            }
+            return;
+        }
+        // 没有内容或者只有文本的元素,结束标签和开始标签在同一行
+        if (!empty && !inline) {
+            newline(depth);
+        }
+        out.append(xml, start, position);
+        empty = false;
+        inline = false;
+        ellipsisDepth = -1;
+    }
+
+    /**
+     * 标签之间的文本,去掉首尾的空白,只有空白时忽略
+     */
+    private void text() {
+        String xml = this.xml;
+        int start = position;
+        int end = xml.indexOf('<', start);
+        if (end < 0) {
+            end = length;
+        }
+        position = end;
+        while (start < end && Character.isWhitespace(xml.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(xml.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        if (depth == 0) {
+            position = start;
+            throw error("text outside root element");
+        }
+        content(start, end);
+    }
+
+    /**
+     * 元素中的文本或CDATA,紧跟在开始标签后面时输出在同一行
+     */
+    private void content(int start, int end) {
+        if (skipDepth >= 0) {
+            return;
+        }
+        if (empty) {
+            inline = true;
+        } else {
+            newline(depth);
+            inline = false;
+        }
+        empty = false;
+        ellipsisDepth = -1;
+        out.append(xml, start, end);
+    }
+
+    /**
+     * 注释,声明,处理指令单独一行
+     */
+    private void line(int start, int end) {
+        if (skipDepth >= 0) {
+            return;
+        }
+        if (out.length() > 0) {
+            newline(depth);
+        }
+        out.append(xml, start, end);
+        empty = false;
+        inline = false;
+        ellipsisDepth = -1;
+    }
+
+    /**
+     * 元素名的结束位置
+     */
+    private int name(int start) {
+        int i = start;
+        while (i < length) {
+            char c = xml.charAt(i);
+            if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+                break;
+            }
+            if (c == '<' || c == '"' || c == '\'' || c == '=') {
+                position = i;
+                throw error("invalid element name");
+            }
+            i++;
+        }
+        if (i == start) {
+            position = start;
+            throw error("missing element name");
+        }
+        return i;
+    }
+
+    /**
+     * <!DOCTYPE ...> 的结束位置,内部子集[...]中可能包含'>'
+     */
+    private int declarationEnd(int from) {
+        int brackets = 0;
+        for (int i = from; i < length; i++) {
+            char c = xml.charAt(i);
+            if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (c == '>' && brackets <= 0) {
+                return i + 1;
+            }
+        }
+        position = length;
+        throw error("unterminated declaration");
+    }
+
+    private int find(String terminator, int from) {
+        int index = xml.indexOf(terminator, from);
+        if (index < 0) {
+            position = length;
+            throw error("missing '" + terminator + "'");
+        }
+        return index;
+    }
+
+    private void skipWhitespace() {
+        while (position < length && Character.isWhitespace(xml.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void push(int nameStart, int nameEnd) {
+        if (depth == nameStarts.length) {
+            int[] grownStarts = new int[depth * 2];
+            int[] grownEnds = new int[depth * 2];
+            System.arraycopy(nameStarts, 0, grownStarts, 0, depth);
+            System.arraycopy(nameEnds, 0, grownEnds, 0, depth);
+            nameStarts = grownStarts;
+            nameEnds = grownEnds;
+        }
+        nameStarts[depth] = nameStart;
+        nameEnds[depth] = nameEnd;
+        depth++;
+    }
+
+    private void newline(int level) {
+        if (out.length() == 0) {
+            return;
+        }
+        int size = 1 + level * indent;
+        if (padding.length() < size) {
+            StringBuilder builder = new StringBuilder(size * 2).append('\n');
+            for (int i = 1; i < size * 2; i++) {
+                builder.append(' ');
+            }
+            padding = builder.toString();
+        }
+        out.append(padding, 0, size);
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException(reason + " at " + position);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ldzspace.log;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 稳定状态下常见的日志调用(短消息,没有异常,不打印方法信息)不分配内存,
+ * 打印方法信息时只有获取调用栈的分配,和栈深度成正比
+ * 参数数组和装箱是调用方的分配,这里复用同一个参数数组,只统计日志本身的分配;
+ * 用ThreadMXBean统计当前线程分配的字节数,不支持的虚拟机上跳过
+ */
+public class AllocationTest {
+    private static final int WARMUP = 20000;
+    private static final int CALLS = 10000;
+
+    @Test
+    public void boxLayoutDoesNotAllocate() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).setLogAdapter(new CountingAdapter());
+        assertNoAllocation(printer);
+    }
+
+    @Test
+    public void patternLayoutDoesNotAllocate() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).layout(new PatternLayout(PatternLayout.FLAT)).setLogAdapter(new CountingAdapter());
+        assertNoAllocation(printer);
+    }
+
+    @Test
+    public void defaultMethodCountAllocationIsBoundedByStackDepth() {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        LoggerPrinter printer = new LoggerPrinter();
+        CountingAdapter adapter = new CountingAdapter();
+        printer.init("APP").setLogAdapter(adapter);
+        for (int i = 0; i < WARMUP; i++) {
+            printer.i("request finished");
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < CALLS; i++) {
+            printer.i("request finished");
+        }
+        long perCall = (threads.getThreadAllocatedBytes(thread) - before) / CALLS;
+        assertTrue(adapter.lines > 0);
+        // 获取调用栈是唯一的分配: Throwable和栈数组的固定开销加上每一帧的StackTraceElement
+        int frames = new Throwable().getStackTrace().length + 4;
+        assertTrue("allocated " + perCall + " bytes per call with " + frames + " frames", perCall < 1536 + 128 * frames);
+    }
+
+    @Test
+    public void filteredObjectDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).setLogAdapter(new CountingAdapter());
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+        Object object = "payload";
+        for (int i = 0; i < WARMUP; i++) {
+            printer.d(object);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < CALLS; i++) {
+            printer.d(object);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue("allocated " + allocated + " bytes in " + CALLS + " calls", allocated < CALLS);
+    }
+
+    @Test
+    public void overflowTagCounterDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        LogMetrics metrics = new LogMetrics(1);
+        for (int i = 0; i < 300; i++) {
+            metrics.logged(Logger.INFO, "tag" + i);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < CALLS; i++) {
+            metrics.logged(Logger.INFO, "tag299");
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue("allocated " + allocated + " bytes in " + CALLS + " calls", allocated < CALLS);
+        assertTrue(metrics.snapshot(0).getLoggedByTag().get(LogMetrics.OTHER_TAGS) > CALLS);
+    }
+
+    private static void assertNoAllocation(LoggerPrinter printer) {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        Printer net = printer.t("net.http");
+        CountingAdapter adapter = (CountingAdapter) printer.getSettings().getLogAdapter();
+        long thread = Thread.currentThread().getId();
+        log(printer, net, WARMUP);
+        long before = threads.getThreadAllocatedBytes(thread);
+        log(printer, net, CALLS);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(adapter.lines > 0);
+        // 允许统计本身的少量分配,但不能每次调用都分配
+        assertTrue("allocated " + allocated + " bytes in " + CALLS + " calls", allocated < CALLS);
+    }
+
+    private static void log(LoggerPrinter printer, Printer net, int calls) {
+        Object[] request = {"r-123456", 20000L};
+        Object[] ratio = {0.5};
+        for (int i = 0; i < calls; i++) {
+            printer.i("request finished");
+            printer.d("request {} took {} ms", request);
+            printer.w("ratio %s", ratio);
+            net.w("retry {}", request);
+            net.e("request failed");
+            net.wtf("request aborted");
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        return threads;
+    }
+
+    private static final class CountingAdapter extends CapturingBatchLogAdapter {
+        long lines;
+
+        @Override
+        public void writeEvent(int priority, String tag, List<CharSequence> event) {
+            lines += event.size();
+        }
+    }
+}
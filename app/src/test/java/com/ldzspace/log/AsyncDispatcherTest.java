@@ -0,0 +1,211 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 环形缓冲区写满时的三种策略,flush/shutdown,以及后台线程中再次打印日志
+ */
+public class AsyncDispatcherTest {
+
+    @Test
+    public void dropNewestDiscardsIncomingEvent() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        AsyncDispatcher<Integer> dispatcher = fill(handler, OverflowPolicy.DROP_NEWEST);
+        assertTrue(dispatcher.dispatch(3));
+        handler.release();
+        dispatcher.flush();
+        assertEquals(Arrays.asList(0, 1, 2), handler.items);
+        assertEquals(1, dispatcher.getDroppedCount());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void dropOldestDiscardsQueuedEvent() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        AsyncDispatcher<Integer> dispatcher = fill(handler, OverflowPolicy.DROP_OLDEST);
+        assertTrue(dispatcher.dispatch(3));
+        handler.release();
+        dispatcher.flush();
+        assertEquals(Arrays.asList(0, 2, 3), handler.items);
+        assertEquals(1, dispatcher.getDroppedCount());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void blockWaitsForSpace() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        final AsyncDispatcher<Integer> dispatcher = fill(handler, OverflowPolicy.BLOCK);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatcher.dispatch(3);
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        handler.release();
+        producer.join(10000);
+        assertFalse(producer.isAlive());
+        dispatcher.flush();
+        assertEquals(Arrays.asList(0, 1, 2, 3), handler.items);
+        assertEquals(0, dispatcher.getDroppedCount());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void shutdownDrainsAndRejectsNewEvents() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        AsyncDispatcher<Integer> dispatcher = fill(handler, OverflowPolicy.BLOCK);
+        handler.release();
+        dispatcher.shutdown();
+        assertEquals(Arrays.asList(0, 1, 2), handler.items);
+        // 关闭后由调用方同步输出
+        assertFalse(dispatcher.dispatch(4));
+    }
+
+    @Test
+    public void eventsRacingShutdownAreHandledOrRejected() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            final AtomicInteger handled = new AtomicInteger();
+            final AtomicInteger rejected = new AtomicInteger();
+            final AsyncDispatcher<Integer> dispatcher = new AsyncDispatcher<>("test-async", new AsyncDispatcher.Handler<Integer>() {
+                @Override
+                public void handle(Integer item) {
+                    handled.incrementAndGet();
+                    if (item == 1000) {
+                        // 抛出异常的adapter不能影响之后的日志
+                        throw new IllegalStateException("adapter failed");
+                    }
+                }
+            }, 64, OverflowPolicy.BLOCK);
+            Thread[] producers = new Thread[4];
+            for (int i = 0; i < producers.length; i++) {
+                producers[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int item = 0; item < 2000; item++) {
+                            if (!dispatcher.dispatch(item)) {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+                producers[i].start();
+            }
+            Thread.sleep(1);
+            dispatcher.shutdown();
+            for (Thread producer : producers) {
+                producer.join(10000);
+            }
+            // 每条日志要么被输出,要么返回false由调用方同步输出
+            assertEquals(producers.length * 2000, handled.get() + rejected.get());
+        }
+    }
+
+    @Test
+    public void consumerLogsSynchronously() {
+        LoggerPrinter printer = new LoggerPrinter();
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        final LoggerPrinter nested = printer;
+        printer.init("APP").methodCount(0).hideThreadInfo().async(16, OverflowPolicy.BLOCK).setLogAdapter(new CapturingBatchLogAdapter() {
+            @Override
+            public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+                super.writeEvent(priority, tag, lines);
+                threads.add(Thread.currentThread().getName());
+                if ("outer".equals(lines.get(1).toString())) {
+                    // 后台线程里再打印,不能等待自己
+                    nested.i("inner");
+                }
+            }
+        });
+        printer.i("outer");
+        printer.flush();
+        assertEquals(Arrays.asList("outer", "inner"), ((CapturingBatchLogAdapter) printer.getSettings().getLogAdapter()).line(1));
+        assertEquals(Arrays.asList("DZLOG-async", "DZLOG-async"), threads);
+        printer.shutdown();
+    }
+
+    @Test
+    public void switchingBackToSyncDrainsDispatcher() {
+        LoggerPrinter printer = new LoggerPrinter();
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter() {
+            @Override
+            public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+                super.writeEvent(priority, tag, lines);
+                threads.add(Thread.currentThread().getName());
+            }
+        };
+        printer.init("APP").methodCount(0).hideThreadInfo().async(16, OverflowPolicy.BLOCK).setLogAdapter(adapter);
+        for (int i = 0; i < 5; i++) {
+            printer.i("async {}", i);
+        }
+        printer.getSettings().sync();
+        // 切换后的第一条日志先输出后台线程中剩余的日志
+        printer.i("sync");
+        assertEquals(6, adapter.line(1).size());
+        assertEquals("sync", adapter.line(1).get(5));
+        assertEquals(Thread.currentThread().getName(), threads.get(5));
+        assertFalse(printer.getSettings().isAsync());
+    }
+
+    @Test
+    public void rejectsBufferSizeThatCannotBeRounded() {
+        try {
+            new RingBuffer<Object>(RingBuffer.MAX_CAPACITY + 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // 取整为2的幂会溢出
+        }
+        try {
+            new LoggerPrinter().getSettings().async(Integer.MAX_VALUE, OverflowPolicy.BLOCK);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // 在配置时拒绝,不等到第一次打印
+        }
+    }
+
+    /**
+     * 容量为2的缓冲区: 后台线程阻塞在第0条上,缓冲区中是第1,2条
+     */
+    private static AsyncDispatcher<Integer> fill(BlockingHandler handler, OverflowPolicy policy) throws InterruptedException {
+        AsyncDispatcher<Integer> dispatcher = new AsyncDispatcher<>("test-async", handler, 2, policy);
+        assertTrue(dispatcher.dispatch(0));
+        assertTrue(handler.started.await(10, TimeUnit.SECONDS));
+        assertTrue(dispatcher.dispatch(1));
+        assertTrue(dispatcher.dispatch(2));
+        return dispatcher;
+    }
+
+    private static final class BlockingHandler implements AsyncDispatcher.Handler<Integer> {
+        final List<Integer> items = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public void handle(Integer item) {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            items.add(item);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+    }
+}
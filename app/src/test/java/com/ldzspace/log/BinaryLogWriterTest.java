@@ -0,0 +1,138 @@
+package com.ldzspace.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * 二进制日志写入后还原的文本和直接输出的文本相同
+ */
+public class BinaryLogWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void decodesToSameBoxAsTextOutput() throws Exception {
+        File dir = folder.newFolder();
+        BinaryLogWriter writer = new BinaryLogWriter(dir, 64 * 1024, 0, 4);
+        CapturingAdapter text = new CapturingAdapter();
+        LoggerPrinter textPrinter = new LoggerPrinter();
+        textPrinter.getSettings().setLogAdapter(text);
+        LoggerPrinter binaryPrinter = new LoggerPrinter();
+        binaryPrinter.getSettings().binaryOutput(writer, false).setLogAdapter(new CapturingAdapter());
+
+        List<LogEvent> events = new ArrayList<>();
+        events.add(event(Logger.DEBUG, null, 2, "count {} of {}", new Object[]{3L, -4L}));
+        events.add(event(Logger.INFO, "net", 1, "ratio %s", new Object[]{0.25}));
+        events.add(event(Logger.WARN, "net", 0, "第一行\n第二行 {}",
+                new Object[]{Collections.singletonList("中文")}));
+        events.add(event(Logger.ERROR, null, 2, "hex %x %d {} {}",
+                new Object[]{-1, (short) -2, 1.5f, null}));
+        LogEvent failure = event(Logger.ERROR, "io", 2, "failed", null);
+        failure.throwable = new IllegalStateException("boom");
+        events.add(failure);
+        LogEvent structured = event(Logger.INFO, "net", 0, "request done", null);
+        structured.fields = new LogFields(new String[]{"userId", "latencyMs", "cached", "path"},
+                new byte[]{LogFields.TYPE_LONG, LogFields.TYPE_DOUBLE, LogFields.TYPE_BOOLEAN, LogFields.TYPE_OBJECT},
+                new long[]{-42, Double.doubleToRawLongBits(1.5), 1, 0}, new Object[]{null, null, null, "/feed"});
+        events.add(structured);
+        events.add(event(Logger.ASSERT, "io", 2, null, null));
+
+        for (LogEvent event : events) {
+            textPrinter.print(event);
+            binaryPrinter.print(event);
+        }
+        writer.close();
+
+        StringBuilder decoded = new StringBuilder();
+        assertEquals(events.size(), new BinaryLogDecoder(decoded).decode(dir));
+        assertEquals(text.toString(), decoded.toString());
+    }
+
+    @Test
+    public void rollsOverAndRedefinesStrings() throws Exception {
+        File dir = folder.newFolder();
+        BinaryLogWriter writer = new BinaryLogWriter(dir, 1024, 0, 100);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.getSettings().binaryOutput(writer, false).setLogAdapter(new CapturingAdapter());
+        for (int i = 0; i < 500; i++) {
+            printer.print(event(Logger.INFO, "loop", 0, "iteration {}", new Object[]{i}));
+        }
+        writer.close();
+
+        assertTrue(writer.getSegments().length > 1);
+        StringBuilder decoded = new StringBuilder();
+        assertEquals(500, new BinaryLogDecoder(decoded).decode(dir));
+        assertTrue(decoded.toString().contains("I/DZLOG-loop: iteration 499\n"));
+    }
+
+    @Test
+    public void encodesSmallerThanText() throws Exception {
+        File dir = folder.newFolder();
+        BinaryLogWriter writer = new BinaryLogWriter(dir, 1024 * 1024, 0, 4);
+        CapturingAdapter text = new CapturingAdapter();
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.getSettings().binaryOutput(writer, true).setLogAdapter(text);
+        for (int i = 0; i < 100; i++) {
+            printer.print(event(Logger.DEBUG, "net", 2, "request {} took {}", new Object[]{i, i * 7}));
+        }
+        writer.close();
+
+        long binaryBytes = writer.getSegments()[0].length();
+        long textBytes = text.toString().getBytes("UTF-8").length;
+        assertTrue(binaryBytes * 10 < textBytes);
+    }
+
+    private static LogEvent event(int priority, String tag, int methodCount, String message,
+                                  Object[] args) {
+        LogEvent event = new LogEvent();
+        event.priority = priority;
+        event.tag = TagRegistry.intern(tag);
+        event.methodCount = methodCount;
+        event.message = message;
+        event.args = args;
+        event.threadName = "main";
+        event.timestamp = 1000000000000L + priority * 1234L;
+        if (methodCount > 0) {
+            event.stackTrace = new StackTraceElement[]{
+                    new StackTraceElement("com.example.Service", "load", "Service.java", 42),
+                    new StackTraceElement("com.example.MainActivity", "onCreate", "MainActivity.java", 17),
+                    new StackTraceElement("android.app.Activity", "performCreate", null, -2),
+            };
+        }
+        return event;
+    }
+
+    /**
+     * 按BinaryLogDecoder的行格式收集输出
+     */
+    private static final class CapturingAdapter extends CapturingBatchLogAdapter {
+        private final StringBuilder out = new StringBuilder();
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+        private final char[] priorities = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+        private long timestamp = 1000000000000L;
+
+        @Override
+        public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+            String prefix = dateFormat.format(new Date(timestamp + priority * 1234L)) + ' ' + priorities[priority] + '/' + tag + ": ";
+            for (CharSequence line : lines) {
+                out.append(prefix).append(line).append('\n');
+            }
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 测试使用的批量adapter,除了按行记录,还按日志记录每条日志的所有行
+ * 需要其他行为的测试覆盖writeEvent
+ */
+class CapturingBatchLogAdapter extends CapturingLogAdapter implements BatchLogAdapter {
+    final List<List<String>> events = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    @Override
+    public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+        List<String> event = new ArrayList<>(lines.size());
+        for (CharSequence line : lines) {
+            event.add(line.toString());
+            add(priority, tag, line.toString());
+        }
+        events.add(event);
+    }
+
+    /**
+     * @param index 边框格式中1是第一行内容
+     * @return 每条日志的第index行
+     */
+    List<String> line(int index) {
+        synchronized (events) {
+            List<String> result = new ArrayList<>(events.size());
+            for (List<String> event : events) {
+                result.add(event.get(index));
+            }
+            return result;
+        }
+    }
+}
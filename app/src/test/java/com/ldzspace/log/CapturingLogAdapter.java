@@ -0,0 +1,65 @@
+package com.ldzspace.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 测试使用的LogAdapter,按行记录tag和内容,可以在多个线程中使用
+ */
+class CapturingLogAdapter implements LogAdapter {
+    final List<Integer> priorities = Collections.synchronizedList(new ArrayList<Integer>());
+    final List<String> tags = Collections.synchronizedList(new ArrayList<String>());
+    final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+    void add(int priority, String tag, String message) {
+        synchronized (messages) {
+            priorities.add(priority);
+            tags.add(tag);
+            messages.add(message);
+        }
+    }
+
+    /**
+     * @return 每行的 tag:内容
+     */
+    List<String> tagged() {
+        synchronized (messages) {
+            List<String> result = new ArrayList<>(messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                result.add(tags.get(i) + ":" + messages.get(i));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        add(Logger.DEBUG, tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        add(Logger.ERROR, tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        add(Logger.VERBOSE, tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        add(Logger.INFO, tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        add(Logger.WARN, tag, message);
+    }
+
+    @Override
+    public void wtf(String tag, String message) {
+        add(Logger.ASSERT, tag, message);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 崩溃缓冲区在级别过滤之前记录,输出时才格式化
+ */
+public class CrashBufferTest {
+    @Test
+    public void keepsLastEventsEvenWhenFiltered() {
+        CrashBuffer crashBuffer = new CrashBuffer(3, LogLevel.DEBUG);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").crashBuffer(crashBuffer).hideThreadInfo().setLogLevel(LogLevel.NONE);
+        CapturingLogAdapter live = new CapturingLogAdapter();
+        printer.getSettings().setLogAdapter(live);
+
+        printer.v("verbose is below the buffer level");
+        printer.d("first %d", 1);
+        printer.d("second {}", 2L);
+        printer.t("net", 0).i("third {} {}", 3, "x");
+        printer.e(new IllegalStateException("boom"), "fourth", null);
+        assertTrue(live.messages.isEmpty());
+
+        CapturingLogAdapter dump = new CapturingLogAdapter();
+        assertEquals(4, crashBuffer.getCapacity());
+        assertEquals(4, crashBuffer.dumpTo(dump));
+        List<String> content = new ArrayList<>();
+        for (String line : dump.tagged()) {
+            // 只比较消息行,跳过边框和线程信息
+            String text = line.substring(line.indexOf(':') + 1);
+            if ("╔╚╟║".indexOf(text.charAt(0)) < 0) {
+                content.add(line);
+            }
+        }
+        assertEquals("APP:first 1", content.get(0));
+        assertEquals("APP:second 2", content.get(1));
+        assertEquals("APP-net:third 3 x", content.get(2));
+        assertTrue(content.get(3).startsWith("APP:fourth: java.lang.IllegalStateException: boom"));
+        assertTrue(dump.tagged().contains("APP:║ Thread: main"));
+    }
+
+    @Test
+    public void recordsFilteredObjectJsonXmlAndStructuredEvents() {
+        CrashBuffer crashBuffer = new CrashBuffer(8, LogLevel.DEBUG);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").crashBuffer(crashBuffer).methodCount(0).hideThreadInfo().setLogLevel(LogLevel.NONE);
+        printer.getSettings().setLogAdapter(new CapturingLogAdapter());
+
+        printer.d((Object) new String[]{"a", "b"});
+        printer.json("{\"id\":1}");
+        printer.t("xml").xml("<a/>");
+        printer.atInfo().kv("ms", 5).log("done");
+        printer.atVerbose().kv("ms", 6).log("below the buffer level");
+
+        CapturingLogAdapter dump = new CapturingLogAdapter();
+        assertEquals(4, crashBuffer.dumpTo(dump));
+        assertTrue(dump.tagged().contains("APP:[a, b]"));
+        assertTrue(dump.tagged().contains("APP:{\"id\":1}"));
+        assertTrue(dump.tagged().contains("APP-xml:<a/>"));
+        assertTrue(dump.tagged().contains("APP:done ms=5"));
+    }
+
+    @Test
+    public void uncaughtExceptionUsesPrinterTag() {
+        CrashBuffer crashBuffer = new CrashBuffer(4, LogLevel.DEBUG);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").crashBuffer(crashBuffer).methodCount(0).setLogLevel(LogLevel.NONE);
+        CapturingLogAdapter dump = new CapturingLogAdapter();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        try {
+            crashBuffer.installUncaughtExceptionHandler(dump);
+            Thread.getDefaultUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), new IllegalStateException("boom"));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+        assertTrue(dump.tagged().contains("APP-crash:uncaught exception in thread main: java.lang.IllegalStateException: boom"));
+    }
+
+    @Test
+    public void tagFollowsPrinterNotBuiltSnapshots() {
+        CrashBuffer crashBuffer = new CrashBuffer(4, LogLevel.DEBUG);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").crashBuffer(crashBuffer).methodCount(0).setLogLevel(LogLevel.NONE);
+        printer.init("NET");
+        // 只构建不安装的快照不影响崩溃缓冲区
+        printer.getSettings().getConfig().toBuilder().tag("OTHER").build();
+        CapturingLogAdapter dump = new CapturingLogAdapter();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        try {
+            crashBuffer.installUncaughtExceptionHandler(dump);
+            Thread.getDefaultUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), new IllegalStateException("boom"));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+        assertTrue(dump.tagged().contains("NET-crash:uncaught exception in thread main: java.lang.IllegalStateException: boom"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 结构化日志的过滤,文本输出和结构化adapter
+ */
+public class EventBuilderTest {
+
+    @Test
+    public void filteredLevelReturnsNoOpAndSkipsSuppliers() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").setLogAdapter(new CapturingBatchLogAdapter());
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+        final int[] calls = new int[1];
+        EventBuilder builder = printer.atDebug();
+        assertSame(StructuredEventBuilder.NO_OP, builder);
+        builder.kv("state", new ValueSupplier<String>() {
+            @Override
+            public String get() {
+                calls[0]++;
+                return "expensive";
+            }
+        }).log("tick");
+        assertEquals(0, calls[0]);
+        // log()之后同一线程复用同一个实例
+        EventBuilder first = printer.atInfo().kv("a", 1);
+        first.log("first");
+        EventBuilder second = printer.atInfo();
+        second.log("second");
+        assertSame(first, second);
+    }
+
+    @Test
+    public void appendsFieldsToTextOutput() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().setLogAdapter(adapter);
+        printer.atInfo().kv("userId", 42).kv("latencyMs", 1.5).kv("cached", true).kv("path", "/feed")
+                .kv("lazy", new ValueSupplier<Integer>() {
+                    @Override
+                    public Integer get() {
+                        return 7;
+                    }
+                }).log("request done");
+        assertEquals("request done userId=42 latencyMs=1.5 cached=true path=/feed lazy=7", adapter.line(1).get(0));
+    }
+
+    @Test
+    public void structuredAdapterReceivesTypedFields() {
+        LoggerPrinter printer = new LoggerPrinter();
+        final List<LogFields> received = new ArrayList<>();
+        final List<String> receivedTags = new ArrayList<>();
+        printer.init("APP").setLogAdapter(new StructuredAdapterStub() {
+            @Override
+            public void writeStructured(int priority, String tag, long timestamp, String threadName,
+                                        String message, Throwable throwable, LogFields fields) {
+                receivedTags.add(tag);
+                received.add(fields);
+            }
+        });
+        printer.t("net").atWarn().kv("retries", 3L).kv("body", "say \"hi\"\n").log("slow");
+        printer.w("plain");
+
+        assertEquals("APP-net", receivedTags.get(0));
+        LogFields fields = received.get(0);
+        assertEquals(LogFields.TYPE_LONG, fields.getType(0));
+        assertEquals(3L, fields.getLong(0));
+        StringBuilder json = new StringBuilder();
+        fields.appendJson(json);
+        assertEquals("{\"retries\":3,\"body\":\"say \\\"hi\\\"\\n\"}", json.toString());
+        assertSame(LogFields.EMPTY, received.get(1));
+    }
+
+    private abstract static class StructuredAdapterStub extends CapturingLogAdapter implements StructuredLogAdapter {
+    }
+}
@@ -0,0 +1,115 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * FanOutLogAdapter的过滤,目标之间的隔离和统计
+ */
+public class FanOutLogAdapterTest {
+    @Test
+    public void filtersByLevelAndTag() {
+        FanOutLogAdapter fanOut = new FanOutLogAdapter();
+        RecordingAdapter all = new RecordingAdapter(null);
+        RecordingAdapter errors = new RecordingAdapter(null);
+        RecordingAdapter network = new RecordingAdapter(null);
+        fanOut.addSink("all", all, LogLevel.FULL);
+        fanOut.addSink("errors", errors, LogLevel.ERROR);
+        fanOut.addSink("network", network, LogLevel.FULL, "DZLOG-net");
+
+        fanOut.writeEvent(Logger.DEBUG, "DZLOG", Arrays.<CharSequence>asList("debug"));
+        fanOut.writeEvent(Logger.ERROR, "DZLOG-net", Arrays.<CharSequence>asList("error", "second line"));
+        fanOut.flush();
+        fanOut.close();
+
+        assertEquals(Arrays.asList("DZLOG:debug", "DZLOG-net:error", "DZLOG-net:second line"), all.tagged());
+        assertEquals(Arrays.asList("DZLOG-net:error", "DZLOG-net:second line"), errors.tagged());
+        assertEquals(Arrays.asList("DZLOG-net:error", "DZLOG-net:second line"), network.tagged());
+    }
+
+    @Test
+    public void slowSinkDoesNotStallOthers() throws Exception {
+        FanOutLogAdapter fanOut = new FanOutLogAdapter();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAdapter slow = new RecordingAdapter(release);
+        RecordingAdapter fast = new RecordingAdapter(null);
+        FanOutLogAdapter.Sink slowSink = fanOut.addSink("slow", slow, LogLevel.FULL, 4, OverflowPolicy.DROP_NEWEST);
+        FanOutLogAdapter.Sink fastSink = fanOut.addSink("fast", fast, LogLevel.FULL);
+
+        // 输入的行在调用返回后会被复用
+        List<CharSequence> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.clear();
+            lines.add(new StringBuilder("line ").append(i));
+            fanOut.writeEvent(Logger.INFO, "DZLOG", lines);
+        }
+        // 慢的目标还卡在第一条日志上,快的目标已经全部输出
+        while (fastSink.getWrittenCount() < 100) {
+            Thread.sleep(1);
+        }
+        assertEquals(100, fast.messages.size());
+        assertEquals("DZLOG:line 99", fast.tagged().get(99));
+        assertEquals(0, fastSink.getDroppedCount());
+        assertTrue(slowSink.getDroppedCount() > 0);
+
+        release.countDown();
+        fanOut.flush();
+        assertEquals(100, slowSink.getWrittenCount() + slowSink.getDroppedCount());
+        assertTrue(slowSink.getMaxLatencyNanos() >= fastSink.getMaxLatencyNanos());
+        fanOut.close();
+    }
+
+    @Test
+    public void printerFlushWaitsForTagAdapters() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        FanOutLogAdapter fanOut = new FanOutLogAdapter();
+        RecordingAdapter slow = new RecordingAdapter(release);
+        fanOut.addSink("slow", slow, LogLevel.FULL);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).hideThreadInfo().logAdapter("net", fanOut).setLogAdapter(new CapturingBatchLogAdapter());
+
+        printer.t("net").i("queued");
+        Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            }
+        });
+        releaser.start();
+        // 只设置给tag的FanOutLogAdapter也要等待
+        printer.flush();
+        assertTrue(slow.messages.contains("queued"));
+        fanOut.close();
+    }
+
+    private static final class RecordingAdapter extends CapturingBatchLogAdapter {
+        private final CountDownLatch release;
+
+        RecordingAdapter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.writeEvent(priority, tag, lines);
+        }
+    }
+}
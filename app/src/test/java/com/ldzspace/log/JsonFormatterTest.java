@@ -0,0 +1,74 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * JsonFormatter的缩进,校验和数组截断
+ */
+public class JsonFormatterTest {
+    @Test
+    public void indentsKeepingOrderAndTokens() {
+        String json = " {\"b\":1.50,\"a\":[true,null,\"x\\\"y\"],\"empty\":{},\"list\":[]} ";
+        String expected = "{\n"
+                + "  \"b\": 1.50,\n"
+                + "  \"a\": [\n"
+                + "    true,\n"
+                + "    null,\n"
+                + "    \"x\\\"y\"\n"
+                + "  ],\n"
+                + "  \"empty\": {},\n"
+                + "  \"list\": []\n"
+                + "}";
+        assertEquals(expected, new JsonFormatter(2, 0).format(json));
+    }
+
+    @Test
+    public void summarizesLongArrays() {
+        String json = "[[1,2,3,4],{\"k\":[5,6,7]},8]";
+        String expected = "[\n"
+                + "  [\n"
+                + "    1,\n"
+                + "    2,\n"
+                + "    ... (2 more)\n"
+                + "  ],\n"
+                + "  {\n"
+                + "    \"k\": [\n"
+                + "      5,\n"
+                + "      6,\n"
+                + "      ... (1 more)\n"
+                + "    ]\n"
+                + "  },\n"
+                + "  ... (1 more)\n"
+                + "]";
+        assertEquals(expected, new JsonFormatter(2, 2).format(json));
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        String[] invalid = {
+                "{\"a\":1,}", "{\"a\" 1}", "{a:1}", "[1 2]", "[01]", "[1.]", "[\"\\x\"]",
+                "{\"a\":[1}", "[1]]", "[tru]", "{\"a\":\"b", "[-]", "{\"a\":\"\u0001\"}",
+                "\u000B{}", "[1,\u000B2]", "{}\u00A0",
+        };
+        for (String json : invalid) {
+            try {
+                new JsonFormatter(2, 0).format(json);
+                fail(json);
+            } catch (IllegalArgumentException expected) {
+                // 期望的异常
+            }
+        }
+    }
+
+    @Test
+    public void validatesSkippedElements() {
+        try {
+            new JsonFormatter(2, 1).format("[1,2,{\"a\":}]");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().endsWith("at 10"));
+        }
+    }
+}
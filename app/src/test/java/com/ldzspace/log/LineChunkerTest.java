@@ -0,0 +1,94 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 按换行和UTF-8字节数拆分,不拆开多字节字符和代理对
+ */
+public class LineChunkerTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void splitsMultiByteTextAtByteLimit() {
+        // 3字节的汉字,4000字节正好1333个字再多1字节
+        String text = repeat("日", 1334);
+        List<String> lines = chunk(text, Layout.CHUNK_SIZE);
+        assertEquals(2, lines.size());
+        assertEquals(1333, lines.get(0).length());
+        assertEquals(3999, lines.get(0).getBytes(UTF_8).length);
+        assertEquals(text, lines.get(0) + lines.get(1));
+
+        // 正好4000字节不拆分,原字符串直接返回
+        String exact = repeat("é", 2000);
+        LineChunker chunker = new LineChunker(exact, Layout.CHUNK_SIZE);
+        assertTrue(chunker.next());
+        assertSame(exact, chunker.line());
+        assertEquals(4000, chunker.lineBytes());
+        assertFalse(chunker.next());
+    }
+
+    @Test
+    public void keepsSurrogatePairTogether() {
+        // 3999字节的ASCII之后是4字节的表情,放不下时整个移到下一行
+        String emoji = "😀";
+        String text = repeat("a", 3999) + emoji + "b";
+        List<String> lines = chunk(text, Layout.CHUNK_SIZE);
+        assertEquals(2, lines.size());
+        assertEquals(repeat("a", 3999), lines.get(0));
+        assertEquals(emoji + "b", lines.get(1));
+
+        lines = chunk(repeat("a", 3996) + emoji + "b", Layout.CHUNK_SIZE);
+        assertEquals(repeat("a", 3996) + emoji, lines.get(0));
+        assertEquals("b", lines.get(1));
+    }
+
+    @Test
+    public void splitsLongSingleLine() {
+        String text = repeat("0123456789", 1000);
+        List<String> lines = chunk(text, Layout.CHUNK_SIZE);
+        assertEquals(3, lines.size());
+        assertEquals(4000, lines.get(0).length());
+        assertEquals(4000, lines.get(1).length());
+        assertEquals(2000, lines.get(2).length());
+        assertEquals(text, lines.get(0) + lines.get(1) + lines.get(2));
+    }
+
+    @Test
+    public void handlesCrLfLineEndings() {
+        List<String> lines = chunk("first\r\nsecond\r\n\r\nfourth\r\n\r\n", Layout.CHUNK_SIZE);
+        assertEquals(4, lines.size());
+        assertEquals("first", lines.get(0));
+        assertEquals("second", lines.get(1));
+        assertEquals("", lines.get(2));
+        assertEquals("fourth", lines.get(3));
+
+        // StringBuilder和String的结果相同
+        assertEquals(lines, chunk(new StringBuilder("first\r\nsecond\r\n\r\nfourth\r\n\r\n"), Layout.CHUNK_SIZE));
+    }
+
+    private static List<String> chunk(CharSequence text, int maxBytes) {
+        List<String> lines = new ArrayList<>();
+        LineChunker chunker = new LineChunker(text, maxBytes);
+        while (chunker.next()) {
+            String line = chunker.line();
+            assertTrue(line.getBytes(UTF_8).length <= maxBytes);
+            assertEquals(line.getBytes(UTF_8).length, chunker.lineBytes());
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 普通的LogAdapter通过桥接逐行按级别输出
+ */
+public class LogAdapterBridgeTest {
+
+    @Test
+    public void batchAdapterIsNotWrapped() {
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        assertSame(adapter, LogAdapterBridge.wrap(adapter));
+    }
+
+    @Test
+    public void writesEachLineWithItsPriority() {
+        CapturingLogAdapter adapter = new CapturingLogAdapter();
+        BatchLogAdapter bridge = LogAdapterBridge.wrap(adapter);
+        int[] priorities = {Logger.VERBOSE, Logger.DEBUG, Logger.INFO, Logger.WARN, Logger.ERROR, Logger.ASSERT};
+        for (int priority : priorities) {
+            // 输入的行在调用返回后会被复用
+            StringBuilder line = new StringBuilder("line ").append(priority);
+            bridge.writeEvent(priority, "APP", Arrays.<CharSequence>asList(line, "second"));
+            line.setLength(0);
+        }
+        assertEquals(12, adapter.messages.size());
+        for (int i = 0; i < priorities.length; i++) {
+            assertEquals(priorities[i], (int) adapter.priorities.get(i * 2));
+            assertEquals(priorities[i], (int) adapter.priorities.get(i * 2 + 1));
+            assertEquals("line " + priorities[i], adapter.messages.get(i * 2));
+            assertEquals("second", adapter.messages.get(i * 2 + 1));
+        }
+        assertEquals(Collections.nCopies(12, "APP"), adapter.tags);
+    }
+
+    @Test
+    public void printerFallsBackToLineByLine() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingLogAdapter adapter = new CapturingLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().setLogAdapter(adapter);
+        printer.t("net").w("first\nsecond");
+
+        List<String> messages = adapter.messages;
+        // 上下边框和两行内容,每行一次调用
+        assertEquals(4, messages.size());
+        assertEquals("first", messages.get(1));
+        assertEquals("second", messages.get(2));
+        assertEquals(Collections.nCopies(4, Logger.WARN), adapter.priorities);
+        assertEquals(Collections.nCopies(4, "APP-net"), adapter.tags);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ldzspace.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分段的压缩归档,块索引的随机读取和后台压缩
+ */
+public class LogArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compactsSegmentIntoIndexedBlocks() throws Exception {
+        File dir = folder.newFolder();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 20000; i++) {
+            text.append("10-18 12:00:00.000 I/DZLOG: ").append(BoxLayout.TOP_BORDER).append('\n')
+                    .append("10-18 12:00:00.000 I/DZLOG: ║ request ").append(i).append(" done\n");
+        }
+        byte[] data = text.toString().getBytes("UTF-8");
+        File segment = MappedFileLogAdapter.segmentFile(dir, 1);
+        FileOutputStream out = new FileOutputStream(segment);
+        out.write(data);
+        // 没能截断的分段末尾是0
+        out.write(new byte[5000]);
+        out.close();
+
+        File archive = new LogArchiver(4096, LogArchiver.DEFAULT_DICTIONARY, 4).compact(segment);
+        assertFalse(segment.exists());
+        assertTrue(archive.length() * 10 < data.length);
+
+        LogArchive reader = new LogArchive(archive);
+        assertEquals(data.length, reader.length());
+        assertEquals((data.length + 4095) / 4096, reader.getBlockCount());
+        assertArrayEquals(data, reader.readAll());
+        // 跨两个块读取
+        byte[] slice = new byte[300];
+        assertEquals(300, reader.read(4000, slice, 0, 300));
+        assertArrayEquals(Arrays.copyOfRange(data, 4000, 4300), slice);
+        assertEquals(-1, reader.read(data.length, slice, 0, 1));
+        reader.close();
+
+        try {
+            new LogArchive(archive, "other".getBytes("UTF-8"));
+            fail();
+        } catch (IOException expected) {
+            // 压缩时使用的是另一个字典
+        }
+    }
+
+    @Test
+    public void compactsRolledSegmentsInBackground() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(dir, 4096, 0, 8);
+        // 上次运行留下的分段
+        adapter.writeEvent(Logger.INFO, "T", Arrays.<CharSequence>asList("previous run"));
+        adapter.close();
+        adapter = new MappedFileLogAdapter(dir, 4096, 0, 8);
+        LogArchiver archiver = new LogArchiver();
+        adapter.archiveTo(archiver);
+        List<CharSequence> lines = Arrays.<CharSequence>asList(BoxLayout.TOP_BORDER, "║ message", BoxLayout.BOTTOM_BORDER);
+        for (int i = 0; i < 60; i++) {
+            adapter.writeEvent(Logger.DEBUG, "DZLOG", lines);
+        }
+        assertTrue(archiver.awaitIdle(10000));
+        adapter.close();
+        archiver.close();
+
+        File[] archives = LogArchiver.list(dir);
+        assertTrue(archives.length > 1);
+        // 只剩下当前的分段没有压缩
+        assertEquals(1, adapter.getSegments().length);
+        LogArchive first = new LogArchive(archives[0]);
+        assertTrue(new String(first.readAll(), "UTF-8").endsWith(" I/T: previous run\n"));
+        first.close();
+    }
+
+    @Test
+    public void decoderReadsArchivedBinarySegments() throws Exception {
+        File dir = folder.newFolder();
+        BinaryLogWriter writer = new BinaryLogWriter(dir, 4096, 0, 8);
+        LogArchiver archiver = new LogArchiver();
+        writer.archiveTo(archiver);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).binaryOutput(writer, false);
+        for (int i = 0; i < 500; i++) {
+            printer.i("event {} of {}", i, 500);
+        }
+        assertTrue(archiver.awaitIdle(10000));
+        writer.close();
+
+        assertTrue(LogArchiver.list(dir).length > 0);
+        StringBuilder out = new StringBuilder();
+        assertEquals(500, new BinaryLogDecoder(out).decode(dir));
+        assertTrue(out.indexOf("event 0 of 500") >= 0);
+        assertTrue(out.indexOf("event 499 of 500") >= 0);
+    }
+
+    @Test
+    public void keepsTrailingZeroOfLastBinaryFrame() throws Exception {
+        File dir = folder.newFolder();
+        BinaryLogWriter writer = new BinaryLogWriter(dir, 4096, 0, 8);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).binaryOutput(writer, false);
+        // 没有参数的日志最后一个字节是0
+        for (int i = 0; i < 5; i++) {
+            printer.i("plain message " + i);
+        }
+        writer.close();
+        File segment = writer.getSegments()[0];
+        assertEquals(5, new BinaryLogDecoder(new StringBuilder()).decode(segment));
+
+        File archive = new LogArchiver().compact(segment);
+        StringBuilder out = new StringBuilder();
+        assertEquals(5, new BinaryLogDecoder(out).decode(archive));
+        assertTrue(out.indexOf("plain message 4") >= 0);
+    }
+}
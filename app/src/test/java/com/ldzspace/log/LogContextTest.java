@@ -0,0 +1,76 @@
+package com.ldzspace.log;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 日志上下文的写时复制,输出,以及跨线程池的传递
+ */
+public class LogContextTest {
+
+    @After
+    public void tearDown() {
+        LogContext.clear();
+    }
+
+    @Test
+    public void copiesOnWriteAndKeepsSnapshots() {
+        LogContext.put("userId", "42");
+        LogContext.put("requestId", "r-1");
+        LogContext snapshot = LogContext.current();
+        assertSame(snapshot, LogContext.current());
+        // 按key排序
+        assertEquals("requestId", snapshot.getKey(0));
+        assertEquals("42", snapshot.get("userId"));
+        assertSame(snapshot, snapshot.with("userId", "42"));
+
+        LogContext.put("requestId", "r-2");
+        LogContext.remove("userId");
+        assertEquals("r-1", snapshot.get("requestId"));
+        assertEquals(2, snapshot.size());
+        assertEquals("requestId=r-2", LogContext.current().toString());
+        LogContext.put("requestId", null);
+        assertSame(LogContext.EMPTY, LogContext.current());
+    }
+
+    @Test
+    public void propagatesAcrossExecutorWithAsyncDispatch() throws Exception {
+        final LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().async().setLogAdapter(adapter);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            LogContext.put("requestId", "r-7");
+            LogContext.wrap(pool).execute(new Runnable() {
+                @Override
+                public void run() {
+                    LogContext.put("step", "load");
+                    printer.i("loaded");
+                }
+            });
+            // 没有包装的任务不带上下文,包装的任务中的修改也不会留在线程池的线程上
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    printer.i("bare");
+                }
+            }).get(10, TimeUnit.SECONDS);
+            printer.atInfo().kv("ms", 5).log("done");
+            // 打印之后修改上下文不影响还在队列中的日志
+            LogContext.put("requestId", "r-8");
+            printer.flush();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(3, adapter.line(1).size());
+        assertTrue(adapter.line(1).contains("loaded requestId=r-7 step=load"));
+        assertTrue(adapter.line(1).contains("bare"));
+        assertTrue(adapter.line(1).contains("done requestId=r-7 ms=5"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 按优先级和tag过滤,被过滤的调用不格式化参数
+ */
+public class LogLevelTest {
+
+    @Test
+    public void filtersBelowThreshold() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().setLogAdapter(adapter);
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+
+        assertFalse(printer.isLoggable(Logger.VERBOSE, null));
+        assertFalse(printer.isLoggable(Logger.DEBUG, null));
+        assertTrue(printer.isLoggable(Logger.INFO, null));
+        assertTrue(printer.isLoggable(Logger.ASSERT, null));
+
+        printer.v("verbose");
+        printer.d("debug");
+        printer.i("info");
+        printer.w("warn");
+        printer.e("error");
+        assertEquals(Arrays.asList("info", "warn", "error"), adapter.line(1));
+
+        printer.getSettings().setLogLevel(LogLevel.NONE);
+        printer.wtf("assert");
+        assertFalse(printer.isLoggable(Logger.ASSERT, null));
+        assertEquals(3, adapter.events.size());
+    }
+
+    @Test
+    public void tagLevelOverridesGlobalLevel() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().logLevel("net", LogLevel.ERROR).logLevel("db", LogLevel.VERBOSE);
+        printer.getSettings().setLogAdapter(adapter);
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+
+        assertFalse(printer.isLoggable(Logger.WARN, "net"));
+        assertTrue(printer.isLoggable(Logger.ERROR, "net"));
+        assertTrue(printer.isLoggable(Logger.VERBOSE, "db"));
+        assertFalse(printer.isLoggable(Logger.DEBUG, "cache"));
+
+        printer.t("net").w("net warn");
+        printer.t("net").e("net error");
+        printer.t("db").v("db verbose");
+        printer.t("cache").d("cache debug");
+        printer.w("plain warn");
+        assertEquals(Arrays.asList("net error", "db verbose", "plain warn"), adapter.line(1));
+
+        // 移除后使用全局级别
+        printer.getSettings().logLevel("net", null);
+        assertEquals(LogLevel.INFO, printer.getSettings().getLogLevel("net"));
+        assertTrue(printer.isLoggable(Logger.WARN, "net"));
+    }
+
+    @Test
+    public void filteredCallsDoNotFormatArguments() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(2).setLogAdapter(adapter);
+        printer.getSettings().setLogLevel(LogLevel.WARN);
+        final int[] calls = new int[1];
+        Object expensive = new Object() {
+            @Override
+            public String toString() {
+                calls[0]++;
+                return "expensive";
+            }
+        };
+
+        printer.d("value {}", expensive);
+        printer.i("value %s", expensive);
+        printer.d(expensive);
+        printer.d(new Object[]{expensive});
+        printer.t("net").i("value {}", expensive);
+        // 被过滤时不解析,格式错误也不会输出错误信息
+        printer.json("{broken");
+        printer.xml("<broken");
+        assertEquals(0, calls[0]);
+        assertTrue(adapter.events.isEmpty());
+
+        printer.w("value {}", expensive);
+        assertEquals(1, calls[0]);
+        assertEquals(1, adapter.events.size());
+    }
+
+    @Test
+    public void tagsRegisteredAfterSnapshotResolveIncrementally() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").logLevel("grow.net", LogLevel.ERROR);
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+        LogConfig config = printer.getSettings().getConfig();
+        // 每次查询前注册新的tag,解析表多次扩展,已解析的结果要保留
+        for (int i = 0; i < 300; i++) {
+            assertFalse(config.isLoggable(Logger.WARN, TagRegistry.intern("grow.net.n" + i)));
+            assertTrue(config.isLoggable(Logger.WARN, TagRegistry.intern("grow.ui.n" + i)));
+            assertFalse(config.isLoggable(Logger.DEBUG, TagRegistry.intern("grow.ui.n" + (i / 2))));
+            assertTrue(config.isLoggable(Logger.ERROR, TagRegistry.intern("grow.net.n" + (i / 2))));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+
+import static org.junit.Assert.*;
+
+/**
+ * 统计计数和各阶段耗时
+ */
+public class LogMetricsTest {
+
+    @Test
+    public void countsLoggedFilteredAndOutput() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).hideThreadInfo().metrics(new LogMetrics(1));
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+        printer.getSettings().setLogAdapter(new CapturingBatchLogAdapter());
+
+        printer.d("debug {}", 1L);
+        printer.i("line1\nline2");
+        printer.t("net").e("failed {}", "x");
+        printer.w("warn");
+
+        LogMetrics.Snapshot snapshot = printer.metrics();
+        assertEquals(1, snapshot.getFiltered());
+        assertEquals(3, snapshot.getLoggedTotal());
+        assertEquals(1, snapshot.getLogged(Logger.ERROR));
+        assertEquals(Long.valueOf(1), snapshot.getLoggedByTag().get("net"));
+        assertEquals(Long.valueOf(2), snapshot.getLoggedByTag().get("APP"));
+        assertEquals(4, snapshot.getChunks());
+        assertEquals("line1".length() * 2 + "failed x".length() + "warn".length(), snapshot.getBytes());
+        assertEquals(3, snapshot.getLatency(LogMetrics.STAGE_CALL).getCount());
+        assertEquals(3, snapshot.getLatency(LogMetrics.STAGE_WRITE).getCount());
+        // methodCount为0时不获取栈信息
+        assertEquals(0, snapshot.getLatency(LogMetrics.STAGE_CAPTURE).getCount());
+    }
+
+    @Test
+    public void disabledByDefault() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").setLogAdapter(new CapturingBatchLogAdapter());
+        printer.d("hello");
+        assertNull(printer.metrics());
+    }
+
+    @Test
+    public void samplesLatency() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").methodCount(0).metrics(new LogMetrics(3)).setLogAdapter(new CapturingBatchLogAdapter());
+        for (int i = 0; i < 16; i++) {
+            printer.i("value {}", i);
+        }
+        LogMetrics.Snapshot snapshot = printer.metrics();
+        assertEquals(16, snapshot.getLogged(Logger.INFO));
+        // 3向上取为4
+        assertEquals(4, snapshot.getLatency(LogMetrics.STAGE_CALL).getCount());
+        assertEquals(4, snapshot.getLatency(LogMetrics.STAGE_FORMAT).getCount());
+    }
+
+    @Test
+    public void percentileIsBucketUpperBound() {
+        LogMetrics metrics = new LogMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.latency(LogMetrics.STAGE_FORMAT, 100);
+        }
+        metrics.latency(LogMetrics.STAGE_FORMAT, 5000);
+        LogMetrics.HistogramSnapshot latency = metrics.snapshot(0).getLatency(LogMetrics.STAGE_FORMAT);
+        assertEquals(127, latency.getPercentileNanos(0.5));
+        assertEquals(127, latency.getPercentileNanos(0.99));
+        assertEquals(8191, latency.getPercentileNanos(1));
+        assertEquals((99 * 100 + 5000) / 100, latency.getMeanNanos());
+    }
+}
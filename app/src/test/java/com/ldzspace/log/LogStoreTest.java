@@ -0,0 +1,109 @@
+package com.ldzspace.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * LogStore的索引和查询
+ */
+public class LogStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void queriesByTimeTagLevelAndWord() throws Exception {
+        LogStore store = new LogStore(folder.newFolder(), 4096, 64, 4096);
+        for (int i = 0; i < 1000; i++) {
+            String tag = i % 10 == 0 ? "DZLOG-net" : "DZLOG-ui";
+            int priority = i % 100 == 0 ? Logger.ERROR : Logger.DEBUG;
+            store.writeStructured(priority, tag, 1000L + i, "main", "user " + i + " clicked", null, LogFields.EMPTY);
+        }
+        assertTrue(store.getSegments().length > 1);
+
+        assertEquals(1000, count(store, Long.MIN_VALUE, Long.MAX_VALUE, null, null, null));
+        assertEquals(11, count(store, 1100, 1110, null, null, null));
+        assertEquals(100, count(store, Long.MIN_VALUE, Long.MAX_VALUE, Collections.singleton("DZLOG-net"), null, null));
+        assertEquals(10, count(store, Long.MIN_VALUE, Long.MAX_VALUE, null, LogLevel.ERROR, null));
+        assertEquals(5, count(store, 1000, 1499, Collections.singleton("DZLOG-net"), LogLevel.WARN, null));
+        // 按单词匹配,不匹配user 420
+        List<LogStore.Record> records = query(store, Long.MIN_VALUE, Long.MAX_VALUE, null, null, "user 42");
+        assertEquals(1, records.size());
+        assertEquals("user 42 clicked", records.get(0).getMessage());
+        assertEquals(1042, records.get(0).getTimestamp());
+        assertEquals("DZLOG-ui", records.get(0).getTag());
+        assertEquals(0, count(store, Long.MIN_VALUE, Long.MAX_VALUE, null, null, "missing"));
+
+        // visitor返回false时停止
+        final int[] visited = new int[1];
+        int matched = store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, new LogStore.Visitor() {
+            @Override
+            public boolean visit(LogStore.Record record) {
+                return ++visited[0] < 3;
+            }
+        });
+        assertEquals(3, matched);
+        assertEquals(3, visited[0]);
+        store.close();
+    }
+
+    @Test
+    public void indexesSegmentsFromPreviousRun() throws Exception {
+        File dir = folder.newFolder();
+        LogStore store = new LogStore(dir);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("DZLOG").setLogAdapter(store);
+        printer.t("net").atWarn().kv("status", 503).log("upstream failed");
+        printer.t("net").e(new IllegalStateException("boom"), "request %s failed", "/feed");
+        store.close();
+
+        store = new LogStore(dir);
+        store.i("DZLOG", "second run");
+        assertEquals(3, count(store, Long.MIN_VALUE, Long.MAX_VALUE, null, null, null));
+        List<LogStore.Record> records = query(store, Long.MIN_VALUE, Long.MAX_VALUE,
+                Arrays.asList("DZLOG-net"), LogLevel.WARN, "status=503");
+        assertEquals(1, records.size());
+        assertEquals("upstream failed status=503", records.get(0).getMessage());
+        records = query(store, Long.MIN_VALUE, Long.MAX_VALUE, null, LogLevel.ERROR, "IllegalStateException");
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).getMessage().startsWith("request /feed failed: java.lang.IllegalStateException: boom"));
+        store.close();
+    }
+
+    @Test
+    public void bloomFilterRejectsAbsentWords() {
+        LogStore.Bloom bloom = new LogStore.Bloom(1024);
+        bloom.addTokens("request 9f3ab1 finished in 17 ms");
+        assertTrue(bloom.mightContainTokens("9f3ab1"));
+        assertTrue(bloom.mightContainTokens("finished in 17"));
+        assertFalse(bloom.mightContainTokens("7c0de2"));
+    }
+
+    private static int count(LogStore store, long from, long to, Collection<String> tags, LogLevel level,
+                             String contains) throws Exception {
+        return query(store, from, to, tags, level, contains).size();
+    }
+
+    private static List<LogStore.Record> query(LogStore store, long from, long to, Collection<String> tags,
+                                               LogLevel level, String contains) throws Exception {
+        final List<LogStore.Record> records = new ArrayList<>();
+        int matched = store.query(from, to, tags, level, contains, new LogStore.Visitor() {
+            @Override
+            public boolean visit(LogStore.Record record) {
+                records.add(record);
+                return true;
+            }
+        });
+        assertEquals(records.size(), matched);
+        return records;
+    }
+}
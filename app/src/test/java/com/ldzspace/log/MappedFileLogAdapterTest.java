@@ -0,0 +1,139 @@
+package com.ldzspace.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * MappedFileLogAdapter在JVM上的测试,使用临时目录
+ */
+public class MappedFileLogAdapterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesEventLinesWithPrefix() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(dir, 4096, 0, 4);
+        adapter.writeEvent(Logger.INFO, "DZLOG-net", Arrays.<CharSequence>asList("first", "第二行"));
+        adapter.close();
+
+        String[] lines = read(adapter.getSegments()[0]).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].endsWith(" I/DZLOG-net: first"));
+        assertTrue(lines[1].endsWith(" I/DZLOG-net: 第二行"));
+        // 关闭后未使用的部分被截断
+        assertEquals(read(adapter.getSegments()[0]).getBytes("UTF-8").length, adapter.getSegments()[0].length());
+    }
+
+    @Test
+    public void rollsOverBySizeAndKeepsRetention() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(dir, 1024, 0, 3);
+        List<CharSequence> line = Collections.<CharSequence>singletonList(repeat('x', 200));
+        for (int i = 0; i < 40; i++) {
+            adapter.writeEvent(Logger.DEBUG, "T", line);
+        }
+        adapter.close();
+
+        File[] segments = adapter.getSegments();
+        assertEquals(3, segments.length);
+        for (File segment : segments) {
+            assertTrue(segment.length() <= 1024);
+        }
+        // 最旧的分段已被删除
+        assertFalse(MappedFileLogAdapter.segmentFile(dir, 1).exists());
+    }
+
+    @Test
+    public void rollsOverByTime() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(dir, 4096, 1, 10);
+        adapter.writeEvent(Logger.DEBUG, "T", Collections.<CharSequence>singletonList("a"));
+        Thread.sleep(5);
+        adapter.writeEvent(Logger.DEBUG, "T", Collections.<CharSequence>singletonList("b"));
+        adapter.close();
+        assertEquals(2, adapter.getSegments().length);
+    }
+
+    @Test
+    public void resumesAfterCrashWithoutClose() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter crashed = new MappedFileLogAdapter(dir, 4096, 0, 4);
+        crashed.writeEvent(Logger.WARN, "T", Collections.<CharSequence>singletonList("before crash"));
+        // 不调用close,模拟进程被杀死
+
+        MappedFileLogAdapter reopened = new MappedFileLogAdapter(dir, 4096, 0, 4);
+        reopened.writeEvent(Logger.WARN, "T", Collections.<CharSequence>singletonList("after restart"));
+        reopened.close();
+
+        File[] segments = reopened.getSegments();
+        assertEquals(1, segments.length);
+        String[] lines = read(segments[0]).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].endsWith("W/T: before crash"));
+        assertTrue(lines[1].endsWith("W/T: after restart"));
+    }
+
+    @Test
+    public void truncatesLineLargerThanSegmentOnCharacterBoundary() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(dir, 1024, 0, 4);
+        adapter.writeEvent(Logger.ERROR, "T", Collections.<CharSequence>singletonList(repeat('中', 1000)));
+        adapter.close();
+
+        File segment = adapter.getSegments()[adapter.getSegments().length - 1];
+        String content = read(segment);
+        assertTrue(segment.length() <= 1024);
+        assertTrue(content.endsWith("中\n"));
+    }
+
+    @Test
+    public void worksAsSettingsAdapter() throws Exception {
+        File dir = folder.newFolder();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(dir, 8192, 0, 4);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("DZLOG").methodCount(0).hideThreadInfo().setLogAdapter(adapter);
+        printer.i("hello %s", "file");
+        adapter.close();
+
+        String content = read(adapter.getSegments()[0]);
+        assertTrue(content.contains("I/DZLOG: hello file\n"));
+        // 上边界,内容,下边界
+        assertEquals(3, content.split("\n").length);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            String content = out.toString("UTF-8");
+            int end = content.indexOf('\0');
+            return end < 0 ? content : content.substring(0, end);
+        } finally {
+            in.close();
+        }
+    }
+}
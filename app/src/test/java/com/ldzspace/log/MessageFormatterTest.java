@@ -0,0 +1,57 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * MessageFormatter的输出和String.format一致,{} 和 %s 相同,只有数组参数在 {} 下会展开内容
+ */
+public class MessageFormatterTest {
+
+    @Test
+    public void matchesStringFormat() {
+        assertFormat("hex %x", -1);
+        assertFormat("hex %X %x", (byte) -1, (short) -1);
+        assertFormat("hex %x", -1L);
+        assertFormat("char %s", 'a');
+        assertFormat("null %s %d", null, (Integer) null);
+        assertFormat("%d items in %d ms, ratio %s %s", 42, 17L, 0.1, 1.1f);
+        assertFormat("done %s%% %b%n", 100, true);
+        assertFormat("array %s", (Object) new int[]{1});
+        assertFormat("array %s", (Object) new Object[]{1, "a"});
+    }
+
+    @Test
+    public void bracesFormatLikePercentS() {
+        assertEquals("char a, 97", format("char {}, {}", 'a', (int) 'a'));
+        assertEquals("ratio 0.1 null", format("ratio {} {}", 0.1, null));
+        assertEquals("nested [[1, 2]] {}", format("nested {} {}", (Object) new Object[]{new int[]{1, 2}}));
+    }
+
+    @Test
+    public void fallsBackToStringFormat() {
+        assertFormat("%.2f ms", 1.005);
+        assertFormat("%5d|", 42);
+        try {
+            format("%d", 'a');
+            fail();
+        } catch (java.util.IllegalFormatConversionException expected) {
+            // 和String.format一样抛出异常
+        }
+    }
+
+    private static void assertFormat(String pattern, Object... args) {
+        assertEquals(String.format(pattern, args), format(pattern, args));
+    }
+
+    /**
+     * 和LoggerPrinter的可变参数方法一样创建事件
+     */
+    private static String format(String pattern, Object... args) {
+        LogEvent event = new LogEvent();
+        event.message = pattern;
+        event.args = args;
+        return MessageFormatter.format(event, false);
+    }
+}
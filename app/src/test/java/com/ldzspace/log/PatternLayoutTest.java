@@ -0,0 +1,54 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * 模板的编译和单行输出
+ */
+public class PatternLayoutTest {
+
+    @Test
+    public void formatsEachMessageLine() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(1).layout(new PatternLayout("%level/%tag [%thread] %caller: %msg <%%>"))
+                .setLogAdapter(adapter);
+        printer.t("net").w("first\nsecond");
+
+        String thread = Thread.currentThread().getName();
+        assertEquals(2, adapter.messages.size());
+        assertTrue(adapter.messages.get(0), adapter.messages.get(0).matches(
+                "W/APP-net \\[" + thread + "\\] PatternLayoutTest\\.formatsEachMessageLine\\(PatternLayoutTest\\.java:\\d+\\): first <%>"));
+        assertTrue(adapter.messages.get(1).endsWith(": second <%>"));
+    }
+
+    @Test
+    public void formatsTimeWithoutDateFormat() {
+        LogEvent event = new LogEvent();
+        event.priority = Logger.INFO;
+        event.threadName = "main";
+        event.timestamp = 1792300000123L;
+        LineBuffer buffer = new LineBuffer();
+        new PatternLayout(PatternLayout.FLAT).layout(event, "APP", "hello", LogConfig.defaults(), buffer, null);
+        String time = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US).format(new Date(event.timestamp));
+        assertEquals(time + " I/APP [main] : hello", buffer.lines.get(0).toString());
+    }
+
+    @Test
+    public void rejectsInvalidPatterns() {
+        String[] patterns = {"%msg %msg", "%unknown %msg"};
+        for (String pattern : patterns) {
+            try {
+                new PatternLayout(pattern);
+                fail(pattern);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 令牌桶,重复消息合并和汇总行
+ */
+public class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void limitsEachCallSite() {
+        RateLimiter limiter = new RateLimiter(1, 3, 0, 10000, true);
+        long now = System.nanoTime();
+        int allowed = 0;
+        for (int i = 0; i < 5; i++) {
+            if (limiter.acquire("net", "retry {}", new Object[]{i}, now) >= 0) {
+                allowed++;
+            }
+        }
+        assertEquals(3, allowed);
+        // 其他调用位置有自己的令牌桶
+        assertEquals(0, limiter.acquire("net", "connected", null, now));
+        // 1秒后恢复一个令牌
+        assertEquals(0, limiter.acquire("net", "retry {}", new Object[]{5}, now + SECOND));
+        assertEquals(-1, limiter.acquire("net", "retry {}", new Object[]{6}, now + SECOND));
+
+        assertEquals("suppressed 3 messages: [net] retry {} x3", limiter.pollSummary(now + SECOND, true));
+        assertNull(limiter.pollSummary(now + SECOND, true));
+    }
+
+    @Test
+    public void collapsesRepeatedMessages() {
+        RateLimiter limiter = new RateLimiter(1000, 1000, 1000, 10000, true);
+        long now = System.nanoTime();
+        Object[] args = {"alice"};
+        assertEquals(0, limiter.acquire(null, "user {} logged in", args, now));
+        for (int i = 0; i < 9; i++) {
+            assertEquals(-1, limiter.acquire(null, "user {} logged in", new Object[]{"alice"}, now + i));
+        }
+        // 参数不同时输出,并报告之前合并的数量
+        assertEquals(9, limiter.acquire(null, "user {} logged in", new Object[]{"bob"}, now + 10));
+        // 超过时间窗口后相同的消息也输出
+        assertEquals(0, limiter.acquire(null, "user {} logged in", new Object[]{"bob"}, now + 2 * SECOND));
+    }
+
+    @Test
+    public void newSitesPastLimitShareTagBucket() {
+        RateLimiter limiter = new RateLimiter(1, 1, 0, 10000, true);
+        long now = System.nanoTime();
+        for (int i = 0; i < RateLimiter.MAX_SITES; i++) {
+            assertEquals(0, limiter.acquire("net", "site " + i, null, now));
+        }
+        // 超过上限后不再不限流
+        assertEquals(0, limiter.acquire("net", "late 1", null, now));
+        assertEquals(-1, limiter.acquire("net", "late 2", null, now));
+        assertEquals(0, limiter.acquire("db", "late 3", null, now));
+        assertEquals("suppressed 1 messages: [net] * x1", limiter.pollSummary(now, true));
+    }
+
+    @Test
+    public void evictsIdleSites() {
+        RateLimiter limiter = new RateLimiter(1, 1, 0, 10000, true);
+        long now = System.nanoTime();
+        for (int i = 0; i < RateLimiter.MAX_SITES; i++) {
+            limiter.acquire("net", "site " + i, null, now);
+        }
+        // 令牌回满后汇总时移除,新的位置又有自己的令牌桶
+        assertNull(limiter.pollSummary(now + 2 * SECOND, true));
+        assertEquals(0, limiter.acquire("net", "late 1", null, now + 2 * SECOND));
+        assertEquals(0, limiter.acquire("net", "late 2", null, now + 2 * SECOND));
+        assertEquals(-1, limiter.acquire("net", "late 2", null, now + 2 * SECOND));
+    }
+
+    @Test
+    public void printerEmitsRepeatAndSummaryLines() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingBatchLogAdapter adapter = new CapturingBatchLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().rateLimit(new RateLimiter(1, 2));
+        printer.getSettings().setLogAdapter(adapter);
+
+        for (int i = 0; i < 1000; i++) {
+            printer.w("frame dropped {}", 5L);
+        }
+        printer.w("frame dropped {}", 6L);
+        printer.w("frame dropped {}", 7L);
+        assertEquals(Arrays.asList("frame dropped 5", "last message repeated 999 times", "frame dropped 6"), adapter.line(1));
+
+        printer.flush();
+        assertEquals("suppressed 1 messages: frame dropped {} x1", adapter.line(1).get(3));
+        assertEquals("APP-ratelimit", adapter.tags.get(adapter.messages.indexOf("suppressed 1 messages: frame dropped {} x1")));
+    }
+}
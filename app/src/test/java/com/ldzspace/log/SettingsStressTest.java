@@ -0,0 +1,143 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多个线程打印日志的同时切换配置,每条日志只能使用其中一份完整的配置
+ */
+public class SettingsStressTest {
+    private static final int LOG_THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 5000;
+    private static final int TAG_UPDATES = 200;
+
+    @Test
+    public void reconfigureWhileLogging() throws Exception {
+        final LoggerPrinter printer = new LoggerPrinter();
+        final Settings settings = printer.init("APP");
+        // 配置X: 不打印方法和线程,全部输出到a,每条日志3行
+        final CountingAdapter a = new CountingAdapter(3);
+        // 配置Y: 打印线程和1个方法,net被过滤,输出到b,每条日志7行
+        final CountingAdapter b = new CountingAdapter(7);
+        settings.setLogAdapter(a);
+        settings.methodCount(0).hideThreadInfo();
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch loggers = new CountDownLatch(LOG_THREADS);
+        Thread[] threads = new Thread[LOG_THREADS + 2];
+        for (int i = 0; i < LOG_THREADS; i++) {
+            threads[i] = new Thread(new Guarded(failure) {
+                @Override
+                void work() throws Exception {
+                    start.await();
+                    Printer net = printer.t("net");
+                    for (int n = 0; n < EVENTS_PER_THREAD; n++) {
+                        printer.d("event {}", n);
+                        net.d("net {}", (long) n);
+                    }
+                    loggers.countDown();
+                }
+            });
+        }
+        // 整体切换多项配置
+        threads[LOG_THREADS] = new Thread(new Guarded(failure) {
+            @Override
+            void work() throws Exception {
+                start.await();
+                boolean y = false;
+                while (loggers.getCount() > 0) {
+                    y = !y;
+                    LogConfig current;
+                    LogConfig next;
+                    do {
+                        current = settings.getConfig();
+                        next = y
+                                ? current.toBuilder().logAdapter(b).methodCount(1).showThreadInfo(true).logLevel("net", LogLevel.NONE).build()
+                                : current.toBuilder().logAdapter(a).methodCount(0).showThreadInfo(false).logLevel("net", null).build();
+                    } while (!settings.compareAndSet(current, next));
+                }
+            }
+        });
+        // 同时逐项修改,不能被整体切换覆盖
+        threads[LOG_THREADS + 1] = new Thread(new Guarded(failure) {
+            @Override
+            void work() throws Exception {
+                start.await();
+                for (int k = 0; k < TAG_UPDATES; k++) {
+                    settings.logLevel("tag" + k, LogLevel.WARN);
+                    Thread.yield();
+                }
+            }
+        });
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(60000);
+        }
+
+        assertNull(String.valueOf(failure.get()), failure.get());
+        assertEquals(0, a.malformed.get());
+        assertEquals(0, b.malformed.get());
+        assertEquals("net is filtered in Y", 0, b.netEvents.get());
+        assertEquals(LOG_THREADS * EVENTS_PER_THREAD, a.baseEvents.get() + b.baseEvents.get());
+        for (int k = 0; k < TAG_UPDATES; k++) {
+            assertEquals(LogLevel.WARN, settings.getLogLevel("tag" + k));
+        }
+    }
+
+    /**
+     * 记录线程中的异常
+     */
+    private abstract static class Guarded implements Runnable {
+        private final AtomicReference<Throwable> failure;
+
+        Guarded(AtomicReference<Throwable> failure) {
+            this.failure = failure;
+        }
+
+        abstract void work() throws Exception;
+
+        @Override
+        public void run() {
+            try {
+                work();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    private static final class CountingAdapter extends CapturingBatchLogAdapter {
+        final int expectedLines;
+        final AtomicInteger baseEvents = new AtomicInteger();
+        final AtomicInteger netEvents = new AtomicInteger();
+        final AtomicInteger malformed = new AtomicInteger();
+
+        CountingAdapter(int expectedLines) {
+            this.expectedLines = expectedLines;
+        }
+
+        @Override
+        public void writeEvent(int priority, String tag, List<CharSequence> lines) {
+            if (lines.size() != expectedLines) {
+                malformed.incrementAndGet();
+            }
+            if ("APP-net".equals(tag)) {
+                netEvents.incrementAndGet();
+            } else if ("APP".equals(tag)) {
+                baseEvents.incrementAndGet();
+            } else {
+                malformed.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+
+import static org.junit.Assert.*;
+
+/**
+ * t()返回的printer是缓存的,tag和方法数只作用于这个printer
+ */
+public class TaggedPrinterTest {
+    @Test
+    public void cachesPrintersPerTagAndMethodCount() {
+        LoggerPrinter printer = new LoggerPrinter();
+        assertSame(printer.t("net"), printer.t("net"));
+        assertSame(printer.t("net", 0), printer.t("net", 0));
+        assertSame(printer.t(null, 3), printer.t(null, 3));
+        assertNotSame(printer.t("net"), printer.t("net", 0));
+        assertNotSame(printer.t("net", 0), printer.t("db", 0));
+    }
+
+    @Test
+    public void loggerPrintersFollowInit() {
+        Printer net = Logger.t("net");
+        assertSame(net, Logger.t("net"));
+        CapturingLogAdapter adapter = new CapturingLogAdapter();
+        try {
+            Logger.init("APP").methodCount(0).hideThreadInfo().setLogAdapter(adapter);
+            // init()之前获取的实例使用新的printer
+            net.i("after init");
+            assertEquals("APP-net", adapter.tags.get(0));
+            assertTrue(adapter.messages.contains("after init"));
+        } finally {
+            Logger.init();
+        }
+    }
+
+    @Test
+    public void overrideDoesNotLeakIntoNextCall() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingLogAdapter adapter = new CapturingLogAdapter();
+        printer.init("APP").methodCount(1).hideThreadInfo().logLevel("net", LogLevel.NONE);
+        printer.getSettings().setLogAdapter(adapter);
+
+        // t()之后没有打印,或者打印被过滤,都不影响下一条日志
+        printer.t("db", 0);
+        printer.t("net", 0).d("hidden");
+        printer.d("plain {}", 1);
+        assertEquals("APP", adapter.tags.get(0));
+        assertTrue(adapter.messages.contains("plain 1"));
+        assertTrue(adapter.messages.get(1).contains("TaggedPrinterTest.overrideDoesNotLeakIntoNextCall"));
+
+        adapter.tags.clear();
+        adapter.messages.clear();
+        Printer db = printer.t("db", 0);
+        db.i("query {} rows", 5L);
+        db.json("{\"a\":1}");
+        assertEquals("APP-db", adapter.tags.get(0));
+        assertFalse(adapter.tags.contains("APP"));
+        assertEquals("query 5 rows", adapter.messages.get(1));
+        // json()的内容行也使用db的tag,方法数为0时没有调用位置
+        assertTrue(adapter.messages.contains("  \"a\": 1"));
+        assertFalse(adapter.messages.get(1).contains("TaggedPrinterTest"));
+    }
+
+    @Test
+    public void childTagsInheritLevelAndAdapter() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingLogAdapter main = new CapturingLogAdapter();
+        CapturingLogAdapter network = new CapturingLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().logLevel("net", LogLevel.WARN).logAdapter("net", network);
+        printer.getSettings().setLogAdapter(main);
+
+        Printer retry = printer.t("net.http.retry");
+        retry.i("hidden");
+        retry.w("retry {}", 1L);
+        printer.t("network").i("not a child");
+        assertEquals(LogLevel.WARN, printer.getSettings().getLogLevel("net.http"));
+        assertEquals(LogLevel.FULL, printer.getSettings().getLogLevel("network"));
+        assertEquals("APP-net.http.retry", network.tags.get(0));
+        assertTrue(network.messages.contains("retry 1"));
+        assertFalse(network.messages.contains("hidden"));
+        assertEquals("APP-network", main.tags.get(0));
+        assertFalse(main.tags.contains("APP-net.http.retry"));
+
+        // 下级tag单独设置的级别优先
+        printer.getSettings().logLevel("net.http.retry", LogLevel.DEBUG).logAdapter("net", null);
+        retry.i("shown");
+        assertFalse(network.messages.contains("shown"));
+        assertTrue(main.messages.contains("shown"));
+    }
+
+    @Test
+    public void formatsTagOncePerBaseTag() {
+        Tag tag = TagRegistry.intern("db.pool");
+        assertSame(tag, TagRegistry.intern("db.pool"));
+        assertSame(TagRegistry.intern("db"), tag.parent);
+        assertSame(tag, TagRegistry.get(tag.id));
+        String formatted = tag.format("APP");
+        assertEquals("APP-db.pool", formatted);
+        assertSame(formatted, tag.format(new String("APP")));
+        assertEquals("OTHER-db.pool", tag.format("OTHER"));
+        assertEquals("db.pool", tag.format("db.pool"));
+        assertNull(TagRegistry.intern(""));
+    }
+
+    @Test
+    public void queriesDoNotRegisterTags() {
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("APP").logLevel("query", LogLevel.ERROR);
+        int registered = TagRegistry.size();
+        assertFalse(printer.isLoggable(Logger.WARN, "query.dynamic.1"));
+        assertEquals(LogLevel.ERROR, printer.getSettings().getLogLevel("query.dynamic.2"));
+        assertEquals(registered, TagRegistry.size());
+        // 未注册的tag缓存后重复查询不再创建
+        Tag tag = TagRegistry.lookup("query.dynamic.1");
+        assertEquals(-1, tag.id);
+        assertSame(tag, TagRegistry.lookup("query.dynamic.1"));
+        assertEquals("query", tag.parent.parent.name);
+    }
+
+    @Test
+    public void untaggedQueryUsesPrinterTagLevel() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingLogAdapter adapter = new CapturingLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().logLevel("APP", LogLevel.ERROR).setLogAdapter(adapter);
+        assertFalse(printer.isLoggable(Logger.WARN, null));
+        assertEquals(LogLevel.ERROR, printer.getSettings().getLogLevel((String) null));
+        printer.w("hidden");
+        assertTrue(adapter.messages.isEmpty());
+        assertTrue(printer.isLoggable(Logger.WARN, "net"));
+    }
+
+    @Test
+    public void noArgCallsPrintMessageAsIs() {
+        LoggerPrinter printer = new LoggerPrinter();
+        CapturingLogAdapter adapter = new CapturingLogAdapter();
+        printer.init("APP").methodCount(0).hideThreadInfo().setLogAdapter(adapter);
+        // 没有参数时不按模板解析
+        printer.wtf("100% {}");
+        printer.t("net").wtf("50% {}");
+        printer.e("10% {}");
+        assertEquals(Logger.ASSERT, (int) adapter.priorities.get(1));
+        assertEquals("100% {}", adapter.messages.get(1));
+        assertEquals("APP-net", adapter.tags.get(4));
+        assertEquals("50% {}", adapter.messages.get(4));
+        assertEquals("10% {}", adapter.messages.get(7));
+    }
+}
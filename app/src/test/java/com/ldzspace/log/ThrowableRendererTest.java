@@ -0,0 +1,87 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.*;
+
+/**
+ * 异常的格式化: 和printStackTrace()一致,以及各种长度限制
+ */
+public class ThrowableRendererTest {
+
+    @Test
+    public void matchesPrintStackTraceWithinLimits() {
+        IllegalStateException cause = new IllegalStateException("inner");
+        // 后两帧和外层相同,合并成 "... 2 more"
+        cause.setStackTrace(new StackTraceElement[]{frame("a.C", 9), frame("a.B", 4), frame("a.B", 5)});
+        RuntimeException outer = exception(new RuntimeException("outer", cause), "a.B", 5);
+        outer.addSuppressed(exception(new IllegalArgumentException("closing"), "a.C", 2));
+        StringWriter expected = new StringWriter();
+        PrintWriter writer = new PrintWriter(expected);
+        outer.printStackTrace(writer);
+        writer.flush();
+        assertTrue(expected.toString().contains("... 2 more"));
+        assertEquals(expected.toString().replace(System.getProperty("line.separator"), "\n"),
+                new ThrowableRenderer(8, 64).render(outer));
+    }
+
+    @Test
+    public void limitsFramesDepthAndFoldsPackages() {
+        RuntimeException root = new RuntimeException("root");
+        root.setStackTrace(new StackTraceElement[]{
+                frame("app.Main", 1),
+                frame("io.reactivex.internal.A", 2),
+                frame("io.reactivex.internal.B", 3),
+                frame("io.reactivex.internal.C", 4),
+                frame("app.Main", 5),
+                frame("app.Main", 6),
+                frame("app.Main", 7),
+        });
+        Throwable chain = root;
+        for (int i = 0; i < 5; i++) {
+            chain = exception(new RuntimeException("level" + i, chain), "app.Level" + i, 1);
+        }
+        String rendered = new ThrowableRenderer(6, 3, "io.reactivex.internal.").render(chain);
+        assertTrue(rendered, rendered.contains("\tat app.Main.run(Main.java:1)\n\t... 3 frames in io.reactivex.internal\n\tat app.Main.run(Main.java:5)\n\t... 2 more frames\n"));
+        assertFalse(rendered.contains("omitted"));
+
+        rendered = new ThrowableRenderer(3, 3).render(chain);
+        assertFalse(rendered.contains("root"));
+        assertTrue(rendered.endsWith("\t... (more causes omitted)\n"));
+    }
+
+    @Test
+    public void cachesIdenticalTracesAndHandlesCycles() {
+        ThrowableRenderer renderer = new ThrowableRenderer();
+        RuntimeException first = exception(new RuntimeException("same"), "a.B", 3);
+        RuntimeException second = exception(new RuntimeException("same"), "a.B", 3);
+        String rendered = renderer.render(first);
+        assertEquals(rendered, renderer.render(second));
+        assertNotEquals(rendered, renderer.render(exception(new RuntimeException("other"), "a.B", 3)));
+
+        RuntimeException a = exception(new RuntimeException("a"), "a.A", 1);
+        RuntimeException b = exception(new RuntimeException("b"), "a.B", 1);
+        a.initCause(b);
+        b.initCause(a);
+        assertTrue(renderer.render(a).contains("[CIRCULAR REFERENCE: java.lang.RuntimeException: a]"));
+
+        assertEquals("", renderer.render(new RuntimeException(new UnknownHostException("offline"))));
+    }
+
+    private static <T extends Throwable> T exception(T throwable, String className, int frames) {
+        StackTraceElement[] trace = new StackTraceElement[frames];
+        for (int i = 0; i < frames; i++) {
+            trace[i] = frame(className, i + 1);
+        }
+        throwable.setStackTrace(trace);
+        return throwable;
+    }
+
+    private static StackTraceElement frame(String className, int line) {
+        return new StackTraceElement(className, "run", className.substring(className.lastIndexOf('.') + 1) + ".java", line);
+    }
+}
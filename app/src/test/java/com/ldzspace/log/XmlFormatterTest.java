@@ -0,0 +1,67 @@
+package com.ldzspace.log;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * XmlFormatter的缩进,校验和输出限制
+ */
+public class XmlFormatterTest {
+    @Test
+    public void indentsElementsAndKeepsTextInline() {
+        String xml = "<?xml version=\"1.0\"?><!-- users --><users count=\"2\">"
+                + "<user id=\"1\"><name>a &amp; b</name><tags/></user>"
+                + "<user id='2>'>\n  <name><![CDATA[<c>]]></name>\n</user></users>";
+        String expected = "<?xml version=\"1.0\"?>\n"
+                + "<!-- users -->\n"
+                + "<users count=\"2\">\n"
+                + "  <user id=\"1\">\n"
+                + "    <name>a &amp; b</name>\n"
+                + "    <tags/>\n"
+                + "  </user>\n"
+                + "  <user id='2>'>\n"
+                + "    <name><![CDATA[<c>]]></name>\n"
+                + "  </user>\n"
+                + "</users>";
+        assertEquals(expected, XmlFormatter.format(xml, 2, 0, 0));
+    }
+
+    @Test
+    public void collapsesDeepElements() {
+        String xml = "<a><b><c>1</c><c>2</c></b><d/></a>";
+        String expected = "<a>\n"
+                + "  <b>\n"
+                + "    ...\n"
+                + "  </b>\n"
+                + "  <d/>\n"
+                + "</a>";
+        assertEquals(expected, XmlFormatter.format(xml, 2, 0, 2));
+    }
+
+    @Test
+    public void truncatesLongOutput() {
+        StringBuilder xml = new StringBuilder("<list>");
+        for (int i = 0; i < 1000; i++) {
+            xml.append("<item>").append(i).append("</item>");
+        }
+        xml.append("</list>");
+        String result = XmlFormatter.format(xml.toString(), 2, 100, 0);
+        assertTrue(result.startsWith("<list>\n  <item>0</item>"));
+        assertTrue(result.endsWith("\n... (truncated, " + xml.length() + " chars)"));
+        assertTrue(result.length() < 150);
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        String[] invalid = {"<a><b></a></b>", "<a>", "text", "<a></a><b></b>", "<a x=\"1></a>", "<a></b>", "</a>", "<a><!-- x</a>"};
+        for (String xml : invalid) {
+            try {
+                XmlFormatter.format(xml, 2, 0, 0);
+                fail(xml);
+            } catch (IllegalArgumentException expected) {
+                // 期望的异常
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐行输出的LogAdapter和一次输出整条日志的BatchLogAdapter的对比
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdapterBenchmark {
+
+    private LoggerPrinter linePrinter;
+    private LoggerPrinter batchPrinter;
+    private NoOpLogAdapter lineAdapter;
+    private NoOpBatchLogAdapter batchAdapter;
+    private String message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lineAdapter = new NoOpLogAdapter();
+        batchAdapter = new NoOpBatchLogAdapter();
+        linePrinter = new LoggerPrinter();
+        linePrinter.init("BENCH").methodCount(0).setLogAdapter(lineAdapter);
+        batchPrinter = new LoggerPrinter();
+        batchPrinter.init("BENCH").methodCount(0).setLogAdapter(batchAdapter);
+        message = Payloads.text(800);
+    }
+
+    @Benchmark
+    public long lineByLine() {
+        linePrinter.t("net", 0).i(message);
+        return lineAdapter.lines;
+    }
+
+    @Benchmark
+    public long batched() {
+        batchPrinter.t("net", 0).i(message);
+        return batchAdapter.lines;
+    }
+}
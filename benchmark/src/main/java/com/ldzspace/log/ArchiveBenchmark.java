@@ -0,0 +1,100 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压缩一个1MB的文本分段(边框样式,MappedFileLogAdapter写入)的CPU时间,即每MB的压缩耗时,
+ * 压缩率在每轮结束时输出
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ArchiveBenchmark {
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    @Param({"16384", "65536"})
+    public int blockSize;
+
+    @Param({"true", "false"})
+    public boolean dictionary;
+
+    private File directory;
+    private File segment;
+    private byte[] data;
+    private LogArchiver archiver;
+    private long archiveBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = File.createTempFile("dzlog", "archive");
+        directory.delete();
+        directory.mkdirs();
+        MappedFileLogAdapter adapter = new MappedFileLogAdapter(directory, SEGMENT_SIZE, 0, 2);
+        LoggerPrinter printer = new LoggerPrinter();
+        printer.init("DZLOG").methodCount(1).setLogAdapter(adapter);
+        for (int i = 0; adapter.getSegments().length < 2; i++) {
+            printer.t(i % 3 == 0 ? "net" : "ui").i("request {} GET /api/v1/users/{} finished in {} ms", i, i % 1000, i % 97);
+        }
+        adapter.close();
+        File first = adapter.getSegments()[0];
+        RandomAccessFile file = new RandomAccessFile(first, "r");
+        data = new byte[(int) file.length()];
+        file.readFully(data);
+        file.close();
+        for (File closed : adapter.getSegments()) {
+            closed.delete();
+        }
+        segment = MappedFileLogAdapter.segmentFile(directory, 1);
+        archiver = new LogArchiver(blockSize, dictionary ? LogArchiver.DEFAULT_DICTIONARY : null, 1);
+    }
+
+    @Setup(Level.Invocation)
+    public void writeSegment() throws IOException {
+        FileOutputStream out = new FileOutputStream(segment);
+        out.write(data);
+        out.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n%d bytes -> %d bytes, ratio %.1f%n", data.length, archiveBytes, (double) data.length / archiveBytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long compact() throws IOException {
+        archiveBytes = archiver.compact(segment).length();
+        return archiveBytes;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 持久化一条带参数的日志: 边框文本写入映射文件 和 二进制格式写入映射文件
+ * methodCount为0时不获取栈信息,只比较格式化和写入的开销;结束时输出每条日志占用的文件字节数(bytes/event)
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryFormatBenchmark {
+    @Param({"0", "2"})
+    public int methodCount;
+
+    private File directory;
+    private MappedFileLogAdapter textSink;
+    private BinaryLogWriter binarySink;
+    private LoggerPrinter textPrinter;
+    private LoggerPrinter binaryPrinter;
+    private long events;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = File.createTempFile("dzlog", "bench");
+        directory.delete();
+        directory.mkdirs();
+        // 保留所有分段,结束时统计总字节数
+        textSink = new MappedFileLogAdapter(new File(directory, "text"),
+                MappedFileLogAdapter.DEFAULT_SEGMENT_SIZE, 0, Integer.MAX_VALUE);
+        binarySink = new BinaryLogWriter(new File(directory, "binary"),
+                MappedFileLogAdapter.DEFAULT_SEGMENT_SIZE, 0, Integer.MAX_VALUE);
+        textPrinter = new LoggerPrinter();
+        textPrinter.init("DZLOG").methodCount(methodCount);
+        textPrinter.getSettings().setLogAdapter(textSink);
+        binaryPrinter = new LoggerPrinter();
+        binaryPrinter.init("DZLOG").methodCount(methodCount).binaryOutput(binarySink, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        // 关闭时截断未使用的部分,文件大小就是写入的字节数
+        textSink.close();
+        binarySink.close();
+        long bytes = 0;
+        for (File file : textSink.getSegments()) {
+            bytes += file.length();
+        }
+        for (File file : binarySink.getSegments()) {
+            bytes += file.length();
+        }
+        System.out.println(String.format(Locale.US, "%n%.1f bytes/event (%d events)", (double) bytes / events, events));
+        for (File file : textSink.getSegments()) {
+            file.delete();
+        }
+        for (File file : binarySink.getSegments()) {
+            file.delete();
+        }
+        new File(directory, "text").delete();
+        new File(directory, "binary").delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void text() {
+        textPrinter.t("net", methodCount).i("request {} finished in {} ms", events++, 17);
+    }
+
+    @Benchmark
+    public void binary() {
+        binaryPrinter.t("net", methodCount).i("request {} finished in {} ms", events++, 17);
+    }
+}
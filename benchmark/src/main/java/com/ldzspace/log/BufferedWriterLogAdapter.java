@@ -0,0 +1,40 @@
+package com.ldzspace.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 基准测试中作为对照的文件adapter,使用BufferedWriter追加写入,
+ * 每条日志结束后flush一次,和映射文件一样保证进程被杀死时不丢失已输出的日志
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class BufferedWriterLogAdapter extends NoOpLogAdapter implements BatchLogAdapter {
+    private final Writer writer;
+
+    public BufferedWriterLogAdapter(File file) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"), 64 * 1024);
+    }
+
+    @Override
+    public synchronized void writeEvent(int priority, String tag, List<CharSequence> lines) {
+        try {
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                writer.append(tag).append(": ").append(lines.get(i)).append('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 获取和格式化调用位置的开销: Thread.getStackTrace 和 new Throwable 的对比,
+ * 以及同一调用位置重复格式化时缓存的效果
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallerLocatorBenchmark {
+
+    private final StackTraceElement element =
+            new StackTraceElement("com.example.app.NetworkClient", "execute", "NetworkClient.java", 128);
+
+    @Benchmark
+    public StackTraceElement[] threadStackTrace() {
+        return Thread.currentThread().getStackTrace();
+    }
+
+    @Benchmark
+    public StackTraceElement[] throwableStackTrace() {
+        return CallerLocator.capture();
+    }
+
+    @Benchmark
+    public String formatUncached() {
+        StackTraceElement e = element;
+        String className = e.getClassName();
+        return "║ " + className.substring(className.lastIndexOf('.') + 1) + "." + e.getMethodName()
+                + "  (" + e.getFileName() + ":" + e.getLineNumber() + ")";
+    }
+
+    @Benchmark
+    public String formatCached() {
+        return CallerLocator.line(element, 1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大消息拆分的对比: 原来的 getBytes + new String + split 和 LineChunker
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkingBenchmark {
+    private static final int CHUNK_SIZE = 4000;
+    private static final String SEPARATOR = "\n";
+
+    @Param({"10240", "102400", "1048576", "5242880"})
+    public int size;
+
+    private String message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = Payloads.text(size);
+    }
+
+    @Benchmark
+    public void legacySplit(Blackhole blackhole) {
+        byte[] bytes = message.getBytes();
+        int length = bytes.length;
+        for (int i = 0; i < length; i += CHUNK_SIZE) {
+            int count = Math.min(length - i, CHUNK_SIZE);
+            String chunk = new String(bytes, i, count);
+            for (String line : chunk.split(SEPARATOR)) {
+                blackhole.consume(line);
+            }
+        }
+    }
+
+    @Benchmark
+    public void lineChunker(Blackhole blackhole) {
+        LineChunker chunker = new LineChunker(message, CHUNK_SIZE);
+        while (chunker.next()) {
+            blackhole.consume(chunker.line());
+        }
+    }
+
+    @Benchmark
+    public void lineChunkerBoundsOnly(Blackhole blackhole) {
+        LineChunker chunker = new LineChunker(message, CHUNK_SIZE);
+        while (chunker.next()) {
+            blackhole.consume(chunker.lineEnd());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 映射文件adapter和BufferedWriter adapter写入一条5行日志的开销
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FileSinkBenchmark {
+    private File directory;
+    private MappedFileLogAdapter mapped;
+    private BufferedWriterLogAdapter buffered;
+    private List<CharSequence> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = File.createTempFile("dzlog", "bench");
+        directory.delete();
+        directory.mkdirs();
+        mapped = new MappedFileLogAdapter(new File(directory, "mapped"),
+                MappedFileLogAdapter.DEFAULT_SEGMENT_SIZE, 0, 4);
+        buffered = new BufferedWriterLogAdapter(new File(directory, "buffered.log"));
+        lines = Arrays.<CharSequence>asList(
+                "╔════════════════════════════════════════════",
+                "║ Thread: main",
+                "╟────────────────────────────────────────────",
+                "║ request GET /api/v1/users/42 finished in 17 ms",
+                "╚════════════════════════════════════════════");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mapped.close();
+        buffered.close();
+        for (File file : mapped.getSegments()) {
+            file.delete();
+        }
+        new File(directory, "mapped").delete();
+        new File(directory, "buffered.log").delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void mappedFile() {
+        mapped.writeEvent(Logger.INFO, "DZLOG-net", lines);
+    }
+
+    @Benchmark
+    public void bufferedWriter() {
+        buffered.writeEvent(Logger.INFO, "DZLOG-net", lines);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ldzspace.log;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * json缩进: 原来的JSONObject.toString(2) 和 流式的JsonFormatter
+ * count是data数组的元素数,每个元素约80字节,20000个约1.6MB
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonFormatBenchmark {
+    @Param({"50", "20000"})
+    public int count;
+
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = Payloads.json(count);
+    }
+
+    @Benchmark
+    public String jsonObjectTree() {
+        return new JSONObject(json).toString(2);
+    }
+
+    @Benchmark
+    public String streaming() {
+        return new JsonFormatter(2, 0).format(json);
+    }
+
+    @Benchmark
+    public String streamingWithArrayLimit() {
+        return new JsonFormatter(2, 100).format(json);
+    }
+}
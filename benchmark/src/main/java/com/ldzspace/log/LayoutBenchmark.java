@@ -0,0 +1,56 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 边框样式和单行模板的排版开销,不获取调用位置,只比较排版本身
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LayoutBenchmark {
+
+    private LoggerPrinter box;
+    private LoggerPrinter flat;
+    private NoOpBatchLogAdapter adapter;
+    private long value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new NoOpBatchLogAdapter();
+        box = new LoggerPrinter();
+        box.init("BENCH").methodCount(0).setLogAdapter(adapter);
+        flat = new LoggerPrinter();
+        flat.init("BENCH").methodCount(0).layout(new PatternLayout(PatternLayout.FLAT)).setLogAdapter(adapter);
+    }
+
+    @Benchmark
+    public long box() {
+        box.i("value {}", value++);
+        return adapter.events;
+    }
+
+    @Benchmark
+    public long flat() {
+        flat.i("value {}", value++);
+        return adapter.events;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 被级别过滤的调用的开销,期望在几纳秒以内并且不分配内存
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelFilterBenchmark {
+
+    private LoggerPrinter printer;
+    private LoggerPrinter crashPrinter;
+    private NoOpLogAdapter adapter;
+    private Object[] items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new NoOpLogAdapter();
+        printer = new LoggerPrinter();
+        Settings settings = printer.init("BENCH");
+        settings.setLogAdapter(adapter);
+        settings.setLogLevel(LogLevel.WARN);
+        settings.logLevel("net", LogLevel.ERROR);
+        items = new Object[]{"a", "b", "c"};
+        // 全局级别为NONE,只写入崩溃缓冲区
+        crashPrinter = new LoggerPrinter();
+        crashPrinter.init("BENCH").crashBuffer(new CrashBuffer(256, LogLevel.DEBUG)).setLogLevel(LogLevel.NONE);
+        crashPrinter.getSettings().setLogAdapter(adapter);
+    }
+
+    @Benchmark
+    public long disabledNoArgs() {
+        printer.d("request finished");
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long disabledFormatArgs() {
+        printer.d("user %s loaded %d items", "alice", 42);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long disabledObject() {
+        printer.d((Object) items);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long disabledTagOverride() {
+        printer.t("net", 0).w("retry %d", 3);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long disabledWithCrashBuffer() {
+        crashPrinter.d("user %s loaded %d items", "alice", 42);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long disabledPrimitiveWithCrashBuffer() {
+        crashPrinter.d("loaded {} items", 42L);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public boolean isLoggable() {
+        return printer.isLoggable(Logger.DEBUG, "net");
+    }
+}
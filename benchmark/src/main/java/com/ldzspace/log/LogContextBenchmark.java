@@ -0,0 +1,105 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志上下文的快照开销: 每条日志获取当前线程的上下文(3项),
+ * 和常见MDC实现中每条日志复制一份HashMap对比;
+ * 以及修改一项,包装任务,和带上下文打印一条(被过滤/输出到空adapter)的开销
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogContextBenchmark {
+    private final ThreadLocal<Map<String, String>> legacy = new ThreadLocal<>();
+    private final Runnable task = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+    private LoggerPrinter printer;
+    private LoggerPrinter filtered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LogContext.put("requestId", "r-123456");
+        LogContext.put("userId", "42");
+        LogContext.put("traceId", "4bf92f3577b34da6a3ce929d0e0e4736");
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < LogContext.current().size(); i++) {
+            map.put(LogContext.current().getKey(i), LogContext.current().getValue(i));
+        }
+        legacy.set(map);
+        printer = new LoggerPrinter();
+        printer.init("BENCH").methodCount(0).setLogAdapter(new NoOpBatchLogAdapter());
+        filtered = new LoggerPrinter();
+        filtered.init("BENCH").setLogLevel(LogLevel.NONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LogContext.clear();
+    }
+
+    @Benchmark
+    public LogContext snapshot() {
+        return LogContext.current();
+    }
+
+    /**
+     * 每条日志复制一份当前线程的map
+     */
+    @Benchmark
+    public Map<String, String> snapshotCopy() {
+        return new HashMap<>(legacy.get());
+    }
+
+    /**
+     * 替换一项,复制3项
+     */
+    @Benchmark
+    public LogContext put() {
+        LogContext.put("requestId", "r-654321");
+        LogContext.put("requestId", "r-123456");
+        return LogContext.current();
+    }
+
+    /**
+     * 包装任务并在当前线程执行
+     */
+    @Benchmark
+    public void wrapAndRun() {
+        LogContext.wrap(task).run();
+    }
+
+    @Benchmark
+    public void logFiltered() {
+        filtered.d("request {} finished", 7L);
+    }
+
+    @Benchmark
+    public void logWithContext() {
+        printer.d("request {} finished", 7L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100万条日志的LogStore中按时间,tag,级别和单词查询的耗时
+ * 每10ms一条,90%是DZLOG-ui,10%是DZLOG-net,0.1%是DZLOG-pay,1%是ERROR,每条消息带一个唯一的请求id;
+ * fullScan是不使用任何索引条件的全量扫描,作为对比
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogStoreBenchmark {
+    private static final int EVENTS = 1000000;
+    private static final long BASE = 1500000000000L;
+
+    @Param({"0", "2097152"})
+    public int bloomBits;
+
+    private File directory;
+    private LogStore store;
+    private final Set<String> payTag = Collections.singleton("DZLOG-pay");
+    private final LogStore.Visitor counter = new LogStore.Visitor() {
+        @Override
+        public boolean visit(LogStore.Record record) {
+            return true;
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = File.createTempFile("dzlog", "store");
+        directory.delete();
+        directory.mkdirs();
+        store = new LogStore(directory, 16 * 1024 * 1024, 16, bloomBits);
+        for (int i = 0; i < EVENTS; i++) {
+            String tag = i % 1000 == 0 ? "DZLOG-pay" : i % 10 == 0 ? "DZLOG-net" : "DZLOG-ui";
+            int priority = i % 100 == 0 ? Logger.ERROR : Logger.DEBUG;
+            store.writeStructured(priority, tag, BASE + i * 10L, "main",
+                    "request req-" + i + " user " + (i % 5000) + " finished in " + (i % 97) + " ms", null, LogFields.EMPTY);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * 中间1分钟的6000条
+     */
+    @Benchmark
+    public int timeRange() throws IOException {
+        long from = BASE + EVENTS / 2 * 10L;
+        return store.query(from, from + 59999, null, null, null, counter);
+    }
+
+    /**
+     * 1000条DZLOG-pay
+     */
+    @Benchmark
+    public int rareTag() throws IOException {
+        return store.query(Long.MIN_VALUE, Long.MAX_VALUE, payTag, null, null, counter);
+    }
+
+    /**
+     * 1万条ERROR
+     */
+    @Benchmark
+    public int errors() throws IOException {
+        return store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, LogLevel.ERROR, null, counter);
+    }
+
+    /**
+     * 唯一的请求id
+     */
+    @Benchmark
+    public int requestId() throws IOException {
+        return store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, "req-777777", counter);
+    }
+
+    @Benchmark
+    public int fullScan() throws IOException {
+        return store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, counter);
+    }
+}
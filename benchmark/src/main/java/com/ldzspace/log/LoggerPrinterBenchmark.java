@@ -0,0 +1,92 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoggerPrinter整个输出流程的基准测试,adapter不做I/O,测的是库本身每次调用的开销
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggerPrinterBenchmark {
+
+    @Param({"0", "2", "8"})
+    public int methodCount;
+
+    private LoggerPrinter printer;
+    private NoOpLogAdapter adapter;
+
+    private String largeMessage;
+    private String json;
+    private String xml;
+    private Throwable throwable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new NoOpLogAdapter();
+        printer = new LoggerPrinter();
+        printer.init("BENCH")
+                .methodCount(methodCount)
+                .setLogAdapter(adapter);
+
+        largeMessage = Payloads.text(3 * 4000);
+        json = Payloads.json(50);
+        xml = Payloads.xml(50);
+        throwable = new IllegalStateException("outer", new RuntimeException("inner"));
+    }
+
+    @Benchmark
+    public long shortMessage() {
+        printer.i("request finished");
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long formatArgs() {
+        printer.i("user %s loaded %d items in %d ms", "alice", 42, 17L);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long largeMessage() {
+        printer.i(largeMessage);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long json() {
+        printer.json(json);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long xml() {
+        printer.xml(xml);
+        return adapter.lines;
+    }
+
+    @Benchmark
+    public long throwable() {
+        printer.e(throwable, "request failed", null);
+        return adapter.lines;
+    }
+}
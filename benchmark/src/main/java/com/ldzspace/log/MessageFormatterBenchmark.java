@@ -0,0 +1,44 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageFormatter 和 String.format 的对比
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageFormatterBenchmark {
+    private static final String PATTERN = "user %s loaded %d items in %d ms";
+
+    private final LogEvent objects = new LogEvent();
+    private long counter;
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(PATTERN, "alice", 42, counter++);
+    }
+
+    @Benchmark
+    public String formatterObjects() {
+        objects.message = PATTERN;
+        objects.args = new Object[]{"alice", 42, counter++};
+        return MessageFormatter.format(objects, false);
+    }
+}
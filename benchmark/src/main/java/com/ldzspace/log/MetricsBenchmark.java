@@ -0,0 +1,67 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 开启统计前后的开销: 被过滤的调用只多一次计数,输出的调用多两次计数,采样的调用才读取时钟
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private LoggerPrinter plain;
+    private LoggerPrinter measured;
+    private NoOpBatchLogAdapter adapter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new NoOpBatchLogAdapter();
+        plain = new LoggerPrinter();
+        plain.init("BENCH").methodCount(0).setLogAdapter(adapter);
+        plain.getSettings().setLogLevel(LogLevel.INFO);
+        measured = new LoggerPrinter();
+        measured.init("BENCH").methodCount(0).metrics(new LogMetrics()).setLogAdapter(adapter);
+        measured.getSettings().setLogLevel(LogLevel.INFO);
+    }
+
+    @Benchmark
+    public void filteredPlain() {
+        plain.d("value {}", 42L);
+    }
+
+    @Benchmark
+    public void filteredMeasured() {
+        measured.d("value {}", 42L);
+    }
+
+    @Benchmark
+    public void loggedPlain() {
+        plain.i("value {}", 42L);
+    }
+
+    @Benchmark
+    public void loggedMeasured() {
+        measured.i("value {}", 42L);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ldzspace.log;
+
+import java.util.List;
+
+/**
+ * 基准测试使用的批量adapter,不做任何I/O,只统计行数和字符数
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class NoOpBatchLogAdapter extends NoOpLogAdapter implements BatchLogAdapter {
+    public long events;
+
+    @Override
+    public void writeEvent(int priority, String tag, List<CharSequence> event) {
+        events++;
+        for (int i = 0, size = event.size(); i < size; i++) {
+            lines++;
+            chars += event.get(i).length();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ldzspace.log;
+
+/**
+ * 基准测试使用的adapter,不做任何I/O,只统计输出的行数和字符数,
+ * 防止JIT把整个输出过程当作无用代码消除
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+public class NoOpLogAdapter implements LogAdapter {
+    public long lines;
+    public long chars;
+
+    private void count(String tag, String message) {
+        lines++;
+        chars += tag.length() + message.length();
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        count(tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        count(tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        count(tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        count(tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        count(tag, message);
+    }
+
+    @Override
+    public void wtf(String tag, String message) {
+        count(tag, message);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ldzspace.log;
+
+/**
+ * 基准测试使用的测试数据
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+final class Payloads {
+    private Payloads() {
+    }
+
+    /**
+     * 生成多行文本,每行约80个字符
+     * @param length 字符数
+     * @return
+     */
+    static String text(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        int line = 0;
+        while (builder.length() < length) {
+            builder.append("line ").append(line++)
+                    .append(": the quick brown fox jumps over the lazy dog, 敏捷的棕色狐狸跳过了懒狗\n");
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /**
+     * 生成一个包含count个元素的json对象
+     * @param count
+     * @return
+     */
+    static String json(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"code\":0,\"message\":\"ok\",\"data\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i)
+                    .append(",\"name\":\"user").append(i)
+                    .append("\",\"score\":").append(i * 1.5)
+                    .append(",\"tags\":[\"a\",\"b\"],\"active\":").append(i % 2 == 0)
+                    .append('}');
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    /**
+     * 生成一个包含count个子元素的xml文档
+     * @param count
+     * @return
+     */
+    static String xml(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><response code=\"0\"><users>");
+        for (int i = 0; i < count; i++) {
+            builder.append("<user id=\"").append(i).append("\"><name>user").append(i)
+                    .append("</name><score>").append(i * 1.5).append("</score></user>");
+        }
+        builder.append("</users></response>");
+        return builder.toString();
+    }
+}
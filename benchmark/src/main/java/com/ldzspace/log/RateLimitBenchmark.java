@@ -0,0 +1,69 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 循环中反复打印同一条日志: 没有限流时每次都获取栈信息和格式化,
+ * 限流后被丢弃的调用只剩下令牌桶或者重复消息的检查
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RateLimitBenchmark {
+
+    private LoggerPrinter unlimited;
+    private LoggerPrinter limited;
+    private NoOpBatchLogAdapter adapter;
+    private long frame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new NoOpBatchLogAdapter();
+        unlimited = new LoggerPrinter();
+        unlimited.init("BENCH").setLogAdapter(adapter);
+        limited = new LoggerPrinter();
+        limited.init("BENCH").rateLimit(new RateLimiter(10, 20)).setLogAdapter(adapter);
+    }
+
+    @Benchmark
+    public long floodUnlimited() {
+        unlimited.w("frame {} dropped", frame++);
+        return adapter.events;
+    }
+
+    /**
+     * 参数每次不同,由令牌桶丢弃
+     */
+    @Benchmark
+    public long floodRateLimited() {
+        limited.w("frame {} dropped", frame++);
+        return adapter.events;
+    }
+
+    /**
+     * 参数相同,由重复消息合并丢弃
+     */
+    @Benchmark
+    public long floodRepeated() {
+        limited.w("frame {} dropped", 42L);
+        return adapter.events;
+    }
+}
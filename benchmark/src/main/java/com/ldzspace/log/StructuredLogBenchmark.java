@@ -0,0 +1,65 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可变参数和结构化日志的对比: 被过滤时结构化日志返回单例,不创建参数数组也不装箱
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StructuredLogBenchmark {
+
+    private LoggerPrinter printer;
+    private NoOpBatchLogAdapter adapter;
+    private long userId = 1000;
+    private double latency = 12.5;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new NoOpBatchLogAdapter();
+        printer = new LoggerPrinter();
+        printer.init("BENCH").methodCount(0).setLogAdapter(adapter);
+        printer.getSettings().setLogLevel(LogLevel.INFO);
+    }
+
+    @Benchmark
+    public void disabledVarargs() {
+        printer.d("request done user={} latency={}", userId++, latency);
+    }
+
+    @Benchmark
+    public void disabledStructured() {
+        printer.atDebug().kv("userId", userId++).kv("latencyMs", latency).log("request done");
+    }
+
+    @Benchmark
+    public long enabledVarargs() {
+        printer.i("request done user={} latency={}", userId++, latency);
+        return adapter.events;
+    }
+
+    @Benchmark
+    public long enabledStructured() {
+        printer.atInfo().kv("userId", userId++).kv("latencyMs", latency).log("request done");
+        return adapter.events;
+    }
+}
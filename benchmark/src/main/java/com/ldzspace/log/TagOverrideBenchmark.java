@@ -0,0 +1,104 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * t()指定tag和方法数的开销: 原来的ThreadLocal方式和缓存的TaggedPrinter对比,
+ * 多个线程共享同一个printer,被过滤的日志只剩下tag的处理
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TagOverrideBenchmark {
+
+    private LoggerPrinter printer;
+    private Printer net;
+    private ThreadLocalOverride legacy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        printer = new LoggerPrinter();
+        Settings settings = printer.init("BENCH");
+        settings.setLogAdapter(new NoOpLogAdapter());
+        settings.logLevel("net", LogLevel.ERROR);
+        net = printer.t("net", 0);
+        legacy = new ThreadLocalOverride(printer);
+    }
+
+    /**
+     * 原来的方式: t()写入两个ThreadLocal,打印时读取并remove
+     */
+    @Benchmark
+    public void threadLocal() {
+        legacy.t("net", 0);
+        legacy.w("retry {}", 3L);
+    }
+
+    /**
+     * 每次调用t(),从缓存中取TaggedPrinter
+     */
+    @Benchmark
+    public void taggedLookup() {
+        printer.t("net", 0).w("retry {}", 3L);
+    }
+
+    /**
+     * 保存在字段中的TaggedPrinter
+     */
+    @Benchmark
+    public void taggedField() {
+        net.w("retry {}", 3L);
+    }
+
+    /**
+     * 还原修改前LoggerPrinter中t()的实现,只用于对比
+     */
+    static final class ThreadLocalOverride {
+        private final LoggerPrinter printer;
+        private final ThreadLocal<String> localTag = new ThreadLocal<>();
+        private final ThreadLocal<Integer> localMethodCount = new ThreadLocal<>();
+
+        ThreadLocalOverride(LoggerPrinter printer) {
+            this.printer = printer;
+        }
+
+        void t(String tag, int methodCount) {
+            localMethodCount.set(methodCount);
+            if (tag != null) {
+                localTag.set(tag);
+            }
+        }
+
+        void w(String message, Object... args) {
+            String tag = localTag.get();
+            if (tag != null) {
+                localTag.remove();
+            }
+            Integer methodCount = localMethodCount.get();
+            if (methodCount != null) {
+                localMethodCount.remove();
+            }
+            printer.log(Logger.WARN, TagRegistry.intern(tag), methodCount == null ? -1 : methodCount, null, message, args);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分级tag net.http.retry(级别设置在net上)的过滤和格式化:
+ * 按字符串查表并逐级截取上一级,和按注册编号读取解析好的数组对比;
+ * 格式化是原来每条日志的字符串拼接和Tag中缓存的结果对比
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TagRegistryBenchmark {
+    private static final String BASE_TAG = "BENCH";
+
+    private final Map<String, LogLevel> levels = new HashMap<>();
+    private String name = "net.http.retry";
+    private Tag tag;
+    private LogConfig config;
+    private LoggerPrinter printer;
+    private Printer retry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        levels.put("net", LogLevel.ERROR);
+        tag = TagRegistry.intern(name);
+        config = LogConfig.defaults().toBuilder().tag(BASE_TAG).logLevel("net", LogLevel.ERROR).build();
+        printer = new LoggerPrinter();
+        printer.init(BASE_TAG).methodCount(0).logLevel("net", LogLevel.ERROR).setLogAdapter(new NoOpLogAdapter());
+        retry = printer.t(name, 0);
+    }
+
+    /**
+     * 按字符串查表,没有设置时截取上一级继续查
+     */
+    @Benchmark
+    public boolean filterByName() {
+        String current = name;
+        while (true) {
+            LogLevel level = levels.get(current);
+            if (level != null) {
+                return Logger.WARN >= level.getPriority();
+            }
+            int dot = current.lastIndexOf('.');
+            if (dot <= 0) {
+                return true;
+            }
+            current = current.substring(0, dot);
+        }
+    }
+
+    @Benchmark
+    public boolean filterById() {
+        return config.isLoggable(Logger.WARN, tag);
+    }
+
+    /**
+     * 原来的formatTag
+     */
+    @Benchmark
+    public String formatConcat() {
+        return !Helper.isEmpty(name) && !Helper.equals(BASE_TAG, name) ? BASE_TAG + "-" + name : BASE_TAG;
+    }
+
+    @Benchmark
+    public String formatCached() {
+        return tag.format(BASE_TAG);
+    }
+
+    /**
+     * 完整的调用,被继承的级别过滤
+     */
+    @Benchmark
+    public void printerFiltered() {
+        retry.w("retry {}", 3L);
+    }
+}
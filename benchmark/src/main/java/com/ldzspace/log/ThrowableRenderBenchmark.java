@@ -0,0 +1,75 @@
+package com.ldzspace.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 深层调用栈(类似RxJava)的异常: printStackTrace()拼接字符串和ThrowableRenderer的对比
+ * @作者 liudazhi
+ * @创建日期 2026/10/18
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ThrowableRenderBenchmark {
+
+    private Throwable throwable;
+    private LoggerPrinter printer;
+    private NoOpBatchLogAdapter adapter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 3层cause,每层300帧,大部分在io.reactivex.internal中
+        Throwable cause = null;
+        for (int level = 0; level < 3; level++) {
+            StackTraceElement[] trace = new StackTraceElement[300];
+            for (int i = 0; i < trace.length; i++) {
+                String className = i % 10 == 0 ? "com.example.app.Repository" : "io.reactivex.internal.operators.Observable" + i;
+                trace[i] = new StackTraceElement(className, "subscribeActual", "Observable.java", i + level);
+            }
+            cause = new IllegalStateException("request failed at level " + level, cause);
+            cause.setStackTrace(trace);
+        }
+        throwable = cause;
+        adapter = new NoOpBatchLogAdapter();
+        printer = new LoggerPrinter();
+        printer.init("BENCH").methodCount(0).setLogAdapter(adapter);
+    }
+
+    @Benchmark
+    public String printStackTrace() {
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        throwable.printStackTrace(pw);
+        pw.flush();
+        return "load failed: " + sw.toString();
+    }
+
+    @Benchmark
+    public String render() {
+        return ThrowableRenderer.DEFAULT.render(throwable);
+    }
+
+    @Benchmark
+    public long logError() {
+        printer.e(throwable, "load failed", null);
+        return adapter.events;
+    }
+}